@@ -0,0 +1,166 @@
+package com.alurachallenge.Literatura.benchmark;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.Repository.AutorRepository;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.dto.AutorResumen;
+import com.alurachallenge.Literatura.dto.ConteoPorClave;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import com.alurachallenge.Literatura.service.RegistroLibros;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cada consulta de {@link LibroRepository} y {@link AutorRepository} sobre catálogos de
+ * distintos tamaños en H2. Los listados completos y los conteos crecen con el catálogo;
+ * las búsquedas por clave deberían mantenerse estables.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConsultasBenchmark {
+    private static final int TAMANO_LOTE = 5_000;
+
+    @Param({"1000", "10000", "50000"})
+    private int tamanoCatalogo;
+
+    private ConfigurableApplicationContext contexto;
+    private LibroRepository libroRepository;
+    private AutorRepository autorRepository;
+    private List<String> titulos;
+    private List<String> nombres;
+    private List<Long> idsLibros;
+    private List<Long> idsAutores;
+    private long idIntermedio;
+    private String tituloIntermedio;
+    private String nombreIntermedio;
+
+    @Setup
+    public void preparar() {
+        contexto = ContextoBenchmark.iniciar("consultas" + tamanoCatalogo);
+        libroRepository = contexto.getBean(LibroRepository.class);
+        autorRepository = contexto.getBean(AutorRepository.class);
+        RegistroLibros registroLibros = contexto.getBean(RegistroLibros.class);
+
+        List<DatosLibro> catalogo = Fixtures.catalogo(tamanoCatalogo);
+        for (int desde = 0; desde < catalogo.size(); desde += TAMANO_LOTE) {
+            registroLibros.registrarTodos(catalogo.subList(desde, Math.min(desde + TAMANO_LOTE, catalogo.size())));
+        }
+
+        // Claves repartidas por todo el catálogo, como las que llegarían de la consola o de la API
+        int mitad = tamanoCatalogo / 2;
+        tituloIntermedio = "Libro " + mitad;
+        nombreIntermedio = "Autor " + mitad / 5;
+        titulos = IntStream.range(0, 32).mapToObj(i -> "Libro " + (i * tamanoCatalogo / 32)).toList();
+        nombres = IntStream.range(0, 32).mapToObj(i -> "Autor " + (i * tamanoCatalogo / 160)).toList();
+        idsLibros = titulos.stream().map(titulo -> libroRepository.findByTitulo(titulo).orElseThrow().getId()).toList();
+        idsAutores = autorRepository.buscarIdsPorNombre(nombres).stream().map(fila -> (Long) fila[1]).toList();
+        idIntermedio = libroRepository.findByTitulo(tituloIntermedio).orElseThrow().getId();
+    }
+
+    @TearDown
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Optional<Libro> libroFindByTitulo() {
+        return libroRepository.findByTitulo(tituloIntermedio);
+    }
+
+    @Benchmark
+    public List<Libro> libroFindAll() {
+        return libroRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Libro> libroBuscarIdsDespuesDe() {
+        return libroRepository.cargarEnOrden(libroRepository.buscarIdsDespuesDe(idIntermedio, Limit.of(500)));
+    }
+
+    @Benchmark
+    public List<Libro> libroBuscarIdsPorIdiomaDespuesDe() {
+        return libroRepository.cargarEnOrden(libroRepository.buscarIdsPorIdiomaDespuesDe("es", idIntermedio, Limit.of(500)));
+    }
+
+    @Benchmark
+    public List<String> libroBuscarTitulosExistentes() {
+        return libroRepository.buscarTitulosExistentes(titulos);
+    }
+
+    @Benchmark
+    public List<Libro> libroFindByIdiomasCodigo() {
+        return libroRepository.findByIdiomasCodigo("fr");
+    }
+
+    @Benchmark
+    public List<Libro> libroFindByIdIn() {
+        return libroRepository.findByIdIn(idsLibros);
+    }
+
+    @Benchmark
+    public List<Libro> libroFindDistinctByAutoresIdIn() {
+        return libroRepository.findDistinctByAutoresIdIn(idsAutores);
+    }
+
+    @Benchmark
+    public List<ConteoPorClave> libroContarLibrosPorIdioma() {
+        return libroRepository.contarLibrosPorIdioma();
+    }
+
+    @Benchmark
+    public List<String> libroBuscarIdiomas() {
+        return libroRepository.buscarIdiomas();
+    }
+
+    @Benchmark
+    public List<Libro> libroTopDescargas() {
+        return libroRepository.cargarEnOrden(libroRepository.buscarIdsMasDescargados(Limit.of(10)));
+    }
+
+    @Benchmark
+    public List<Libro> libroTopDescargasPorIdioma() {
+        return libroRepository.cargarEnOrden(libroRepository.buscarIdsMasDescargadosPorIdioma("es", Limit.of(10)));
+    }
+
+    @Benchmark
+    public List<Object[]> autorBuscarIdsPorNombre() {
+        return autorRepository.buscarIdsPorNombre(nombres);
+    }
+
+    @Benchmark
+    public List<AutorResumen> autorFindByIdInOrderByNombreAsc() {
+        return autorRepository.findByIdInOrderByNombreAsc(idsAutores);
+    }
+
+    @Benchmark
+    public List<AutorResumen> autorFindByNombreGreaterThan() {
+        return autorRepository.findByNombreGreaterThanOrderByNombreAsc(nombreIntermedio, Limit.of(500));
+    }
+
+    @Benchmark
+    public List<ConteoPorClave> autorContarLibrosPorAutor() {
+        return autorRepository.contarLibrosPorAutor();
+    }
+}
@@ -0,0 +1,33 @@
+package com.alurachallenge.Literatura.benchmark;
+
+import com.alurachallenge.Literatura.LiteraturaApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Arranca la aplicación sin consola ni servidor web sobre una base H2 en memoria
+ * en modo PostgreSQL, la misma configuración que usan las pruebas.
+ */
+
+final class ContextoBenchmark {
+
+    private ContextoBenchmark() {}
+
+    static ConfigurableApplicationContext iniciar(String baseDeDatos) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // Como argumentos de línea de comandos, para que prevalezcan sobre application.properties
+        return new SpringApplicationBuilder(LiteraturaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + baseDeDatos
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=warn",
+                        "--literatura.consola.habilitada=false",
+                        "--literatura.cache.habilitada=false");
+    }
+}
@@ -0,0 +1,61 @@
+package com.alurachallenge.Literatura.benchmark;
+
+import com.alurachallenge.Literatura.dto.Datos;
+import com.alurachallenge.Literatura.service.ConvierteDatos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversión de páginas de Gutendex: una página normal de la API (32 libros)
+ * y páginas mayores para ver cómo escala con el tamaño de la respuesta.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConvierteDatosBenchmark {
+    @Param({"32", "320", "3200"})
+    private int librosPorPagina;
+
+    private final ConvierteDatos conversor = new ConvierteDatos();
+    private byte[] json;
+    private String texto;
+
+    @Setup
+    public void preparar() {
+        json = Fixtures.paginaCon(librosPorPagina);
+        texto = new String(json, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Datos obtenerDatosDesdeTexto() {
+        return conversor.obtenerDatos(texto, Datos.class);
+    }
+
+    @Benchmark
+    public Datos obtenerDatosDesdeFlujo() {
+        return conversor.obtenerDatos(new ByteArrayInputStream(json), Datos.class);
+    }
+
+    @Benchmark
+    public Datos recorrerResultados(Blackhole blackhole) {
+        return conversor.recorrerResultados(new ByteArrayInputStream(json), blackhole::consume);
+    }
+}
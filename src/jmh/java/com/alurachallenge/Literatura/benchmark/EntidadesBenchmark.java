@@ -0,0 +1,55 @@
+package com.alurachallenge.Literatura.benchmark;
+
+import com.alurachallenge.Literatura.Model.Autor;
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.dto.Datos;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import com.alurachallenge.Literatura.service.ConvierteDatos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción de las entidades a partir de los registros de la API, para una página completa.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EntidadesBenchmark {
+    private List<DatosLibro> libros;
+
+    @Setup
+    public void preparar() {
+        libros = new ConvierteDatos().obtenerDatos(new String(Fixtures.pagina(), StandardCharsets.UTF_8), Datos.class).resultados();
+    }
+
+    @Benchmark
+    public void crearLibros(Blackhole blackhole) {
+        for (DatosLibro datosLibro : libros) {
+            blackhole.consume(new Libro(datosLibro));
+        }
+    }
+
+    @Benchmark
+    public void crearAutores(Blackhole blackhole) {
+        for (DatosLibro datosLibro : libros) {
+            blackhole.consume(new Autor(datosLibro.autores().get(0)));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.alurachallenge.Literatura.benchmark;
+
+import com.alurachallenge.Literatura.dto.DatosAutor;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Datos de entrada de los benchmarks.
+ * La página de {@code fixtures/gutendex-pagina.json} tiene la forma exacta de una respuesta
+ * de Gutendex (32 libros, con formatos, temas y resúmenes); las páginas más grandes se
+ * construyen repitiendo sus libros con ids y títulos distintos.
+ */
+
+final class Fixtures {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String[] IDIOMAS = {"en", "en", "en", "es", "fr", "pt"};
+
+    private Fixtures() {}
+
+    static byte[] pagina() {
+        try (InputStream json = Fixtures.class.getResourceAsStream("/fixtures/gutendex-pagina.json")) {
+            return json.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Una página con la forma de Gutendex y el número de libros indicado.
+     */
+
+    static byte[] paginaCon(int libros) {
+        try {
+            ObjectNode original = (ObjectNode) MAPPER.readTree(pagina());
+            ArrayNode resultados = (ArrayNode) original.get("results");
+            ArrayNode nuevos = MAPPER.createArrayNode();
+            for (int i = 0; i < libros; i++) {
+                ObjectNode libro = resultados.get(i % resultados.size()).deepCopy();
+                int vuelta = i / resultados.size();
+                if (vuelta > 0) {
+                    libro.put("id", libro.get("id").asLong() + 100_000L * vuelta);
+                    libro.put("title", libro.get("title").asText() + " (vol. " + vuelta + ")");
+                }
+                nuevos.add(libro);
+            }
+            original.set("results", nuevos);
+            return MAPPER.writeValueAsBytes(original);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Un catálogo sintético con un autor cada cinco libros y una distribución de descargas sesgada,
+     * como la del catálogo real. Siempre genera los mismos datos.
+     */
+
+    static List<DatosLibro> catalogo(int libros) {
+        SplittableRandom azar = new SplittableRandom(42);
+        List<DatosLibro> catalogo = new ArrayList<>(libros);
+        for (int i = 0; i < libros; i++) {
+            int autor = i / 5;
+            int nacimiento = 1500 + (autor * 37) % 450;
+            DatosAutor datosAutor = new DatosAutor("Autor " + autor, nacimiento,
+                    autor % 20 == 0 ? null : nacimiento + 30 + (autor % 60));
+            long descargas = (long) (100_000 / (1 + azar.nextDouble() * 999));
+            catalogo.add(new DatosLibro((long) i + 1, "Libro " + i, List.of(datosAutor),
+                    List.of(IDIOMAS[i % IDIOMAS.length]), descargas));
+        }
+        return catalogo;
+    }
+}
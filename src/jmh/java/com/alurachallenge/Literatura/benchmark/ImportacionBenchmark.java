@@ -0,0 +1,82 @@
+package com.alurachallenge.Literatura.benchmark;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import com.alurachallenge.Literatura.service.ConvierteDatos;
+import com.alurachallenge.Literatura.service.RegistroLibros;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * El camino de importación de "Buscar libros de autor en la API" sin la red:
+ * se lee la página del flujo y se registra con un lote, sobre H2 en memoria.
+ * {@code importarPaginaNueva} cambia los títulos en cada llamada para que todos los libros
+ * sean nuevos; {@code importarPaginaRepetida} vuelve a importar la misma página, que ya existe.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ImportacionBenchmark {
+    @Param({"32", "320"})
+    private int librosPorPagina;
+
+    private ConfigurableApplicationContext contexto;
+    private ConvierteDatos conversor;
+    private RegistroLibros registroLibros;
+    private byte[] json;
+    private long importaciones;
+
+    @Setup
+    public void preparar() {
+        contexto = ContextoBenchmark.iniciar("importacion" + librosPorPagina);
+        conversor = contexto.getBean(ConvierteDatos.class);
+        registroLibros = contexto.getBean(RegistroLibros.class);
+        json = Fixtures.paginaCon(librosPorPagina);
+        registroLibros.registrarTodos(leer(0));
+    }
+
+    @TearDown
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Libro> importarPaginaNueva() {
+        return registroLibros.registrarTodos(leer(++importaciones));
+    }
+
+    @Benchmark
+    public List<Libro> importarPaginaRepetida() {
+        return registroLibros.registrarTodos(leer(0));
+    }
+
+    private List<DatosLibro> leer(long importacion) {
+        List<DatosLibro> libros = new ArrayList<>(librosPorPagina);
+        conversor.recorrerResultados(new ByteArrayInputStream(json), datosLibro -> libros.add(importacion == 0
+                ? datosLibro
+                : new DatosLibro(datosLibro.idGutendex() + 10_000_000L * importacion,
+                        datosLibro.titulo() + " #" + importacion, datosLibro.autores(),
+                        datosLibro.idiomas(), datosLibro.numeroDeDescargas())));
+        return libros;
+    }
+}
@@ -1,29 +1,65 @@
 package com.alurachallenge.Literatura;
 
-import com.alurachallenge.Literatura.Repository.AutorRepository;
-import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.instantanea.ConsolaInstantanea;
+import com.alurachallenge.Literatura.instantanea.Instantanea;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.ExitCodeGenerator;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.io.IOException;
+import java.nio.file.Path;
 
 @SpringBootApplication
-public class LiteraturaApplication implements CommandLineRunner {
+@EnableScheduling
+public class LiteraturaApplication implements CommandLineRunner, ExitCodeGenerator {
 
 	@Autowired
-	private LibroRepository libroRepository;
-	@Autowired
-	private AutorRepository autorRepository;
+	private Principal principal;
+	@Value("${literatura.consola.habilitada:true}")
+	private boolean consolaHabilitada;
+	private int codigoDeSalida;
 
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
+		// Con --instantanea=<archivo> se consulta una instantánea sin levantar Spring ni la base de datos
+		for (String argumento : args) {
+			if (argumento.startsWith("--instantanea=")) {
+				var instantanea = Instantanea.abrir(Path.of(argumento.substring("--instantanea=".length())));
+				new ConsolaInstantanea(instantanea).muestraElMenu();
+				return;
+			}
+			// En modo lote no hace falta el servidor web y la aplicación termina al acabar
+			if (argumento.startsWith("--lote=")) {
+				var aplicacion = new SpringApplication(LiteraturaApplication.class);
+				aplicacion.setWebApplicationType(WebApplicationType.NONE);
+				System.exit(SpringApplication.exit(aplicacion.run(args)));
+			}
+		}
 		SpringApplication.run(LiteraturaApplication.class, args);
 	}
 
 	@Override
 	public void run(String... args) throws Exception {
-		Principal principal = new Principal(libroRepository, autorRepository);
+		for (String argumento : args) {
+			if (argumento.startsWith("--lote=")) {
+				codigoDeSalida = principal.ejecutarLote(argumento.substring("--lote=".length())) ? 0 : 1;
+				return;
+			}
+		}
+		if (!consolaHabilitada) {
+			return;
+		}
 
 		// El bloque try-catch debe estar aquí
 		principal.muestraElMenu();
 	}
+
+	@Override
+	public int getExitCode() {
+		return codigoDeSalida;
+	}
 }
\ No newline at end of file
@@ -11,10 +11,11 @@ public class Autor {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+    @Column(unique = true)
     private String nombre;
     private Integer fechaDeNacimiento;
     private Integer fechaDeFallecimiento;
-    @OneToMany(mappedBy = "autor", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @ManyToMany(mappedBy = "autores", fetch = FetchType.LAZY)
     private List<Libro> libros;
 
     public Autor() {}
@@ -26,10 +27,22 @@ public class Autor {
     }
 
     // Getters y Setters...
+    public Long getId() {
+        return id;
+    }
+
     public String getNombre() {
         return nombre;
     }
 
+    public Integer getFechaDeNacimiento() {
+        return fechaDeNacimiento;
+    }
+
+    public Integer getFechaDeFallecimiento() {
+        return fechaDeFallecimiento;
+    }
+
     @Override
     public String toString() {
         return "Autor: " + nombre;
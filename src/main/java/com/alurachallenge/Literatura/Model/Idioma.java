@@ -0,0 +1,37 @@
+package com.alurachallenge.Literatura.Model;
+
+import jakarta.persistence.*;
+
+/**
+ * Diccionario de códigos de idioma ("en", "es"...). Cada código se guarda una sola vez y los
+ * libros lo referencian con un id pequeño desde la tabla {@code libros_idiomas}.
+ */
+
+@Entity
+@Table(name = "idiomas")
+public class Idioma {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Short id;
+    @Column(unique = true, nullable = false, length = 16)
+    private String codigo;
+
+    public Idioma() {}
+
+    public Idioma(String codigo) {
+        this.codigo = codigo;
+    }
+
+    public Short getId() {
+        return id;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    @Override
+    public String toString() {
+        return codigo;
+    }
+}
\ No newline at end of file
@@ -1,48 +1,106 @@
 package com.alurachallenge.Literatura.Model;
 
+import com.alurachallenge.Literatura.dto.DatosAutor;
 import com.alurachallenge.Literatura.dto.DatosLibro;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Entity
-@Table(name = "libros")
+@Table(name = "libros", indexes = @Index(name = "idx_libros_descargas", columnList = "numero_de_descargas"))
 public class Libro {
+    // Tamaño de los lotes con que se cargan los autores e idiomas de los libros leídos en una consulta
+    private static final int LOTE_DE_CARGA = 500;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+    // Id del libro en Gutendex; permite volver a pedirlo para actualizar sus descargas
+    @Column(unique = true)
+    private Long idGutendex;
+    @Column(unique = true, length = 1000)
     private String titulo;
-    private String idioma;
-    private Double numeroDeDescargas;
-    @ManyToOne
-    private Autor autor;
+    private long numeroDeDescargas;
+    // Autores e idiomas en el orden de la API. Son LAZY: las consultas cuyos libros se muestran
+    // los traen con un @EntityGraph, y un acceso dentro de la sesión los carga por lotes de libros
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = LOTE_DE_CARGA)
+    @JoinTable(name = "libros_autores",
+            joinColumns = @JoinColumn(name = "libro_id"),
+            inverseJoinColumns = @JoinColumn(name = "autor_id"),
+            indexes = @Index(name = "idx_libros_autores_autor", columnList = "autor_id, libro_id"))
+    @OrderColumn(name = "posicion")
+    private List<Autor> autores = new ArrayList<>();
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = LOTE_DE_CARGA)
+    @JoinTable(name = "libros_idiomas",
+            joinColumns = @JoinColumn(name = "libro_id"),
+            inverseJoinColumns = @JoinColumn(name = "idioma_id"),
+            indexes = @Index(name = "idx_libros_idiomas_idioma", columnList = "idioma_id, libro_id"))
+    @OrderColumn(name = "posicion")
+    private List<Idioma> idiomas = new ArrayList<>();
 
     public Libro() {}
 
+    // Libro sin guardar, con autores e idiomas nuevos; se usa para mostrarlo antes de registrarlo
     public Libro(DatosLibro datosLibro){
+        this.idGutendex = datosLibro.idGutendex();
         this.titulo = datosLibro.titulo();
-        this.idioma = datosLibro.idiomas().get(0);
-        this.numeroDeDescargas = datosLibro.numeroDeDescargas();
-    }
-
-    // Getters y Setters...
-    public void setAutor(Autor autor) {
-        this.autor = autor;
+        this.numeroDeDescargas = datosLibro.numeroDeDescargas() == null ? 0 : datosLibro.numeroDeDescargas();
+        if (datosLibro.autores() != null) {
+            for (DatosAutor datosAutor : datosLibro.autores()) {
+                autores.add(new Autor(datosAutor));
+            }
+        }
+        if (datosLibro.idiomas() != null) {
+            for (String codigo : datosLibro.idiomas()) {
+                idiomas.add(new Idioma(codigo));
+            }
+        }
     }
 
     @Override
     public String toString() {
         return "---------------------------------" +
                 "\nTitulo: " + titulo +
-                "\nAutor: " + autor.getNombre() +
-                "\nIdioma: " + idioma +
+                "\nAutor: " + (autores.isEmpty() ? "Desconocido" : String.join("; ", getNombresDeAutores())) +
+                "\nIdioma: " + (idiomas.isEmpty() ? "Desconocido" : String.join(", ", getCodigosDeIdioma())) +
                 "\nNúmero de descargas: " + numeroDeDescargas +
                 "\n---------------------------------";
     }
 
+    public Long getId() {
+        return id;
+    }
+
+    public Long getIdGutendex() {
+        return idGutendex;
+    }
+
     public String getTitulo() {
         return titulo;
     }
 
-    public Double getNumeroDeDescargas() {
+    public List<Autor> getAutores() {
+        return autores;
+    }
+
+    public List<Idioma> getIdiomas() {
+        return idiomas;
+    }
+
+    public List<String> getNombresDeAutores() {
+        return autores.stream().map(Autor::getNombre).collect(Collectors.toList());
+    }
+
+    public List<String> getCodigosDeIdioma() {
+        return idiomas.stream().map(Idioma::getCodigo).collect(Collectors.toList());
+    }
+
+    public long getNumeroDeDescargas() {
         return numeroDeDescargas;
     }
 }
\ No newline at end of file
@@ -1,91 +1,133 @@
 package com.alurachallenge.Literatura;
 
-import com.alurachallenge.Literatura.dto.Datos;
-import com.alurachallenge.Literatura.dto.DatosAutor;
-import com.alurachallenge.Literatura.dto.DatosLibro;
-import com.alurachallenge.Literatura.Model.Autor;
 import com.alurachallenge.Literatura.Model.Libro;
-import com.alurachallenge.Literatura.Repository.AutorRepository;
-import com.alurachallenge.Literatura.Repository.LibroRepository;
-import com.alurachallenge.Literatura.service.ConsumoAPI;
-import com.alurachallenge.Literatura.service.ConvierteDatos;
+import com.alurachallenge.Literatura.consola.ConsolaCatalogo;
+import com.alurachallenge.Literatura.consola.SalidaConsola;
+import com.alurachallenge.Literatura.dto.AutorResumen;
+import com.alurachallenge.Literatura.instantanea.ExportadorInstantanea;
+import com.alurachallenge.Literatura.service.ActualizadorDescargas;
+import com.alurachallenge.Literatura.service.AnaliticaCatalogo;
+import com.alurachallenge.Literatura.service.CosechadorCatalogo;
+import com.alurachallenge.Literatura.service.ErrorConsultaAPI;
+import com.alurachallenge.Literatura.service.EstadisticasRendimiento;
+import com.alurachallenge.Literatura.service.ImportadorCatalogo;
+import com.alurachallenge.Literatura.service.ProcesadorLotes;
+import com.alurachallenge.Literatura.service.RankingDescargas;
+import com.alurachallenge.Literatura.service.ServicioCatalogo;
 import org.springframework.stereotype.Component;
-import java.util.InputMismatchException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.Scanner;
+import java.util.stream.Collectors;
 
 /**
  * Clase principal que gestiona el menú y la lógica de la aplicación de consola.
- * Interactúa con la API de Gutendex y la base de datos a través de los repositorios.
+ * Es un cliente más de {@link ServicioCatalogo}, igual que la API REST.
  */
 
 @Component
-public class Principal {
-    private static final String URL_BASE = "https://gutendex.com/books/";
-    private ConsumoAPI consumoAPI = new ConsumoAPI();
-    private ConvierteDatos conversor = new ConvierteDatos();
+public class Principal implements ConsolaCatalogo {
     private Scanner teclado = new Scanner(System.in);
-    private LibroRepository libroRepository;
-    private AutorRepository autorRepository;
+    private ServicioCatalogo servicioCatalogo;
+    private CosechadorCatalogo cosechadorCatalogo;
+    private ActualizadorDescargas actualizadorDescargas;
+    private EstadisticasRendimiento estadisticasRendimiento;
+    private ImportadorCatalogo importadorCatalogo;
+    private ExportadorInstantanea exportadorInstantanea;
+    private ProcesadorLotes procesadorLotes;
+    private AnaliticaCatalogo analiticaCatalogo;
+
+    public Principal(ServicioCatalogo servicioCatalogo, CosechadorCatalogo cosechadorCatalogo,
+                     ActualizadorDescargas actualizadorDescargas, EstadisticasRendimiento estadisticasRendimiento,
+                     ImportadorCatalogo importadorCatalogo, ExportadorInstantanea exportadorInstantanea,
+                     ProcesadorLotes procesadorLotes, AnaliticaCatalogo analiticaCatalogo) {
+        this.servicioCatalogo = servicioCatalogo;
+        this.cosechadorCatalogo = cosechadorCatalogo;
+        this.actualizadorDescargas = actualizadorDescargas;
+        this.estadisticasRendimiento = estadisticasRendimiento;
+        this.importadorCatalogo = importadorCatalogo;
+        this.exportadorInstantanea = exportadorInstantanea;
+        this.procesadorLotes = procesadorLotes;
+        this.analiticaCatalogo = analiticaCatalogo;
+    }
+
+    @Override
+    public String titulo() {
+        return "Bienvenido a la aplicación de Literatura";
+    }
 
-    public Principal(LibroRepository libroRepository, AutorRepository autorRepository) {
-        this.libroRepository = libroRepository;
-        this.autorRepository = autorRepository;
+    @Override
+    public List<Opcion> opciones() {
+        return List.of(
+                new Opcion("Buscar libro por título", this::buscarLibroPorTitulo),
+                new Opcion("Listar libros registrados", this::listarLibrosRegistrados),
+                new Opcion("Listar autores registrados", this::listarAutoresRegistrados),
+                new Opcion("Listar autores vivos en un año determinado", this::listarAutoresVivosPorAnio),
+                new Opcion("Listar libros por idioma", this::listarLibrosPorIdioma),
+                new Opcion("Buscar libros por autor", this::buscarLibrosPorAutor),
+                new Opcion("Contar libros por idioma", this::contarLibrosPorIdioma),
+                new Opcion("Top 10 libros más descargados", this::listarTop10Libros),
+                new Opcion("Buscar libros de autor en la API", this::buscarLibrosDeAutorEnApi),
+                new Opcion("Contar libros por autor", this::contarLibrosPorAutor),
+                new Opcion("Cosechar el catálogo completo de la API", this::cosecharCatalogo),
+                new Opcion("Actualizar el número de descargas desde la API", this::actualizarDescargas),
+                new Opcion("Ver estadísticas de rendimiento", this::mostrarEstadisticas),
+                new Opcion("Importar el catálogo sin conexión de Project Gutenberg (CSV)", this::importarCatalogoCsv),
+                new Opcion("Exportar una instantánea para el modo sin conexión", this::exportarInstantanea),
+                new Opcion("Analizar las descargas y los autores del catálogo", this::analizarCatalogo));
+    }
+
+    @Override
+    public Scanner teclado() {
+        return teclado;
+    }
+
+    @Override
+    public void alFallar(RuntimeException e) {
+        if (!(e instanceof ErrorConsultaAPI)) {
+            throw e;
+        }
+        System.out.println("⚠️ No se pudo consultar la API de Gutendex: " + e.getMessage());
     }
 
     /**
-     * Muestra el menú de opciones y maneja la interacción con el usuario.
+     * Procesa sin menú las consultas de un archivo, o de la entrada estándar si el origen es "-",
+     * y muestra un resumen al terminar. Devuelve false si alguna consulta falló.
      */
 
-    public void muestraElMenu() {
-        var opcion = -1;
-        while (opcion != 0) {
-            var menu = """
-                    ----------------------------------------
-                    Bienvenido a la aplicación de Literatura
-                    ----------------------------------------
-                    Elige una opción a través de su número:
-                    1 - Buscar libro por título
-                    2 - Listar libros registrados
-                    3 - Listar autores registrados
-                    4 - Listar autores vivos en un año determinado
-                    5 - Listar libros por idioma
-                    6 - Buscar libros por autor
-                    7 - Contar libros por idioma
-                    8 - Top 10 libros más descargados
-                    9 - Buscar libros de autor en la API
-                    10 - Contar libros por autor
-                    0 - Salir
-                    ----------------------------------------
-                    """;
-            System.out.println(menu);
-            System.out.print("Ingresa por favor tu opción: ");
-
-            try {
-                // Lee la opción del usuario
-                opcion = teclado.nextInt();
-                teclado.nextLine(); // Esta línea es crucial para limpiar el buffer.
-
-                switch (opcion) {
-                    case 1: buscarLibroPorTitulo(); break;
-                    case 2: listarLibrosRegistrados(); break;
-                    case 3: listarAutoresRegistrados(); break;
-                    case 4: listarAutoresVivosPorAnio(); break;
-                    case 5: listarLibrosPorIdioma(); break;
-                    case 6: buscarLibrosPorAutor(); break;
-                    case 7: contarLibrosPorIdioma(); break;
-                    case 8: listarTop10Libros(); break;
-                    case 9: buscarLibrosDeAutorEnApi(); break;
-                    case 10: contarLibrosPorAutor(); break;
-                    case 0: System.out.println("Cerrando la aplicación..."); break;
-                    default: System.out.println("Opción inválida. Por favor, elige una opción del 0 al 7.");
-                }
-            } catch (InputMismatchException e) {
-                System.out.println("Entrada no válida. Por favor, ingresa un número.");
-                teclado.nextLine(); // Limpiar el buffer para evitar un bucle infinito
-            }
+    public boolean ejecutarLote(String origen) throws IOException {
+        ProcesadorLotes.ResumenLote resumen;
+        try (var entrada = origen.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(origen), StandardCharsets.UTF_8)) {
+            resumen = procesadorLotes.procesar(entrada);
         }
+
+        System.out.println("\n----------------------------------------");
+        System.out.printf("✅ Lote procesado en %.1f s (%.1f consultas/s)%n",
+                resumen.duracion().toMillis() / 1000.0, resumen.consultasPorSegundo());
+        System.out.println("Consultas: " + resumen.consultas() + " | Sin resultados: " + resumen.sinResultados()
+                + " | Con error: " + resumen.fallidas());
+        System.out.println("Libros nuevos registrados: " + resumen.librosRegistrados()
+                + " | Ya registrados: " + resumen.yaRegistrados());
+        System.out.println("\nEtapa (hilos | elementos | p50 | p99, en ms)");
+        for (var etapa : resumen.etapas()) {
+            System.out.printf("  %-12s %5d | %9d | %8.2f | %8.2f%n", etapa.nombre(), etapa.concurrencia(),
+                    etapa.procesadas(), etapa.p50Ms(), etapa.p99Ms());
+        }
+        var total = resumen.total();
+        System.out.printf("  %-12s %5s | %9d | %8.2f | %8.2f%n", "consulta", "-", total.procesadas(), total.p50Ms(), total.p99Ms());
+        System.out.println("----------------------------------------");
+        return resumen.fallidas() == 0;
     }
 
     /**
@@ -95,44 +137,22 @@ public class Principal {
     private void buscarLibroPorTitulo() {
         System.out.println("Escribe el nombre del libro que deseas buscar:");
         var nombreLibro = teclado.nextLine();
-        var json = consumoAPI.obtenerDatos(URL_BASE + "?search=" + nombreLibro.replace(" ", "+"));
-        var datos = conversor.obtenerDatos(json, Datos.class);
-
-        // Filtra y busca el primer libro que coincida con el título
-        Optional<DatosLibro> libroBuscado = datos.resultados().stream()
-                .filter(l -> l.titulo().toUpperCase().contains(nombreLibro.toUpperCase()))
-                .findFirst();
-
-        if (libroBuscado.isPresent()) {
-            // Verifica si el libro ya existe en el repositorio
-            DatosLibro datosLibro = libroBuscado.get();
-            Optional<Libro> libroExistente = libroRepository.findByTitulo(datosLibro.titulo());
-            if (libroExistente.isPresent()) {
-                System.out.println("\n----------------------------------------");
-                System.out.println("⚠️ Este libro ya está registrado en la base de datos.");
-                System.out.println("----------------------------------------");
-            } else {
-                // Crea un nuevo libro y maneja la creación o asociación del autor
-                Libro nuevoLibro = new Libro(datosLibro);
-                DatosAutor datosAutor = datosLibro.autores().get(0);
-                Optional<Autor> autorExistente = autorRepository.findByNombre(datosAutor.nombre());
-                if (autorExistente.isPresent()) {
-                    nuevoLibro.setAutor(autorExistente.get());
-                } else {
-                    Autor nuevoAutor = new Autor(datosAutor);
-                    autorRepository.save(nuevoAutor);
-                    nuevoLibro.setAutor(nuevoAutor);
-                }
-                libroRepository.save(nuevoLibro);
-                System.out.println("\n----------------------------------------");
-                System.out.println("✅ Libro registrado exitosamente: ");
-                System.out.println(nuevoLibro);
-                System.out.println("----------------------------------------");
-            }
-        } else {
+        var importacion = servicioCatalogo.importarPorTitulo(nombreLibro);
+
+        if (importacion.vacia()) {
             System.out.println("\n----------------------------------------");
             System.out.println("❌ Libro no encontrado en la API.");
             System.out.println("----------------------------------------");
+        } else if (importacion.registrados().isEmpty()) {
+            System.out.println("\n----------------------------------------");
+            System.out.println("⚠️ Este libro ya está registrado en la base de datos.");
+            System.out.println("----------------------------------------");
+        } else {
+            Libro nuevoLibro = importacion.registrados().get(0);
+            System.out.println("\n----------------------------------------");
+            System.out.println("✅ Libro registrado exitosamente: ");
+            System.out.println(nuevoLibro);
+            System.out.println("----------------------------------------");
         }
     }
 
@@ -141,16 +161,10 @@ public class Principal {
      */
 
     private void listarLibrosRegistrados() {
-        List<Libro> libros = libroRepository.findAll();
-        if (libros.isEmpty()) {
-            System.out.println("\nNo hay libros registrados en la base de datos.");
-        } else {
-            System.out.println("\n----------------------------------------");
-            System.out.println("  Libros Registrados");
-            System.out.println("----------------------------------------");
-            libros.forEach(System.out::println);
-            System.out.println("----------------------------------------");
-        }
+        // Los libros se escriben a medida que llegan del cursor, sin cargar la tabla en memoria
+        var listado = new SalidaConsola.Listado("  Libros Registrados");
+        servicioCatalogo.recorrerLibros(libro -> listado.escribir(libro.toString()));
+        listado.terminar("\nNo hay libros registrados en la base de datos.");
     }
 
     /**
@@ -158,36 +172,26 @@ public class Principal {
      */
 
     private void listarAutoresRegistrados() {
-        List<Autor> autores = autorRepository.findAll();
-        if(autores.isEmpty()){
-            System.out.println("\nNo hay autores registrados en la base de datos.");
-        } else {
-            System.out.println("\n----------------------------------------");
-            System.out.println("  Autores Registrados");
-            System.out.println("----------------------------------------");
-            autores.forEach(System.out::println);
-            System.out.println("----------------------------------------");
-        }
+        var listado = new SalidaConsola.Listado("  Autores Registrados");
+        servicioCatalogo.recorrerAutores(autor -> listado.escribir("Autor: " + autor.getNombre()));
+        listado.terminar("\nNo hay autores registrados en la base de datos.");
     }
 
     /**
-     * Pide un año al usuario y lista los autores que estaban vivos en ese año.
+     * Pide un año (o un rango de años) al usuario y lista los autores que estaban vivos.
      */
 
     private void listarAutoresVivosPorAnio() {
         try {
-            System.out.println("Escribe el año para verificar autores vivos:");
-            var anio = teclado.nextInt();
-            teclado.nextLine();
-            List<Autor> autoresVivos = autorRepository.buscarAutoresVivosPorAnio(anio);
-            if (autoresVivos.isEmpty()) {
-                System.out.println("No hay autores vivos para el año " + anio + ", lo sentimos.");
-            } else {
-                autoresVivos.forEach(System.out::println);
-            }
-        } catch (InputMismatchException e) {
+            var periodo = SalidaConsola.leerPeriodo(teclado);
+            var vivos = servicioCatalogo.autoresVivos(periodo.desde(), periodo.hasta());
+            SalidaConsola.mostrarAutoresVivos(periodo,
+                    vivos.confirmados().stream().map(AutorResumen::getNombre).toList(),
+                    vivos.sinFechaDeFallecimiento().stream()
+                            .map(autor -> autor.getNombre() + " (nacido en " + autor.getFechaDeNacimiento() + ")")
+                            .toList());
+        } catch (NumberFormatException e) {
             System.out.println("Entrada no válida. Por favor, ingresa un número de año.");
-            teclado.nextLine();
         }
     }
 
@@ -204,12 +208,8 @@ public class Principal {
         System.out.print("Opción: ");
         var idioma = teclado.nextLine().toLowerCase();
         if (idioma.equals("es") || idioma.equals("en") || idioma.equals("fr") || idioma.equals("pt")) {
-            List<Libro> librosPorIdioma = libroRepository.findByIdioma(idioma);
-            if (librosPorIdioma.isEmpty()) {
-                System.out.println("No hay libros registrados en ese idioma.");
-            } else {
-                librosPorIdioma.forEach(System.out::println);
-            }
+            SalidaConsola.mostrarLibros("  Libros por idioma", servicioCatalogo.librosPorIdioma(idioma),
+                    "No hay libros registrados en ese idioma.");
         } else {
             System.out.println("Opción de idioma no válida. Por favor, elige entre las opciones disponibles.");
         }
@@ -224,16 +224,12 @@ public class Principal {
         System.out.println("Usa ese formato para tu búsqueda: «Apellido, Nombre». Ejemplo: Austen, Jane");
         System.out.print("Escribe por favor el nombre del autor buscar: ");
         var nombreAutor = teclado.nextLine();
-        List<Libro> libros = libroRepository.buscarLibrosPorAutor(nombreAutor);
-        if (libros.isEmpty()) {
-            System.out.println("\n----------------------------------------");
-            System.out.println("⚠️ No se encontraron libros para ese autor.");
-            System.out.println("----------------------------------------");
-        } else {
-            System.out.println("\n----------------------------------------");
-            System.out.println("  Libros del autor: " + nombreAutor);
-            System.out.println("----------------------------------------");
-            libros.forEach(System.out::println);
+        var resultado = servicioCatalogo.buscarLibrosPorAutor(nombreAutor);
+        SalidaConsola.mostrarLibros("  Libros del autor: " + nombreAutor, resultado.libros(),
+                "⚠️ No se encontraron libros para ese autor.");
+        if (resultado.libros().isEmpty() && !resultado.sugerencias().isEmpty()) {
+            System.out.println("¿Quisiste decir...?");
+            resultado.sugerencias().forEach(sugerencia -> System.out.println("  - " + sugerencia));
             System.out.println("----------------------------------------");
         }
     }
@@ -243,39 +239,18 @@ public class Principal {
      */
 
     private void contarLibrosPorIdioma() {
-        List<Object[]> conteo = libroRepository.contarLibrosPorIdioma();
-        if (conteo.isEmpty()) {
-            System.out.println("\n----------------------------------------");
-            System.out.println("⚠️ No hay libros registrados en la base de datos.");
-            System.out.println("----------------------------------------");
-        } else {
-            System.out.println("\n----------------------------------------");
-            System.out.println("  Conteo de Libros por Idioma");
-            System.out.println("----------------------------------------");
-            conteo.forEach(resultado -> System.out.println("Idioma: " + resultado[0] + " - Total: " + resultado[1]));
-            System.out.println("----------------------------------------");
-        }
+        SalidaConsola.mostrarConteo("  Conteo de Libros por Idioma", "Idioma: ", " - Total: ",
+                servicioCatalogo.contarLibrosPorIdioma(), "⚠️ No hay libros registrados en la base de datos.");
     }
 
     /**
-     * Muestra los 10 libros más descargados actualmente de tu base de datos
+     * Muestra los 10 libros más descargados de tu base de datos, en todos los idiomas o en uno.
      */
 
     private void listarTop10Libros() {
-        System.out.println("\n----------------------------------------");
-        System.out.println("  Top 10 Libros más Descargados");
-        System.out.println("----------------------------------------");
-
-        // Obtiene la lista y la almacena en una variable
-        List<Libro> top10Libros = libroRepository.findTop10ByNumeroDeDescargas();
-
-        // Usa un bucle for para enumerar cada libro
-        for (int i = 0; i < top10Libros.size(); i++) {
-            Libro libro = top10Libros.get(i);
-            System.out.println((i + 1) + ". Título: " + libro.getTitulo() + " | Descargas: " + libro.getNumeroDeDescargas());
-        }
-
-        System.out.println("----------------------------------------");
+        var idioma = SalidaConsola.leerIdiomaDelTop(teclado);
+        SalidaConsola.mostrarMasDescargados(idioma, servicioCatalogo.masDescargados(10, idioma),
+                RankingDescargas.Posicion::titulo, RankingDescargas.Posicion::descargas);
     }
 
     /**
@@ -286,41 +261,22 @@ public class Principal {
     private void buscarLibrosDeAutorEnApi() {
         System.out.println("Escribe el nombre del autor para buscar todos sus libros en la API:");
         var nombreAutor = teclado.nextLine();
-        var json = consumoAPI.obtenerDatos(URL_BASE + "?search=" + nombreAutor.replace(" ", "+"));
-        var datos = conversor.obtenerDatos(json, Datos.class);
 
-        List<DatosLibro> librosEncontrados = datos.resultados();
+        System.out.println("\n----------------------------------------");
+        System.out.println("Buscando y registrando libros de " + nombreAutor + "...");
+        System.out.println("----------------------------------------");
 
-        if (librosEncontrados.isEmpty()) {
-            System.out.println("\n----------------------------------------");
+        // Los libros se leen del flujo y se registran todos juntos con un único lote
+        var importacion = servicioCatalogo.importarPorAutor(nombreAutor);
+        importacion.registrados().forEach(libro -> System.out.println("  -> Registrado: '" + libro.getTitulo() + "'"));
+        importacion.yaRegistrados().forEach(titulo -> System.out.println("⚠️ El libro '" + titulo + "' ya está registrado."));
+
+        if (importacion.vacia()) {
             System.out.println("❌ No se encontraron libros para el autor: " + nombreAutor);
             System.out.println("----------------------------------------");
         } else {
-            System.out.println("\n----------------------------------------");
-            System.out.println("✅ Se encontraron " + librosEncontrados.size() + " libros de " + nombreAutor + ".");
-            System.out.println("Registrando libros...");
-            System.out.println("----------------------------------------");
-
-            for (DatosLibro datosLibro : librosEncontrados) {
-                Optional<Libro> libroExistente = libroRepository.findByTitulo(datosLibro.titulo());
-                if (libroExistente.isPresent()) {
-                    System.out.println("⚠️ El libro '" + datosLibro.titulo() + "' ya está registrado.");
-                } else {
-                    Libro nuevoLibro = new Libro(datosLibro);
-                    DatosAutor datosAutor = datosLibro.autores().get(0);
-                    Optional<Autor> autorExistente = autorRepository.findByNombre(datosAutor.nombre());
-                    if (autorExistente.isPresent()) {
-                        nuevoLibro.setAutor(autorExistente.get());
-                    } else {
-                        Autor nuevoAutor = new Autor(datosAutor);
-                        autorRepository.save(nuevoAutor);
-                        nuevoLibro.setAutor(nuevoAutor);
-                    }
-                    libroRepository.save(nuevoLibro);
-                    System.out.println("  -> Registrado: '" + nuevoLibro.getTitulo() + "'");
-                }
-            }
             System.out.println("----------------------------------------");
+            System.out.println("✅ Se encontraron " + (importacion.registrados().size() + importacion.yaRegistrados().size()) + " libros de " + nombreAutor + ".");
             System.out.println("Proceso de registro finalizado.");
             System.out.println("----------------------------------------");
         }
@@ -331,22 +287,193 @@ public class Principal {
      */
 
     private void contarLibrosPorAutor() {
+        SalidaConsola.mostrarConteo("  Conteo de Libros por Autor", "Autor: ", " - Total de libros: ",
+                servicioCatalogo.contarLibrosPorAutor(), "⚠️ No hay libros registrados en la base de datos.");
+    }
+
+    /**
+     * Recorre todas las páginas de la API (o un rango) y registra los libros en la base de datos.
+     * Si no se indica la página inicial, se reanuda desde la última página completada.
+     */
+
+    private void cosecharCatalogo() {
+        try {
+            int ultimaCompletada = cosechadorCatalogo.leerUltimaPaginaCompletada();
+            System.out.println("Última página completada: " + ultimaCompletada);
+            System.out.print("Página inicial (Enter para reanudar): ");
+            var desde = teclado.nextLine().trim();
+            System.out.print("Página final (Enter para llegar hasta el final): ");
+            var hasta = teclado.nextLine().trim();
+
+            var resumen = cosechadorCatalogo.cosechar(
+                    desde.isEmpty() ? ultimaCompletada + 1 : Integer.parseInt(desde),
+                    hasta.isEmpty() ? 0 : Integer.parseInt(hasta));
+
+            System.out.println("\n----------------------------------------");
+            System.out.println("✅ Cosecha finalizada en " + resumen.duracion().toSeconds() + " s.");
+            System.out.println("Páginas completadas: " + resumen.paginasCompletadas());
+            System.out.println("Libros nuevos registrados: " + resumen.librosRegistrados());
+            System.out.println("Última página completada sin huecos: " + resumen.ultimaPaginaContigua());
+            if (!resumen.paginasFallidas().isEmpty()) {
+                System.out.println("⚠️ Páginas con error (se reintentarán al reanudar): " + resumen.paginasFallidas());
+            }
+            System.out.println("----------------------------------------");
+        } catch (NumberFormatException e) {
+            System.out.println("Entrada no válida. Por favor, ingresa un número de página.");
+        }
+    }
+
+    /**
+     * Vuelve a pedir a la API los libros registrados y guarda los números de descargas que cambiaron.
+     */
+
+    private void actualizarDescargas() {
+        System.out.println("Actualizando el número de descargas de los libros registrados...");
+        var resumen = actualizadorDescargas.actualizar();
         System.out.println("\n----------------------------------------");
-        System.out.println("  Conteo de Libros por Autor");
+        System.out.println("✅ Actualización finalizada en " + resumen.duracion().toSeconds() + " s.");
+        System.out.println("Libros revisados: " + resumen.librosRevisados());
+        System.out.println("Libros con descargas nuevas: " + resumen.librosCambiados());
+        if (resumen.peticionesFallidas() > 0) {
+            System.out.println("⚠️ Peticiones con error: " + resumen.peticionesFallidas());
+        }
         System.out.println("----------------------------------------");
-        List<Object[]> conteo = autorRepository.contarLibrosPorAutor();
-        if (conteo.isEmpty()) {
-            System.out.println("⚠️ No hay libros registrados en la base de datos.");
-        } else {
-            conteo.forEach(resultado -> System.out.println("Autor: " + resultado[0] + " - Total de libros: " + resultado[1]));
+    }
+
+    /**
+     * Muestra cuánto tiempo se ha ido en la red, en la conversión de JSON y en la base de datos
+     * desde que arrancó la aplicación, junto con el estado de la caché y del pool de conexiones.
+     */
+
+    private void mostrarEstadisticas() {
+        var resumen = estadisticasRendimiento.resumen();
+        System.out.println("\n----------------------------------------");
+        System.out.println("  Estadísticas de rendimiento");
+        System.out.println("----------------------------------------");
+        String nombreAnterior = "";
+        for (var medicion : resumen.mediciones()) {
+            if (!medicion.nombre().equals(nombreAnterior)) {
+                System.out.println("\n" + medicion.nombre() + " (veces | media | p95 | máximo, en ms)");
+                nombreAnterior = medicion.nombre();
+            }
+            System.out.printf("  %-60s %7d | %8.2f | %8.2f | %8.2f%n", medicion.etiquetas(), medicion.cantidad(),
+                    medicion.mediaMs(), medicion.p95Ms(), medicion.maximoMs());
+        }
+        if (resumen.mediciones().isEmpty()) {
+            System.out.println("Todavía no hay mediciones.");
+        }
+        var cache = resumen.cache();
+        System.out.println("\nCaché de respuestas: " + cache.aciertosMemoria() + " aciertos en memoria, "
+                + cache.aciertosDisco() + " en disco, " + cache.fallos() + " fallos ("
+                + Math.round(cache.tasaDeAciertos() * 100) + "% de aciertos); "
+                + cache.entradasMemoria() + " entradas en memoria y " + cache.entradasDisco() + " en disco.");
+        if (!resumen.conexiones().isEmpty()) {
+            System.out.println("Pool de conexiones: " + resumen.conexiones().entrySet().stream()
+                    .map(entrada -> entrada.getKey() + " " + entrada.getValue().intValue())
+                    .reduce((a, b) -> a + ", " + b).orElse(""));
         }
         System.out.println("----------------------------------------");
     }
 
+    /**
+     * Importa el archivo pg_catalog.csv (o .csv.gz) descargado de Project Gutenberg.
+     * Si no se indica el byte inicial, se reanuda donde se quedó la última importación del archivo.
+     */
+
+    private void importarCatalogoCsv() {
+        System.out.print("Ruta del archivo del catálogo (pg_catalog.csv o .csv.gz): ");
+        var archivo = Path.of(teclado.nextLine().trim());
+        if (!Files.isRegularFile(archivo)) {
+            System.out.println("No se encontró el archivo " + archivo + ".");
+            return;
+        }
+        try {
+            long guardado = importadorCatalogo.leerProgreso(archivo);
+            System.out.println("Byte de la última importación de este archivo: " + guardado);
+            System.out.print("Byte inicial (Enter para reanudar, 0 para empezar de nuevo): ");
+            var desde = teclado.nextLine().trim();
+
+            long inicio = desde.isEmpty() ? guardado : Long.parseLong(desde);
+            System.out.println("Importando " + archivo.getFileName() + " desde el byte " + inicio + "...");
+            var resumen = importadorCatalogo.importar(archivo, inicio, avance -> System.out.println("  -> "
+                    + avance.registrosLeidos() + " registros leídos, " + avance.librosRegistrados() + " libros nuevos ("
+                    + (avance.porcentaje() == null ? avance.desplazamiento() / (1024 * 1024) + " MB descomprimidos" : avance.porcentaje() + "%")
+                    + ")."));
+
+            System.out.println("\n----------------------------------------");
+            System.out.println("✅ Importación finalizada en " + resumen.duracion().toSeconds() + " s.");
+            System.out.println("Registros leídos: " + resumen.registrosLeidos());
+            System.out.println("Libros nuevos registrados: " + resumen.librosRegistrados());
+            System.out.println("Autores nuevos registrados: " + resumen.autoresRegistrados());
+            System.out.println("----------------------------------------");
+        } catch (NumberFormatException e) {
+            System.out.println("Entrada no válida. Por favor, ingresa un número de byte.");
+        }
+    }
+
+    /**
+     * Guarda el catálogo en un archivo binario que después se puede consultar sin base de datos
+     * arrancando la aplicación con {@code --instantanea=<archivo>}.
+     */
+
+    private void exportarInstantanea() {
+        var predeterminado = exportadorInstantanea.archivoPredeterminado();
+        System.out.print("Archivo de destino (Enter para " + predeterminado + "): ");
+        var ruta = teclado.nextLine().trim();
+        var archivo = ruta.isEmpty() ? predeterminado : Path.of(ruta);
 
+        var resumen = exportadorInstantanea.exportar(archivo);
+        System.out.println("\n----------------------------------------");
+        System.out.println("✅ Instantánea guardada en " + archivo + " (" + resumen.bytes() / 1024 + " KB) en "
+                + resumen.duracion().toMillis() + " ms.");
+        System.out.println("Libros: " + resumen.libros() + " | Autores: " + resumen.autores());
+        System.out.println("Para consultarla sin base de datos, arranca la aplicación con --instantanea=" + archivo);
+        System.out.println("----------------------------------------");
+    }
 
+    /**
+     * Muestra un resumen de las descargas, su distribución por idioma y los libros según el siglo
+     * de nacimiento de sus autores, calculados en memoria sobre todo el catálogo.
+     */
 
+    private void analizarCatalogo() {
+        var informe = analiticaCatalogo.informe();
+        var resumen = informe.resumen();
+        System.out.println("\n----------------------------------------");
+        System.out.println("  Análisis del catálogo");
+        System.out.println("----------------------------------------");
+        if (resumen.libros() == 0) {
+            System.out.println("⚠️ No hay libros registrados en la base de datos.");
+            System.out.println("----------------------------------------");
+            return;
+        }
+        System.out.println("Libros: " + resumen.libros() + " | Autores: " + resumen.autores() + " | Idiomas: " + resumen.idiomas());
+        System.out.println("Libros sin autor: " + resumen.librosSinAutor() + " | Sin idioma: " + resumen.librosSinIdioma());
+        System.out.printf("Descargas: %d en total | media %.1f | desviación %.1f | mínimo %d | máximo %d%n",
+                resumen.descargasTotales(), resumen.media(), resumen.desviacion(), resumen.minimo(), resumen.maximo());
+        System.out.printf("Edad media de los autores al fallecer: %.1f años%n", resumen.edadMediaAlFallecer());
+
+        System.out.println("\nDescargas por idioma (libros | p50 | p90 | p99 | máximo)");
+        System.out.println("  Histograma: " + String.join(" | ", AnaliticaCatalogo.CUBETAS));
+        var distribuciones = new ArrayList<AnaliticaCatalogo.Distribucion>();
+        distribuciones.add(informe.global());
+        distribuciones.addAll(informe.porIdioma());
+        for (var distribucion : distribuciones) {
+            System.out.printf("  %-8s %7d | %7d | %7d | %7d | %7d%n", distribucion.idioma() == null ? "todos" : distribucion.idioma(),
+                    distribucion.libros(), distribucion.p50(), distribucion.p90(), distribucion.p99(), distribucion.maximo());
+            System.out.println("           " + distribucion.histograma().stream().map(String::valueOf).collect(Collectors.joining(" | ")));
+        }
 
+        System.out.println("\nLibros por siglo de nacimiento de sus autores");
+        informe.porSiglo().forEach(siglo ->
+                System.out.printf("  %5d-%-5d %7d%n", siglo.desde(), siglo.desde() + 99, siglo.libros()));
+        System.out.println("  Sin año de nacimiento conocido: " + informe.librosSinNacimiento());
+
+        System.out.println("\nCatálogo cargado en memoria el " + informe.cargado().atZone(ZoneId.systemDefault()).toLocalDateTime()
+                .truncatedTo(ChronoUnit.SECONDS) + " en " + informe.carga().toMillis() + " ms; análisis calculado en "
+                + String.format("%.2f", informe.calculo().toNanos() / 1_000_000.0) + " ms.");
+        System.out.println("----------------------------------------");
+    }
 
 }
 
@@ -1,20 +1,26 @@
 package com.alurachallenge.Literatura.Repository;
 
 import com.alurachallenge.Literatura.Model.Autor;
+import com.alurachallenge.Literatura.dto.AutorResumen;
+import com.alurachallenge.Literatura.dto.ConteoPorClave;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface AutorRepository extends JpaRepository<Autor, Long> {
-    Optional<Autor> findByNombre(String nombre);
+    @Query("SELECT a.nombre, a.id FROM Autor a WHERE a.nombre IN :nombres")
+    List<Object[]> buscarIdsPorNombre(Collection<String> nombres);
 
-    @Query("SELECT a FROM Autor a WHERE a.fechaDeNacimiento <= :anio AND a.fechaDeFallecimiento > :anio")
-    List<Autor> buscarAutoresVivosPorAnio(Integer anio);
+    List<AutorResumen> findByIdInOrderByNombreAsc(Collection<Long> ids);
 
-    @Query("SELECT a.nombre, COUNT(l.id) FROM Autor a JOIN a.libros l GROUP BY a.nombre")
-    List<Object[]> contarLibrosPorAutor();
+    // Paginación keyset: el nombre es único, así que sirve como clave de búsqueda
+    List<AutorResumen> findByNombreGreaterThanOrderByNombreAsc(String nombre, Limit limite);
+
+    @Query("SELECT a.nombre AS clave, COUNT(l.id) AS total FROM Autor a JOIN a.libros l GROUP BY a.nombre")
+    List<ConteoPorClave> contarLibrosPorAutor();
 }
\ No newline at end of file
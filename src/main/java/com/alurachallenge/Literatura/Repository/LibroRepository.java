@@ -1,25 +1,78 @@
 package com.alurachallenge.Literatura.Repository;
 
 import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.dto.ConteoPorClave;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Repository
 public interface LibroRepository extends JpaRepository<Libro, Long> {
+    // Autores e idiomas son LAZY: las consultas cuyos libros se muestran los traen en la misma sentencia
+    @EntityGraph(attributePaths = {"autores", "idiomas"})
     Optional<Libro> findByTitulo(String titulo);
-    List<Libro> findByIdioma(String idioma);
 
-    @Query("SELECT l FROM Libro l JOIN l.autor a WHERE a.nombre LIKE %:nombre%")
-    List<Libro> buscarLibrosPorAutor(String nombre);
+    // Las consultas con Limit devuelven solo ids: con un fetch de colecciones Hibernate aplicaría
+    // el LIMIT en memoria. Los libros se cargan después con cargarEnOrden.
+    // Paginación keyset: la siguiente página empieza después del último id recibido
+    @Query("SELECT l.id FROM Libro l WHERE l.id > :id ORDER BY l.id")
+    List<Long> buscarIdsDespuesDe(Long id, Limit limite);
 
-    @Query("SELECT l.idioma, COUNT(l) AS total FROM Libro l GROUP BY l.idioma ORDER BY total DESC")
-    List<Object[]> contarLibrosPorIdioma();
+    // Las consultas por idioma recorren el índice (idioma_id, libro_id) de libros_idiomas
+    @Query("SELECT l.id FROM Libro l JOIN l.idiomas i WHERE i.codigo = :idioma AND l.id > :id ORDER BY l.id")
+    List<Long> buscarIdsPorIdiomaDespuesDe(String idioma, Long id, Limit limite);
 
-    @Query("SELECT l FROM Libro l ORDER BY l.numeroDeDescargas DESC LIMIT 10")
-    List<Libro> findTop10ByNumeroDeDescargas();
+    @Query("SELECT l.titulo FROM Libro l WHERE l.titulo IN :titulos")
+    List<String> buscarTitulosExistentes(Collection<String> titulos);
 
-}
\ No newline at end of file
+    @EntityGraph(attributePaths = {"autores", "idiomas"})
+    List<Libro> findByIdiomasCodigo(String idioma);
+
+    @EntityGraph(attributePaths = {"autores", "idiomas"})
+    List<Libro> findByIdIn(Collection<Long> ids);
+
+    // Las consultas por autor recorren el índice (autor_id, libro_id) de libros_autores
+    @EntityGraph(attributePaths = {"autores", "idiomas"})
+    List<Libro> findDistinctByAutoresIdIn(Collection<Long> autorIds);
+
+    @Query("""
+            SELECT i.codigo AS clave, COUNT(l) AS total FROM Libro l JOIN l.idiomas i
+            GROUP BY i.codigo ORDER BY total DESC""")
+    List<ConteoPorClave> contarLibrosPorIdioma();
+
+    @Query("SELECT i.codigo FROM Idioma i")
+    List<String> buscarIdiomas();
+
+    // Recorre el índice sobre numero_de_descargas
+    @Query("SELECT l.id FROM Libro l ORDER BY l.numeroDeDescargas DESC, l.id")
+    List<Long> buscarIdsMasDescargados(Limit limite);
+
+    // Une libros_idiomas por (idioma_id, libro_id) y ordena las descargas de ese idioma; no hay índice que dé el orden
+    @Query("""
+            SELECT l.id FROM Libro l JOIN l.idiomas i WHERE i.codigo = :idioma
+            ORDER BY l.numeroDeDescargas DESC, l.id""")
+    List<Long> buscarIdsMasDescargadosPorIdioma(String idioma, Limit limite);
+
+    /**
+     * Los libros de los ids, con sus autores e idiomas, en el mismo orden que los ids.
+     */
+
+    default List<Libro> cargarEnOrden(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Libro> porId = new HashMap<>();
+        findByIdIn(ids).forEach(libro -> porId.put(libro.getId(), libro));
+        return ids.stream().map(porId::get).filter(Objects::nonNull).toList();
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.alurachallenge.Literatura.consola;
+
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Menú de consola común a la aplicación con base de datos ({@link com.alurachallenge.Literatura.Principal})
+ * y al modo sin conexión sobre una instantánea. Cada consola da su título y sus opciones, que se
+ * numeran desde 1 en el orden de la lista; la opción 0 siempre cierra la aplicación.
+ */
+
+public interface ConsolaCatalogo {
+
+    record Opcion(String descripcion, Runnable accion) {}
+
+    String titulo();
+
+    List<Opcion> opciones();
+
+    Scanner teclado();
+
+    /**
+     * Trata el error de una opción que la consola sabe explicar; por defecto lo propaga.
+     */
+
+    default void alFallar(RuntimeException e) {
+        throw e;
+    }
+
+    /**
+     * Muestra el menú de opciones y maneja la interacción con el usuario hasta que elige salir.
+     */
+
+    default void muestraElMenu() {
+        List<Opcion> opciones = opciones();
+        Scanner teclado = teclado();
+        var opcion = -1;
+        while (opcion != 0) {
+            System.out.println(SalidaConsola.menu(titulo(), opciones));
+            System.out.print("Ingresa por favor tu opción: ");
+            try {
+                opcion = teclado.nextInt();
+                teclado.nextLine(); // Esta línea es crucial para limpiar el buffer.
+
+                if (opcion == 0) {
+                    System.out.println("Cerrando la aplicación...");
+                } else if (opcion > 0 && opcion <= opciones.size()) {
+                    opciones.get(opcion - 1).accion().run();
+                } else {
+                    System.out.println("Opción inválida. Por favor, elige una opción del 0 al " + opciones.size() + ".");
+                }
+            } catch (InputMismatchException e) {
+                System.out.println("Entrada no válida. Por favor, ingresa un número.");
+                teclado.nextLine(); // Limpiar el buffer para evitar un bucle infinito
+            } catch (RuntimeException e) {
+                alFallar(e);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.alurachallenge.Literatura.consola;
+
+import com.alurachallenge.Literatura.service.ContadoresCatalogo;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Scanner;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Formato de las pantallas que comparten las consolas: el menú, los listados de libros y autores,
+ * los conteos, el top de descargas y los autores vivos en un periodo.
+ */
+
+public final class SalidaConsola {
+    private static final String LINEA = "----------------------------------------";
+
+    /**
+     * Periodo de años pedido al usuario; {@code desde} y {@code hasta} coinciden si escribió un solo año.
+     */
+
+    public record Periodo(int desde, int hasta) {
+        public String descripcion() {
+            return desde == hasta ? "el año " + desde : "el periodo " + desde + "-" + hasta;
+        }
+    }
+
+    private SalidaConsola() {}
+
+    static String menu(String titulo, List<ConsolaCatalogo.Opcion> opciones) {
+        var menu = new StringBuilder();
+        menu.append(LINEA).append('\n').append(titulo).append('\n').append(LINEA).append('\n');
+        menu.append("Elige una opción a través de su número:\n");
+        for (int i = 0; i < opciones.size(); i++) {
+            menu.append(i + 1).append(" - ").append(opciones.get(i).descripcion()).append('\n');
+        }
+        menu.append("0 - Salir\n").append(LINEA).append('\n');
+        return menu.toString();
+    }
+
+    public static void mostrarLibros(String titulo, List<?> libros, String mensajeVacio) {
+        System.out.println("\n" + LINEA);
+        if (libros.isEmpty()) {
+            System.out.println(mensajeVacio);
+        } else {
+            System.out.println(titulo);
+            System.out.println(LINEA);
+            var salida = salidaConBuffer();
+            libros.forEach(salida::println);
+            salida.flush();
+        }
+        System.out.println(LINEA);
+    }
+
+    public static void mostrarConteo(String titulo, String prefijo, String separador,
+                                     List<ContadoresCatalogo.Conteo> conteo, String mensajeVacio) {
+        System.out.println("\n" + LINEA);
+        System.out.println(titulo);
+        System.out.println(LINEA);
+        if (conteo.isEmpty()) {
+            System.out.println(mensajeVacio);
+        }
+        var salida = salidaConBuffer();
+        conteo.forEach(resultado -> salida.println(prefijo + resultado.clave() + separador + resultado.total()));
+        salida.flush();
+        System.out.println(LINEA);
+    }
+
+    /**
+     * Pide el idioma del top de descargas. Devuelve null si el usuario lo deja vacío.
+     */
+
+    public static String leerIdiomaDelTop(Scanner teclado) {
+        System.out.println("Escribe el idioma (es, en, fr, pt) o deja vacío para ver todos:");
+        var idioma = teclado.nextLine().trim().toLowerCase();
+        return idioma.isEmpty() ? null : idioma;
+    }
+
+    public static <T> void mostrarMasDescargados(String idioma, List<T> libros, Function<T, String> titulo,
+                                                 ToLongFunction<T> descargas) {
+        System.out.println("\n" + LINEA);
+        System.out.println("  Top 10 Libros más Descargados" + (idioma == null ? "" : " (" + idioma + ")"));
+        System.out.println(LINEA);
+        for (int i = 0; i < libros.size(); i++) {
+            T libro = libros.get(i);
+            System.out.println((i + 1) + ". Título: " + titulo.apply(libro) + " | Descargas: " + descargas.applyAsLong(libro));
+        }
+        System.out.println(LINEA);
+    }
+
+    /**
+     * Pide un año, o dos separados por un espacio para un rango.
+     * Lanza {@link NumberFormatException} si la entrada no son años.
+     */
+
+    public static Periodo leerPeriodo(Scanner teclado) {
+        System.out.println("Escribe el año para verificar autores vivos (o dos años separados por un espacio para un rango):");
+        var anios = teclado.nextLine().trim().split("\\s+");
+        int desde = Integer.parseInt(anios[0]);
+        return new Periodo(desde, anios.length > 1 ? Integer.parseInt(anios[1]) : desde);
+    }
+
+    /**
+     * Muestra los nombres de los autores vivos en el periodo y, aparte, los nacidos a tiempo
+     * pero sin año de fallecimiento, con su año de nacimiento.
+     */
+
+    public static void mostrarAutoresVivos(Periodo periodo, List<String> confirmados, List<String> sinFechaDeFallecimiento) {
+        if (confirmados.isEmpty()) {
+            System.out.println("No hay autores vivos para " + periodo.descripcion() + ", lo sentimos.");
+        } else {
+            confirmados.forEach(nombre -> System.out.println("Autor: " + nombre));
+        }
+        if (!sinFechaDeFallecimiento.isEmpty()) {
+            System.out.println("\nAutores nacidos hasta " + periodo.hasta() + " sin año de fallecimiento registrado (podrían seguir vivos o faltar el dato):");
+            sinFechaDeFallecimiento.forEach(autor -> System.out.println("Autor: " + autor));
+        }
+    }
+
+    private static PrintWriter salidaConBuffer() {
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024));
+    }
+
+    /**
+     * Escribe un listado largo en la consola a través de un buffer.
+     * La cabecera sale con la primera fila, que se muestra de inmediato; después se vacía
+     * el buffer cada cierto número de filas.
+     */
+
+    public static final class Listado {
+        private final PrintWriter salida = salidaConBuffer();
+        private final String titulo;
+        private long filas;
+
+        public Listado(String titulo) {
+            this.titulo = titulo;
+        }
+
+        public void escribir(String fila) {
+            if (filas == 0) {
+                salida.println("\n" + LINEA);
+                salida.println(titulo);
+                salida.println(LINEA);
+            }
+            salida.println(fila);
+            if (++filas % 1000 == 1) {
+                salida.flush();
+            }
+        }
+
+        public void terminar(String mensajeVacio) {
+            salida.println(filas == 0 ? mensajeVacio : LINEA);
+            salida.flush();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.alurachallenge.Literatura.controller;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.dto.AutorResumen;
+import com.alurachallenge.Literatura.dto.AutorRespuesta;
+import com.alurachallenge.Literatura.dto.ImportacionRespuesta;
+import com.alurachallenge.Literatura.dto.LibroRespuesta;
+import com.alurachallenge.Literatura.dto.Pagina;
+import com.alurachallenge.Literatura.service.ContadoresCatalogo;
+import com.alurachallenge.Literatura.service.ErrorConsultaAPI;
+import com.alurachallenge.Literatura.service.ServicioCatalogo;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * API REST con las mismas operaciones que el menú de la consola.
+ * Los listados se paginan con un cursor ({@code despuesDe}) en lugar de con OFFSET,
+ * y las respuestas GET llevan ETag para que los clientes puedan usar {@code If-None-Match}.
+ */
+
+@RestController
+@RequestMapping("/api")
+public class CatalogoController {
+    private static final int TAMANO_MAXIMO_PAGINA = 500;
+
+    private final ServicioCatalogo servicioCatalogo;
+
+    public record LibrosDeAutorRespuesta(List<LibroRespuesta> libros, List<String> sugerencias) {}
+
+    public record AutoresVivosRespuesta(List<AutorRespuesta> confirmados, List<AutorRespuesta> sinFechaDeFallecimiento) {}
+
+    public CatalogoController(ServicioCatalogo servicioCatalogo) {
+        this.servicioCatalogo = servicioCatalogo;
+    }
+
+    @GetMapping("/libros")
+    public Pagina<LibroRespuesta> listarLibros(@RequestParam(defaultValue = "0") long despuesDe,
+                                               @RequestParam(defaultValue = "50") int tamano,
+                                               @RequestParam(required = false) String idioma) {
+        int limite = acotar(tamano);
+        List<Libro> libros = servicioCatalogo.paginaDeLibros(despuesDe, limite, idioma);
+        String siguiente = libros.size() < limite ? null : String.valueOf(libros.get(libros.size() - 1).getId());
+        return new Pagina<>(libros.stream().map(LibroRespuesta::de).toList(), siguiente);
+    }
+
+    @GetMapping("/libros/buscar")
+    public List<LibroRespuesta> buscarLibrosPorTitulo(@RequestParam String titulo,
+                                                      @RequestParam(defaultValue = "50") int limite) {
+        return servicioCatalogo.buscarLibrosPorTitulo(titulo, acotar(limite)).stream()
+                .map(LibroRespuesta::de)
+                .toList();
+    }
+
+    @GetMapping("/libros/por-autor")
+    public LibrosDeAutorRespuesta buscarLibrosPorAutor(@RequestParam String nombre) {
+        var resultado = servicioCatalogo.buscarLibrosPorAutor(nombre);
+        return new LibrosDeAutorRespuesta(resultado.libros().stream().map(LibroRespuesta::de).toList(),
+                resultado.sugerencias());
+    }
+
+    @GetMapping("/libros/top")
+    public List<LibroRespuesta> masDescargados(@RequestParam(defaultValue = "10") int k,
+                                               @RequestParam(required = false) String idioma) {
+        return servicioCatalogo.masDescargados(acotar(k), idioma).stream()
+                .map(LibroRespuesta::de)
+                .toList();
+    }
+
+    @GetMapping("/autores")
+    public Pagina<AutorRespuesta> listarAutores(@RequestParam(required = false) String despuesDe,
+                                                @RequestParam(defaultValue = "50") int tamano) {
+        int limite = acotar(tamano);
+        List<AutorResumen> autores = servicioCatalogo.paginaDeAutores(despuesDe, limite);
+        String siguiente = autores.size() < limite ? null : autores.get(autores.size() - 1).getNombre();
+        return new Pagina<>(autores.stream().map(AutorRespuesta::de).toList(), siguiente);
+    }
+
+    @GetMapping("/autores/vivos")
+    public AutoresVivosRespuesta autoresVivos(@RequestParam int desde, @RequestParam(required = false) Integer hasta) {
+        var vivos = servicioCatalogo.autoresVivos(desde, hasta == null ? desde : hasta);
+        return new AutoresVivosRespuesta(vivos.confirmados().stream().map(AutorRespuesta::de).toList(),
+                vivos.sinFechaDeFallecimiento().stream().map(AutorRespuesta::de).toList());
+    }
+
+    @GetMapping("/conteos/idiomas")
+    public List<ContadoresCatalogo.Conteo> contarLibrosPorIdioma() {
+        return servicioCatalogo.contarLibrosPorIdioma();
+    }
+
+    @GetMapping("/conteos/autores")
+    public List<ContadoresCatalogo.Conteo> contarLibrosPorAutor() {
+        return servicioCatalogo.contarLibrosPorAutor();
+    }
+
+    /**
+     * Busca el título en Gutendex y registra el primer libro que coincida.
+     * Responde 404 si la API no devuelve ningún libro con ese título.
+     */
+
+    @PostMapping("/importaciones/titulo")
+    public ResponseEntity<ImportacionRespuesta> importarPorTitulo(@RequestParam String titulo) {
+        var importacion = servicioCatalogo.importarPorTitulo(titulo);
+        return importacion.vacia()
+                ? ResponseEntity.status(HttpStatus.NOT_FOUND).build()
+                : ResponseEntity.ok(respuesta(importacion));
+    }
+
+    @PostMapping("/importaciones/autor")
+    public ImportacionRespuesta importarPorAutor(@RequestParam String nombre) {
+        return respuesta(servicioCatalogo.importarPorAutor(nombre));
+    }
+
+    /**
+     * Los fallos de Gutendex que pueden resolverse solos se responden con 503, y el resto con 502.
+     */
+
+    @ExceptionHandler(ErrorConsultaAPI.class)
+    public ResponseEntity<String> errorDeGutendex(ErrorConsultaAPI e) {
+        return ResponseEntity.status(e.esTransitorio() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.BAD_GATEWAY)
+                .body(e.getMessage());
+    }
+
+    private static ImportacionRespuesta respuesta(ServicioCatalogo.Importacion importacion) {
+        return new ImportacionRespuesta(importacion.registrados().stream().map(LibroRespuesta::de).toList(),
+                importacion.yaRegistrados());
+    }
+
+    private static int acotar(int tamano) {
+        return Math.max(1, Math.min(tamano, TAMANO_MAXIMO_PAGINA));
+    }
+}
\ No newline at end of file
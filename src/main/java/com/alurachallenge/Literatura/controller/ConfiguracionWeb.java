@@ -0,0 +1,22 @@
+package com.alurachallenge.Literatura.controller;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+@Configuration
+public class ConfiguracionWeb {
+
+    /**
+     * Calcula el ETag de cada respuesta GET de la API y contesta 304 si coincide con
+     * el {@code If-None-Match} del cliente, sin enviar de nuevo el cuerpo.
+     */
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> filtroEtag() {
+        var registro = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registro.addUrlPatterns("/api/*");
+        return registro;
+    }
+}
\ No newline at end of file
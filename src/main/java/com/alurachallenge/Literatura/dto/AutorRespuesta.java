@@ -0,0 +1,12 @@
+package com.alurachallenge.Literatura.dto;
+
+/**
+ * Autor tal como lo devuelve la API REST. Las fechas que no se conocen se omiten.
+ */
+
+public record AutorRespuesta(long id, String nombre, Integer fechaDeNacimiento, Integer fechaDeFallecimiento) {
+    public static AutorRespuesta de(AutorResumen autor) {
+        return new AutorRespuesta(autor.getId(), autor.getNombre(),
+                autor.getFechaDeNacimiento(), autor.getFechaDeFallecimiento());
+    }
+}
\ No newline at end of file
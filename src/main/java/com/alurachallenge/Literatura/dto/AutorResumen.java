@@ -0,0 +1,12 @@
+package com.alurachallenge.Literatura.dto;
+
+/**
+ * Proyección ligera de un autor para los listados: no carga sus libros.
+ */
+
+public interface AutorResumen {
+    Long getId();
+    String getNombre();
+    Integer getFechaDeNacimiento();
+    Integer getFechaDeFallecimiento();
+}
\ No newline at end of file
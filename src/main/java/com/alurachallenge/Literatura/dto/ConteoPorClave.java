@@ -0,0 +1,10 @@
+package com.alurachallenge.Literatura.dto;
+
+/**
+ * Fila de un conteo agrupado (por idioma, por autor...).
+ */
+
+public interface ConteoPorClave {
+    String getClave();
+    Long getTotal();
+}
\ No newline at end of file
@@ -7,5 +7,8 @@ import java.util.List;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public record Datos(
+        @JsonAlias("count") Integer total,
+        @JsonAlias("next") String siguiente,
+        @JsonAlias("previous") String anterior,
         @JsonAlias("results") List<DatosLibro> resultados
 ) {}
\ No newline at end of file
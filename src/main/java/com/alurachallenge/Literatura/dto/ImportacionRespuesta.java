@@ -0,0 +1,9 @@
+package com.alurachallenge.Literatura.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación desde Gutendex: libros guardados ahora y títulos que ya existían.
+ */
+
+public record ImportacionRespuesta(List<LibroRespuesta> registrados, List<String> yaRegistrados) {}
\ No newline at end of file
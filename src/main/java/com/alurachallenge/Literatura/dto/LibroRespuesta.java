@@ -0,0 +1,23 @@
+package com.alurachallenge.Literatura.dto;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.service.RankingDescargas;
+
+import java.util.List;
+
+/**
+ * Libro tal como lo devuelve la API REST.
+ * El id es nulo en los libros importados con escritura diferida que aún no se han guardado.
+ */
+
+public record LibroRespuesta(Long id, String titulo, List<String> autores, List<String> idiomas, long descargas) {
+    public static LibroRespuesta de(Libro libro) {
+        return new LibroRespuesta(libro.getId(), libro.getTitulo(), libro.getNombresDeAutores(),
+                libro.getCodigosDeIdioma(), libro.getNumeroDeDescargas());
+    }
+
+    public static LibroRespuesta de(RankingDescargas.Posicion posicion) {
+        return new LibroRespuesta(posicion.id(), posicion.titulo(), posicion.autores(),
+                posicion.idiomas(), posicion.descargas());
+    }
+}
\ No newline at end of file
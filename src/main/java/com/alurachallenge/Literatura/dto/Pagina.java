@@ -0,0 +1,10 @@
+package com.alurachallenge.Literatura.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados de la API REST. {@code siguiente} es el valor que hay que pasar
+ * en {@code despuesDe} para pedir la página siguiente; se omite en la última.
+ */
+
+public record Pagina<T>(List<T> elementos, String siguiente) {}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.alurachallenge.Literatura.instantanea;
+
+import com.alurachallenge.Literatura.consola.ConsolaCatalogo;
+import com.alurachallenge.Literatura.consola.SalidaConsola;
+
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Menú de consola de solo lectura sobre una {@link Instantanea}.
+ * Ofrece las mismas consultas de listado, búsqueda, conteo y clasificación que
+ * {@link com.alurachallenge.Literatura.Principal}, pero sin Spring, sin base de datos y sin API.
+ */
+
+public class ConsolaInstantanea implements ConsolaCatalogo {
+    private final Scanner teclado = new Scanner(System.in);
+    private final Instantanea instantanea;
+
+    public ConsolaInstantanea(Instantanea instantanea) {
+        this.instantanea = instantanea;
+    }
+
+    @Override
+    public String titulo() {
+        return "Literatura - modo sin conexión";
+    }
+
+    @Override
+    public List<Opcion> opciones() {
+        return List.of(
+                new Opcion("Buscar libros por título", this::buscarLibrosPorTitulo),
+                new Opcion("Listar libros", this::listarLibros),
+                new Opcion("Listar autores", this::listarAutores),
+                new Opcion("Listar autores vivos en un año determinado", this::listarAutoresVivos),
+                new Opcion("Listar libros por idioma", this::listarLibrosPorIdioma),
+                new Opcion("Buscar libros por autor", this::buscarLibrosPorAutor),
+                new Opcion("Contar libros por idioma", () -> SalidaConsola.mostrarConteo("  Conteo de Libros por Idioma",
+                        "Idioma: ", " - Total: ", instantanea.contarLibrosPorIdioma(), "⚠️ No hay libros en la instantánea.")),
+                new Opcion("Top 10 libros más descargados", this::listarTop10Libros),
+                new Opcion("Contar libros por autor", () -> SalidaConsola.mostrarConteo("  Conteo de Libros por Autor",
+                        "Autor: ", " - Total de libros: ", instantanea.contarLibrosPorAutor(), "⚠️ No hay libros en la instantánea.")));
+    }
+
+    @Override
+    public Scanner teclado() {
+        return teclado;
+    }
+
+    @Override
+    public void muestraElMenu() {
+        System.out.println("Instantánea del " + instantanea.exportadaEn() + ": "
+                + instantanea.libros() + " libros y " + instantanea.autores() + " autores (solo lectura).");
+        ConsolaCatalogo.super.muestraElMenu();
+    }
+
+    private void buscarLibrosPorTitulo() {
+        System.out.println("Escribe el título (o parte del título) que deseas buscar:");
+        SalidaConsola.mostrarLibros("  Libros encontrados", instantanea.buscarLibrosPorTitulo(teclado.nextLine(), 50),
+                "❌ No hay libros con ese título en la instantánea.");
+    }
+
+    private void listarLibros() {
+        var listado = new SalidaConsola.Listado("  Libros Registrados");
+        instantanea.recorrerLibros(libro -> listado.escribir(libro.toString()));
+        listado.terminar("\nNo hay libros en la instantánea.");
+    }
+
+    private void listarAutores() {
+        var listado = new SalidaConsola.Listado("  Autores Registrados");
+        instantanea.recorrerAutores(autor -> listado.escribir("Autor: " + autor.nombre()));
+        listado.terminar("\nNo hay autores en la instantánea.");
+    }
+
+    private void listarAutoresVivos() {
+        try {
+            var periodo = SalidaConsola.leerPeriodo(teclado);
+            var vivos = instantanea.autoresVivos(periodo.desde(), periodo.hasta());
+            SalidaConsola.mostrarAutoresVivos(periodo,
+                    vivos.confirmados().stream().map(Instantanea.FichaAutor::nombre).toList(),
+                    vivos.sinFechaDeFallecimiento().stream()
+                            .map(autor -> autor.nombre() + " (nacido en " + autor.fechaDeNacimiento() + ")")
+                            .toList());
+        } catch (NumberFormatException e) {
+            System.out.println("Entrada no válida. Por favor, ingresa un número de año.");
+        }
+    }
+
+    private void listarLibrosPorIdioma() {
+        System.out.println("Escribe el código del idioma (por ejemplo es, en, fr o pt):");
+        SalidaConsola.mostrarLibros("  Libros por idioma", instantanea.librosPorIdioma(teclado.nextLine().trim().toLowerCase()),
+                "No hay libros registrados en ese idioma.");
+    }
+
+    private void buscarLibrosPorAutor() {
+        System.out.print("Escribe por favor el nombre del autor a buscar: ");
+        SalidaConsola.mostrarLibros("  Libros del autor", instantanea.buscarLibrosPorAutor(teclado.nextLine()),
+                "⚠️ No se encontraron libros para ese autor.");
+    }
+
+    private void listarTop10Libros() {
+        var idioma = SalidaConsola.leerIdiomaDelTop(teclado);
+        SalidaConsola.mostrarMasDescargados(idioma, instantanea.masDescargados(10, idioma),
+                Instantanea.FichaLibro::titulo, Instantanea.FichaLibro::descargas);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,162 @@
+package com.alurachallenge.Literatura.instantanea;
+
+import com.alurachallenge.Literatura.service.ListadoCatalogo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Escribe el catálogo completo en el formato por columnas que lee {@link Instantanea}.
+ * Los libros y los autores se recorren con {@link ListadoCatalogo}, sin cargar entidades
+ * de más, y el archivo se escribe primero en un temporal que después se renombra, así que
+ * una instantánea a medio escribir nunca reemplaza a la anterior.
+ */
+
+@Service
+public class ExportadorInstantanea {
+    private final ListadoCatalogo listadoCatalogo;
+    private final Path archivoPredeterminado;
+
+    public record ResumenExportacion(int libros, int autores, long bytes, Duration duracion) {}
+
+    public ExportadorInstantanea(ListadoCatalogo listadoCatalogo,
+                                 @Value("${literatura.instantanea.archivo:catalogo.instantanea}") String archivoPredeterminado) {
+        this.listadoCatalogo = listadoCatalogo;
+        this.archivoPredeterminado = Path.of(archivoPredeterminado);
+    }
+
+    public Path archivoPredeterminado() {
+        return archivoPredeterminado;
+    }
+
+    public ResumenExportacion exportar(Path archivo) {
+        Instant inicio = Instant.now();
+
+        // Los autores llegan en orden alfabético, que es el orden en que se guardan
+        List<Long> idsAutores = new ArrayList<>();
+        List<Integer> nacimientos = new ArrayList<>();
+        List<Integer> fallecimientos = new ArrayList<>();
+        List<String> nombres = new ArrayList<>();
+        Map<Long, Integer> posicionDeAutor = new HashMap<>();
+        listadoCatalogo.recorrerAutores(autor -> {
+            posicionDeAutor.put(autor.getId(), idsAutores.size());
+            idsAutores.add(autor.getId());
+            nacimientos.add(autor.getFechaDeNacimiento());
+            fallecimientos.add(autor.getFechaDeFallecimiento());
+            nombres.add(autor.getNombre());
+        });
+
+        Map<String, Integer> idiomas = new LinkedHashMap<>();
+        List<Long> idsLibros = new ArrayList<>();
+        List<Long> descargas = new ArrayList<>();
+        List<Integer> inicioAutores = new ArrayList<>(List.of(0));
+        List<Integer> autoresDeLibro = new ArrayList<>();
+        List<Integer> inicioIdiomas = new ArrayList<>(List.of(0));
+        List<Integer> idiomasDeLibro = new ArrayList<>();
+        List<String> titulos = new ArrayList<>();
+        listadoCatalogo.recorrerLibros(libro -> {
+            idsLibros.add(libro.getId());
+            descargas.add(libro.getNumeroDeDescargas());
+            // Un autor registrado después de recorrer los autores no está en la instantánea
+            libro.getAutores().stream()
+                    .map(autor -> posicionDeAutor.get(autor.getId()))
+                    .filter(Objects::nonNull)
+                    .forEach(autoresDeLibro::add);
+            inicioAutores.add(autoresDeLibro.size());
+            libro.getCodigosDeIdioma().forEach(codigo -> idiomasDeLibro.add(idiomas.computeIfAbsent(codigo, nuevo -> idiomas.size())));
+            inicioIdiomas.add(idiomasDeLibro.size());
+            titulos.add(libro.getTitulo());
+        });
+
+        int[] ordenPorDescargas = IntStream.range(0, idsLibros.size()).boxed()
+                .sorted(Comparator.<Integer>comparingLong(descargas::get).reversed().thenComparingLong(idsLibros::get))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (var salida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal), 64 * 1024))) {
+            salida.writeInt(Instantanea.MAGICO);
+            salida.writeInt(Instantanea.VERSION);
+            salida.writeLong(inicio.toEpochMilli());
+            salida.writeInt(idsAutores.size());
+            salida.writeInt(idsLibros.size());
+            salida.writeInt(idiomas.size());
+
+            for (long id : idsAutores) {
+                salida.writeLong(id);
+            }
+            for (Integer anio : nacimientos) {
+                salida.writeInt(anio == null ? Instantanea.SIN_ANIO : anio);
+            }
+            for (Integer anio : fallecimientos) {
+                salida.writeInt(anio == null ? Instantanea.SIN_ANIO : anio);
+            }
+            escribirTabla(salida, nombres);
+            escribirTabla(salida, List.copyOf(idiomas.keySet()));
+
+            for (long id : idsLibros) {
+                salida.writeLong(id);
+            }
+            for (long total : descargas) {
+                salida.writeLong(total);
+            }
+            escribirEnteros(salida, inicioAutores);
+            escribirEnteros(salida, autoresDeLibro);
+            escribirEnteros(salida, inicioIdiomas);
+            escribirEnteros(salida, idiomasDeLibro);
+            for (int posicion : ordenPorDescargas) {
+                salida.writeInt(posicion);
+            }
+            escribirTabla(salida, titulos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new ResumenExportacion(idsLibros.size(), idsAutores.size(), Files.size(archivo),
+                    Duration.between(inicio, Instant.now()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void escribirEnteros(DataOutputStream salida, List<Integer> valores) throws IOException {
+        for (int valor : valores) {
+            salida.writeInt(valor);
+        }
+    }
+
+    private static void escribirTabla(DataOutputStream salida, List<String> cadenas) throws IOException {
+        byte[][] codificadas = new byte[cadenas.size()][];
+        int[] desplazamientos = new int[cadenas.size() + 1];
+        for (int i = 0; i < cadenas.size(); i++) {
+            codificadas[i] = cadenas.get(i).getBytes(StandardCharsets.UTF_8);
+            desplazamientos[i + 1] = desplazamientos[i] + codificadas[i].length;
+        }
+        for (int desplazamiento : desplazamientos) {
+            salida.writeInt(desplazamiento);
+        }
+        for (byte[] codificada : codificadas) {
+            salida.write(codificada);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,388 @@
+package com.alurachallenge.Literatura.instantanea;
+
+import com.alurachallenge.Literatura.service.ContadoresCatalogo;
+import com.alurachallenge.Literatura.service.IndiceTrigramas;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Catálogo de solo lectura guardado en un archivo binario por columnas y proyectado en memoria.
+ * Abrirlo solo lee la cabecera y crea vistas sobre el archivo, así que no necesita Spring ni
+ * base de datos y arranca en milisegundos; los índices de trigramas para las búsquedas por
+ * subcadena se construyen la primera vez que se usan.
+ *
+ * <p>Formato (versión 2, big-endian), tal como lo escribe {@link ExportadorInstantanea}:
+ * <pre>
+ * int magico, int version, long exportadaEn (milisegundos), int autores, int libros, int idiomas
+ * autores: long[] ids, int[] nacimiento, int[] fallecimiento, tabla de nombres (en orden alfabético)
+ * idiomas: tabla de códigos
+ * libros:  long[] ids, long[] descargas, lista de autores, lista de idiomas, int[] ordenPorDescargas,
+ *          tabla de títulos
+ * </pre>
+ * Una tabla de cadenas son {@code n + 1} desplazamientos int seguidos de los bytes UTF-8.
+ * Una lista por libro son {@code n + 1} desplazamientos int seguidos de los valores de todos
+ * los libros: posiciones de autor o de idioma dentro de sus secciones, en el orden original.
+ * Los años desconocidos se guardan como {@link #SIN_ANIO}.
+ */
+
+public final class Instantanea {
+    static final int MAGICO = 0x4C495431;
+    static final int VERSION = 2;
+    static final int SIN_ANIO = Integer.MIN_VALUE;
+
+    private final Instant exportadaEn;
+    private final LongBuffer idsAutores;
+    private final IntBuffer nacimientos;
+    private final IntBuffer fallecimientos;
+    private final TablaCadenas nombres;
+    private final TablaCadenas idiomas;
+    private final LongBuffer idsLibros;
+    private final LongBuffer descargas;
+    private final ListaPorLibro autoresDeLibro;
+    private final ListaPorLibro idiomasDeLibro;
+    private final IntBuffer ordenPorDescargas;
+    private final TablaCadenas titulos;
+    private IndiceTrigramas indiceTitulos;
+    private IndiceTrigramas indiceAutores;
+
+    public record FichaLibro(long id, String titulo, List<String> autores, List<String> idiomas, long descargas) {
+        @Override
+        public String toString() {
+            return "---------------------------------" +
+                    "\nTitulo: " + titulo +
+                    "\nAutor: " + (autores.isEmpty() ? "Desconocido" : String.join("; ", autores)) +
+                    "\nIdioma: " + (idiomas.isEmpty() ? "Desconocido" : String.join(", ", idiomas)) +
+                    "\nNúmero de descargas: " + descargas +
+                    "\n---------------------------------";
+        }
+    }
+
+    public record FichaAutor(long id, String nombre, Integer fechaDeNacimiento, Integer fechaDeFallecimiento) {}
+
+    public record AutoresVivos(List<FichaAutor> confirmados, List<FichaAutor> sinFechaDeFallecimiento) {}
+
+    private Instantanea(ByteBuffer mapa) {
+        var lector = new Lector(mapa);
+        if (lector.entero() != MAGICO) {
+            throw new IllegalArgumentException("El archivo no es una instantánea del catálogo.");
+        }
+        int version = lector.entero();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Versión de instantánea no compatible: " + version);
+        }
+        exportadaEn = Instant.ofEpochMilli(lector.largo());
+        int autores = lector.entero();
+        int libros = lector.entero();
+        int codigos = lector.entero();
+        idsAutores = lector.largos(autores);
+        nacimientos = lector.enteros(autores);
+        fallecimientos = lector.enteros(autores);
+        nombres = lector.tabla(autores);
+        idiomas = lector.tabla(codigos);
+        idsLibros = lector.largos(libros);
+        descargas = lector.largos(libros);
+        autoresDeLibro = lector.lista(libros);
+        idiomasDeLibro = lector.lista(libros);
+        ordenPorDescargas = lector.enteros(libros);
+        titulos = lector.tabla(libros);
+    }
+
+    public static Instantanea abrir(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            // La proyección sigue siendo válida después de cerrar el canal
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            return new Instantanea(mapa);
+        }
+    }
+
+    public Instant exportadaEn() {
+        return exportadaEn;
+    }
+
+    public int libros() {
+        return idsLibros.limit();
+    }
+
+    public int autores() {
+        return idsAutores.limit();
+    }
+
+    public FichaLibro libro(int posicion) {
+        return new FichaLibro(idsLibros.get(posicion), titulos.get(posicion), autoresDeLibro.cadenas(posicion, nombres),
+                idiomasDeLibro.cadenas(posicion, idiomas), descargas.get(posicion));
+    }
+
+    public FichaAutor autor(int posicion) {
+        return new FichaAutor(idsAutores.get(posicion), nombres.get(posicion),
+                anio(nacimientos.get(posicion)), anio(fallecimientos.get(posicion)));
+    }
+
+    public void recorrerLibros(Consumer<FichaLibro> consumidor) {
+        for (int i = 0; i < libros(); i++) {
+            consumidor.accept(libro(i));
+        }
+    }
+
+    /**
+     * Recorre los autores en orden alfabético.
+     */
+
+    public void recorrerAutores(Consumer<FichaAutor> consumidor) {
+        for (int i = 0; i < autores(); i++) {
+            consumidor.accept(autor(i));
+        }
+    }
+
+    public List<FichaLibro> librosPorIdioma(String idioma) {
+        int codigo = posicionDeIdioma(idioma);
+        List<FichaLibro> resultado = new ArrayList<>();
+        for (int i = 0; codigo >= 0 && i < libros(); i++) {
+            if (idiomasDeLibro.contiene(i, codigo)) {
+                resultado.add(libro(i));
+            }
+        }
+        return resultado;
+    }
+
+    public List<FichaLibro> buscarLibrosPorTitulo(String consulta, int limite) {
+        return indiceTitulos().buscarSubcadena(consulta, limite).stream()
+                .map(posicion -> libro(posicion.intValue()))
+                .toList();
+    }
+
+    /**
+     * Libros de los autores cuyo nombre contiene la consulta.
+     */
+
+    public List<FichaLibro> buscarLibrosPorAutor(String consulta) {
+        boolean[] elegidos = new boolean[autores()];
+        indiceAutores().buscarSubcadena(consulta, Integer.MAX_VALUE).forEach(posicion -> elegidos[posicion.intValue()] = true);
+        List<FichaLibro> resultado = new ArrayList<>();
+        for (int i = 0; i < libros(); i++) {
+            for (int j = autoresDeLibro.inicio(i); j < autoresDeLibro.inicio(i + 1); j++) {
+                if (elegidos[autoresDeLibro.valor(j)]) {
+                    resultado.add(libro(i));
+                    break;
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Autores vivos en algún momento del rango [desde, hasta], con el mismo criterio que
+     * {@link com.alurachallenge.Literatura.service.IndiceVidaAutores}.
+     */
+
+    public AutoresVivos autoresVivos(int desde, int hasta) {
+        List<FichaAutor> confirmados = new ArrayList<>();
+        List<FichaAutor> sinFechaDeFallecimiento = new ArrayList<>();
+        for (int i = 0; i < autores(); i++) {
+            int nacimiento = nacimientos.get(i);
+            if (nacimiento == SIN_ANIO || nacimiento > hasta) {
+                continue;
+            }
+            int fallecimiento = fallecimientos.get(i);
+            if (fallecimiento == SIN_ANIO) {
+                sinFechaDeFallecimiento.add(autor(i));
+            } else if (fallecimiento > desde && fallecimiento > nacimiento) {
+                confirmados.add(autor(i));
+            }
+        }
+        return new AutoresVivos(confirmados, sinFechaDeFallecimiento);
+    }
+
+    public List<ContadoresCatalogo.Conteo> contarLibrosPorIdioma() {
+        return conteos(idiomasDeLibro.totales(idiomas.tamano()), idiomas);
+    }
+
+    public List<ContadoresCatalogo.Conteo> contarLibrosPorAutor() {
+        return conteos(autoresDeLibro.totales(autores()), nombres);
+    }
+
+    /**
+     * Los {@code k} libros más descargados del idioma, o de todo el catálogo si el idioma es nulo.
+     * El orden ya viene calculado en el archivo, así que solo se recorre su principio.
+     */
+
+    public List<FichaLibro> masDescargados(int k, String idioma) {
+        int codigo = idioma == null ? -1 : posicionDeIdioma(idioma);
+        List<FichaLibro> resultado = new ArrayList<>(Math.max(0, k));
+        if (idioma != null && codigo < 0) {
+            return resultado;
+        }
+        for (int i = 0; i < libros() && resultado.size() < k; i++) {
+            int posicion = ordenPorDescargas.get(i);
+            if (codigo < 0 || idiomasDeLibro.contiene(posicion, codigo)) {
+                resultado.add(libro(posicion));
+            }
+        }
+        return resultado;
+    }
+
+    private int posicionDeIdioma(String idioma) {
+        for (int i = 0; i < idiomas.tamano(); i++) {
+            if (idiomas.get(i).equals(idioma)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private synchronized IndiceTrigramas indiceTitulos() {
+        if (indiceTitulos == null) {
+            indiceTitulos = new IndiceTrigramas();
+            for (int i = 0; i < libros(); i++) {
+                indiceTitulos.agregar(i, titulos.get(i));
+            }
+        }
+        return indiceTitulos;
+    }
+
+    private synchronized IndiceTrigramas indiceAutores() {
+        if (indiceAutores == null) {
+            indiceAutores = new IndiceTrigramas();
+            for (int i = 0; i < autores(); i++) {
+                indiceAutores.agregar(i, nombres.get(i));
+            }
+        }
+        return indiceAutores;
+    }
+
+    private static List<ContadoresCatalogo.Conteo> conteos(long[] totales, TablaCadenas claves) {
+        List<ContadoresCatalogo.Conteo> conteos = new ArrayList<>();
+        for (int i = 0; i < totales.length; i++) {
+            if (totales[i] > 0) {
+                conteos.add(new ContadoresCatalogo.Conteo(claves.get(i), totales[i]));
+            }
+        }
+        conteos.sort(Comparator.comparingLong(ContadoresCatalogo.Conteo::total).reversed()
+                .thenComparing(ContadoresCatalogo.Conteo::clave));
+        return conteos;
+    }
+
+    private static Integer anio(int valor) {
+        return valor == SIN_ANIO ? null : valor;
+    }
+
+    /**
+     * Cadenas guardadas como desplazamientos más un bloque de bytes UTF-8; se decodifican al pedirlas.
+     */
+
+    private record TablaCadenas(IntBuffer desplazamientos, ByteBuffer bytes) {
+        int tamano() {
+            return desplazamientos.limit() - 1;
+        }
+
+        String get(int posicion) {
+            int inicio = desplazamientos.get(posicion);
+            byte[] texto = new byte[desplazamientos.get(posicion + 1) - inicio];
+            bytes.get(inicio, texto);
+            return new String(texto, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Valores de varios libros seguidos en un solo bloque; los del libro {@code i} van de
+     * {@code inicio(i)} a {@code inicio(i + 1)}.
+     */
+
+    private record ListaPorLibro(IntBuffer inicios, IntBuffer valores) {
+        int inicio(int libro) {
+            return inicios.get(libro);
+        }
+
+        int valor(int posicion) {
+            return valores.get(posicion);
+        }
+
+        boolean contiene(int libro, int valor) {
+            for (int j = inicio(libro); j < inicio(libro + 1); j++) {
+                if (valores.get(j) == valor) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        List<String> cadenas(int libro, TablaCadenas tabla) {
+            List<String> resultado = new ArrayList<>(inicio(libro + 1) - inicio(libro));
+            for (int j = inicio(libro); j < inicio(libro + 1); j++) {
+                resultado.add(tabla.get(valores.get(j)));
+            }
+            return resultado;
+        }
+
+        // Cuántos libros tienen cada valor
+        long[] totales(int valoresDistintos) {
+            long[] totales = new long[valoresDistintos];
+            for (int j = 0; j < valores.limit(); j++) {
+                totales[valores.get(j)]++;
+            }
+            return totales;
+        }
+    }
+
+    /**
+     * Avanza por las secciones del archivo creando vistas sin copiar los datos.
+     */
+
+    private static final class Lector {
+        private final ByteBuffer mapa;
+        private int posicion;
+
+        Lector(ByteBuffer mapa) {
+            this.mapa = mapa;
+        }
+
+        int entero() {
+            int valor = mapa.getInt(posicion);
+            posicion += Integer.BYTES;
+            return valor;
+        }
+
+        long largo() {
+            long valor = mapa.getLong(posicion);
+            posicion += Long.BYTES;
+            return valor;
+        }
+
+        LongBuffer largos(int cantidad) {
+            LongBuffer vista = mapa.slice(posicion, cantidad * Long.BYTES).asLongBuffer();
+            posicion += cantidad * Long.BYTES;
+            return vista;
+        }
+
+        IntBuffer enteros(int cantidad) {
+            IntBuffer vista = mapa.slice(posicion, cantidad * Integer.BYTES).asIntBuffer();
+            posicion += cantidad * Integer.BYTES;
+            return vista;
+        }
+
+        ListaPorLibro lista(int libros) {
+            IntBuffer inicios = enteros(libros + 1);
+            return new ListaPorLibro(inicios, enteros(inicios.get(libros)));
+        }
+
+        TablaCadenas tabla(int cantidad) {
+            IntBuffer desplazamientos = enteros(cantidad + 1);
+            int longitud = desplazamientos.get(cantidad);
+            ByteBuffer bytes = mapa.slice(posicion, longitud);
+            posicion += longitud;
+            return new TablaCadenas(desplazamientos, bytes);
+        }
+    }
+}
\ No newline at end of file
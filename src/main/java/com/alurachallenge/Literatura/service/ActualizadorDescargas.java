@@ -0,0 +1,192 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Vuelve a pedir a Gutendex los libros registrados para actualizar su número de descargas.
+ * Los libros se piden de 32 en 32 con el filtro {@code ids=}, con un ritmo máximo de
+ * peticiones y un número limitado de peticiones simultáneas. Solo se escriben las filas
+ * cuyo número cambió, con lotes de UPDATE.
+ *
+ * <p>La tarea periódica está desactivada por defecto
+ * ({@code literatura.descargas.actualizacion-habilitada}); también se puede lanzar desde el menú.
+ */
+
+@Service
+public class ActualizadorDescargas {
+    private static final Logger log = LoggerFactory.getLogger(ActualizadorDescargas.class);
+
+    // Gutendex devuelve como mucho 32 libros por página
+    private static final int IDS_POR_PETICION = 32;
+    private static final int TAMANO_LOTE = 500;
+
+    private static final String LEER_LIBROS = """
+            SELECT id, id_gutendex, numero_de_descargas FROM libros
+            WHERE id > ? AND id_gutendex IS NOT NULL
+            ORDER BY id
+            LIMIT ?""";
+    private static final String ACTUALIZAR_DESCARGAS = "UPDATE libros SET numero_de_descargas = ? WHERE id = ?";
+
+    private final ConsumoAPI consumoAPI;
+    private final ConvierteDatos conversor;
+    private final JdbcTemplate jdbcTemplate;
+    private final LibroRepository libroRepository;
+    private final ApplicationEventPublisher eventos;
+    private final boolean habilitada;
+    private final int concurrencia;
+    private final LimitadorPeticiones limitador;
+    private final String urlBase;
+
+    public record ResumenActualizacion(int librosRevisados, int librosCambiados, int peticionesFallidas, Duration duracion) {}
+
+    private record LibroGuardado(long id, long idGutendex, long descargas) {}
+
+    public ActualizadorDescargas(ConsumoAPI consumoAPI, ConvierteDatos conversor, JdbcTemplate jdbcTemplate,
+                                 LibroRepository libroRepository, ApplicationEventPublisher eventos,
+                                 @Value("${literatura.descargas.actualizacion-habilitada:false}") boolean habilitada,
+                                 @Value("${literatura.descargas.concurrencia:4}") int concurrencia,
+                                 @Value("${literatura.descargas.peticiones-por-segundo:5}") double peticionesPorSegundo,
+                                 ConfiguracionGutendex gutendex) {
+        this.consumoAPI = consumoAPI;
+        this.conversor = conversor;
+        this.jdbcTemplate = jdbcTemplate;
+        this.libroRepository = libroRepository;
+        this.eventos = eventos;
+        this.habilitada = habilitada;
+        this.concurrencia = Math.max(1, concurrencia);
+        this.limitador = new LimitadorPeticiones(peticionesPorSegundo);
+        this.urlBase = gutendex.urlBase();
+    }
+
+    @Scheduled(initialDelayString = "${literatura.descargas.retraso-inicial:10m}",
+            fixedDelayString = "${literatura.descargas.intervalo:12h}")
+    public void actualizarPeriodicamente() {
+        if (habilitada) {
+            var resumen = actualizar();
+            log.info("Descargas actualizadas: {} de {} libros en {} s.", resumen.librosCambiados(),
+                    resumen.librosRevisados(), resumen.duracion().toSeconds());
+        }
+    }
+
+    /**
+     * Recorre todos los libros con id de Gutendex. Una sola actualización a la vez:
+     * si ya hay una en curso, la llamada espera a que termine.
+     */
+
+    public synchronized ResumenActualizacion actualizar() {
+        Instant inicio = Instant.now();
+        AtomicInteger revisados = new AtomicInteger();
+        AtomicInteger fallidas = new AtomicInteger();
+        Cambios cambios = new Cambios();
+
+        Semaphore permisos = new Semaphore(concurrencia);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long ultimoId = 0;
+            List<LibroGuardado> lote;
+            do {
+                // Paginación keyset sobre la clave primaria: cada lote es una petición a la API
+                lote = jdbcTemplate.query(LEER_LIBROS, (fila, numero) -> new LibroGuardado(
+                                fila.getLong("id"), fila.getLong("id_gutendex"), fila.getLong("numero_de_descargas")),
+                        ultimoId, IDS_POR_PETICION);
+                if (lote.isEmpty()) {
+                    break;
+                }
+                ultimoId = lote.get(lote.size() - 1).id();
+                final List<LibroGuardado> libros = lote;
+                permisos.acquireUninterruptibly();
+                executor.submit(() -> {
+                    try {
+                        revisar(libros, cambios);
+                        revisados.addAndGet(libros.size());
+                    } catch (RuntimeException e) {
+                        fallidas.incrementAndGet();
+                        log.warn("Falló la actualización de descargas de un lote: {}", e.getMessage());
+                    } finally {
+                        permisos.release();
+                    }
+                });
+            } while (lote.size() == IDS_POR_PETICION);
+        }
+        cambios.escribir();
+
+        return new ResumenActualizacion(revisados.get(), cambios.escritos(), fallidas.get(),
+                Duration.between(inicio, Instant.now()));
+    }
+
+    private void revisar(List<LibroGuardado> libros, Cambios cambios) {
+        String ids = libros.stream()
+                .map(libro -> Long.toString(libro.idGutendex()))
+                .collect(Collectors.joining(","));
+        limitador.esperarTurno();
+        Map<Long, Long> descargas = new HashMap<>();
+        conversor.recorrerResultados(consumoAPI.obtenerFlujo(urlBase + "?ids=" + ids, false), datosLibro -> {
+            if (datosLibro.idGutendex() != null && datosLibro.numeroDeDescargas() != null) {
+                descargas.put(datosLibro.idGutendex(), datosLibro.numeroDeDescargas());
+            }
+        });
+        for (LibroGuardado libro : libros) {
+            Long nuevas = descargas.get(libro.idGutendex());
+            if (nuevas != null && nuevas != libro.descargas()) {
+                cambios.agregar(new LibroGuardado(libro.id(), libro.idGutendex(), nuevas));
+            }
+        }
+    }
+
+    /**
+     * Acumula los cambios de todos los lotes y los escribe en bloques de {@link #TAMANO_LOTE}.
+     * Después de cada bloque se leen los libros cambiados, con sus autores e idiomas, para
+     * avisar a la clasificación.
+     */
+
+    private final class Cambios {
+        private final List<LibroGuardado> pendientes = new ArrayList<>();
+        private int escritos;
+
+        synchronized void agregar(LibroGuardado libro) {
+            pendientes.add(libro);
+            if (pendientes.size() >= TAMANO_LOTE) {
+                escribir();
+            }
+        }
+
+        synchronized void escribir() {
+            if (pendientes.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(ACTUALIZAR_DESCARGAS, pendientes, pendientes.size(), (ps, libro) -> {
+                ps.setLong(1, libro.descargas());
+                ps.setLong(2, libro.id());
+            });
+            List<RankingDescargas.Posicion> posiciones = libroRepository.findByIdIn(pendientes.stream().map(LibroGuardado::id).toList())
+                    .stream()
+                    .map(RankingDescargas.Posicion::de)
+                    .toList();
+            eventos.publishEvent(new DescargasActualizadasEvento(posiciones));
+            escritos += pendientes.size();
+            pendientes.clear();
+        }
+
+        synchronized int escritos() {
+            return escritos;
+        }
+    }
+}
\ No newline at end of file
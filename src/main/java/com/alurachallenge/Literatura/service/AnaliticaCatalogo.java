@@ -0,0 +1,429 @@
+package com.alurachallenge.Literatura.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Análisis del catálogo completo en memoria, sin una consulta GROUP BY por cada pregunta.
+ * El catálogo se carga una vez en columnas de tipos primitivos: las descargas de cada libro,
+ * sus idiomas y autores en listas compactas y los años de nacimiento y fallecimiento de cada
+ * autor. Los cálculos recorren esas columnas en paralelo con el pool fork/join común, por
+ * tramos cuyos resultados se combinan después. Cuando se registran libros o cambian las
+ * descargas, la copia se vuelve a cargar en la siguiente consulta.
+ *
+ * <p>Para las distribuciones por idioma se ordenan una sola vez claves que combinan el idioma
+ * y las descargas de cada libro: cada idioma queda en un tramo contiguo y ordenado del que
+ * salen directamente los percentiles y el histograma.
+ */
+
+@Service
+public class AnaliticaCatalogo {
+    /**
+     * Rangos del histograma de descargas: los libros sin descargas y después un orden de magnitud por cubeta.
+     */
+
+    public static final List<String> CUBETAS = List.of("0", "1-9", "10-99", "100-999", "1k-9k", "10k-99k", "100k-999k", "1M+");
+
+    static final int SIN_ANIO = Integer.MIN_VALUE;
+
+    private static final long[] LIMITES_CUBETAS = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final int BITS_DESCARGAS = 40;
+    private static final long MASCARA_DESCARGAS = (1L << BITS_DESCARGAS) - 1;
+    // Siglos del -4000 al 2199, el mismo intervalo que IndiceVidaAutores; caben en una máscara de 64 bits
+    private static final int SIGLO_MINIMO = -40;
+    private static final int SIGLO_MAXIMO = 21;
+    private static final int SIGLOS = SIGLO_MAXIMO - SIGLO_MINIMO + 1;
+    private static final int TAMANO_TRAMO = 16_384;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate lectura;
+    private volatile Columnas columnas;
+    private volatile boolean desactualizada = true;
+
+    public record Resumen(int libros, int autores, int idiomas, long descargasTotales, long minimo, long maximo,
+                          double media, double desviacion, int librosSinAutor, int librosSinIdioma,
+                          double edadMediaAlFallecer) {}
+
+    /**
+     * Distribución de las descargas de los libros de un idioma, o de todo el catálogo si el idioma es nulo.
+     * El histograma tiene una posición por cada rango de {@link #CUBETAS}.
+     */
+
+    public record Distribucion(String idioma, int libros, long p50, long p90, long p99, long maximo,
+                               List<Integer> histograma) {}
+
+    /**
+     * Libros con algún autor nacido en el siglo que empieza en el año {@code desde}.
+     * Un libro con autores de dos siglos cuenta en los dos.
+     */
+
+    public record Siglo(int desde, int libros) {}
+
+    public record Informe(Resumen resumen, Distribucion global, List<Distribucion> porIdioma, List<Siglo> porSiglo,
+                          int librosSinNacimiento, Instant cargado, Duration carga, Duration calculo) {}
+
+    /**
+     * Copia del catálogo por columnas. Los idiomas y autores del libro i van de {@code inicio[i]}
+     * a {@code inicio[i + 1]} y son posiciones en {@code codigos} y en los años de los autores.
+     */
+
+    record Columnas(long[] descargas, int[] inicioIdiomas, int[] idiomasDeLibro, String[] codigos,
+                    int[] inicioAutores, int[] autoresDeLibro, int[] nacimientos, int[] fallecimientos,
+                    Instant cargada, Duration carga) {}
+
+    private record Listas(int[] inicio, int[] valores) {}
+
+    // Resultado parcial del resumen; la media y la varianza se combinan con la fórmula de Chan
+    private record Parcial(long libros, double media, double m2, long total, long minimo, long maximo,
+                           int sinAutor, int sinIdioma) {
+        Parcial combinar(Parcial otro) {
+            if (otro.libros == 0) {
+                return this;
+            }
+            if (libros == 0) {
+                return otro;
+            }
+            long suma = libros + otro.libros;
+            double delta = otro.media - media;
+            return new Parcial(suma, media + delta * otro.libros / suma,
+                    m2 + otro.m2 + delta * delta * libros * otro.libros / suma, total + otro.total,
+                    Math.min(minimo, otro.minimo), Math.max(maximo, otro.maximo),
+                    sinAutor + otro.sinAutor, sinIdioma + otro.sinIdioma);
+        }
+    }
+
+    public AnaliticaCatalogo(JdbcTemplate jdbcTemplate, PlatformTransactionManager transacciones) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Las cinco lecturas de la carga ven el mismo estado de la base de datos
+        this.lectura = new TransactionTemplate(transacciones);
+        lectura.setReadOnly(true);
+        lectura.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alRegistrarLibros(LibrosRegistradosEvento evento) {
+        desactualizada = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alActualizarDescargas(DescargasActualizadasEvento evento) {
+        desactualizada = true;
+    }
+
+    /**
+     * Calcula el resumen, las distribuciones de descargas y los libros por siglo de nacimiento
+     * de los autores, cargando antes el catálogo si no está en memoria o cambió.
+     */
+
+    public Informe informe() {
+        return calcular(columnas());
+    }
+
+    private Columnas columnas() {
+        Columnas actuales = columnas;
+        if (actuales == null || desactualizada) {
+            synchronized (this) {
+                if (columnas == null || desactualizada) {
+                    // Se marca antes de cargar para que un cambio durante la carga obligue a repetirla
+                    desactualizada = false;
+                    columnas = cargar();
+                }
+                actuales = columnas;
+            }
+        }
+        return actuales;
+    }
+
+    private Columnas cargar() {
+        return lectura.execute(estado -> {
+            Instant inicio = Instant.now();
+            LongStream.Builder idsAutores = LongStream.builder();
+            IntStream.Builder nacimientos = IntStream.builder();
+            IntStream.Builder fallecimientos = IntStream.builder();
+            jdbcTemplate.query("SELECT id, fecha_de_nacimiento, fecha_de_fallecimiento FROM autores ORDER BY id", fila -> {
+                idsAutores.add(fila.getLong(1));
+                nacimientos.add(anio(fila, 2));
+                fallecimientos.add(anio(fila, 3));
+            });
+            LongStream.Builder idsIdiomas = LongStream.builder();
+            List<String> codigos = new ArrayList<>();
+            jdbcTemplate.query("SELECT id, codigo FROM idiomas ORDER BY id", fila -> {
+                idsIdiomas.add(fila.getLong(1));
+                codigos.add(fila.getString(2));
+            });
+            LongStream.Builder idsLibros = LongStream.builder();
+            LongStream.Builder descargas = LongStream.builder();
+            jdbcTemplate.query("SELECT id, numero_de_descargas FROM libros ORDER BY id", fila -> {
+                idsLibros.add(fila.getLong(1));
+                descargas.add(fila.getLong(2));
+            });
+
+            long[] libros = idsLibros.build().toArray();
+            Listas idiomas = cargarListas("SELECT libro_id, idioma_id FROM libros_idiomas ORDER BY libro_id, posicion",
+                    libros, idsIdiomas.build().toArray());
+            Listas autores = cargarListas("SELECT libro_id, autor_id FROM libros_autores ORDER BY libro_id, posicion",
+                    libros, idsAutores.build().toArray());
+            return new Columnas(descargas.build().toArray(), idiomas.inicio(), idiomas.valores(),
+                    codigos.toArray(String[]::new), autores.inicio(), autores.valores(),
+                    nacimientos.build().toArray(), fallecimientos.build().toArray(),
+                    inicio, Duration.between(inicio, Instant.now()));
+        });
+    }
+
+    // Las filas llegan ordenadas por libro, así que los valores ya quedan agrupados en el orden de los libros
+    private Listas cargarListas(String sql, long[] idsLibros, long[] idsOtros) {
+        int[] inicio = new int[idsLibros.length + 1];
+        IntStream.Builder valores = IntStream.builder();
+        jdbcTemplate.query(sql, fila -> {
+            int libro = Arrays.binarySearch(idsLibros, fila.getLong(1));
+            int otro = Arrays.binarySearch(idsOtros, fila.getLong(2));
+            // Una fila de un libro o autor registrado durante la carga se ignora
+            if (libro >= 0 && otro >= 0) {
+                inicio[libro + 1]++;
+                valores.add(otro);
+            }
+        });
+        Arrays.parallelPrefix(inicio, Integer::sum);
+        return new Listas(inicio, valores.build().toArray());
+    }
+
+    private static int anio(ResultSet fila, int columna) throws SQLException {
+        int anio = fila.getInt(columna);
+        return fila.wasNull() ? SIN_ANIO : anio;
+    }
+
+    static Informe calcular(Columnas columnas) {
+        Instant inicio = Instant.now();
+        Resumen resumen = resumen(columnas);
+        List<Distribucion> distribuciones = distribuciones(columnas);
+        int[] siglos = librosPorSiglo(columnas);
+
+        List<Siglo> porSiglo = new ArrayList<>();
+        for (int siglo = 0; siglo < SIGLOS; siglo++) {
+            if (siglos[siglo] > 0) {
+                porSiglo.add(new Siglo((siglo + SIGLO_MINIMO) * 100, siglos[siglo]));
+            }
+        }
+        List<Distribucion> porIdioma = distribuciones.subList(0, columnas.codigos().length).stream()
+                .filter(distribucion -> distribucion.libros() > 0)
+                .sorted(Comparator.comparingInt(Distribucion::libros).reversed().thenComparing(Distribucion::idioma))
+                .toList();
+        return new Informe(resumen, distribuciones.get(columnas.codigos().length), porIdioma, porSiglo,
+                siglos[SIGLOS], columnas.cargada(), columnas.carga(), Duration.between(inicio, Instant.now()));
+    }
+
+    private static Resumen resumen(Columnas columnas) {
+        long[] descargas = columnas.descargas();
+        Parcial parcial = enParalelo(descargas.length, (desde, hasta) -> {
+            double media = 0;
+            double m2 = 0;
+            long total = 0;
+            long minimo = Long.MAX_VALUE;
+            long maximo = Long.MIN_VALUE;
+            int sinAutor = 0;
+            int sinIdioma = 0;
+            for (int libro = desde; libro < hasta; libro++) {
+                long valor = descargas[libro];
+                // Algoritmo de Welford dentro del tramo
+                double delta = valor - media;
+                media += delta / (libro - desde + 1);
+                m2 += delta * (valor - media);
+                total += valor;
+                minimo = Math.min(minimo, valor);
+                maximo = Math.max(maximo, valor);
+                if (columnas.inicioAutores()[libro] == columnas.inicioAutores()[libro + 1]) {
+                    sinAutor++;
+                }
+                if (columnas.inicioIdiomas()[libro] == columnas.inicioIdiomas()[libro + 1]) {
+                    sinIdioma++;
+                }
+            }
+            return new Parcial(hasta - desde, media, m2, total, minimo, maximo, sinAutor, sinIdioma);
+        }, Parcial::combinar);
+
+        int[] nacimientos = columnas.nacimientos();
+        int[] fallecimientos = columnas.fallecimientos();
+        long[] vidas = enParalelo(nacimientos.length, (desde, hasta) -> {
+            long autores = 0;
+            long anios = 0;
+            for (int autor = desde; autor < hasta; autor++) {
+                if (nacimientos[autor] != SIN_ANIO && fallecimientos[autor] != SIN_ANIO) {
+                    autores++;
+                    anios += fallecimientos[autor] - nacimientos[autor];
+                }
+            }
+            return new long[]{autores, anios};
+        }, (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]});
+
+        boolean vacio = parcial.libros() == 0;
+        return new Resumen((int) parcial.libros(), nacimientos.length, columnas.codigos().length, parcial.total(),
+                vacio ? 0 : parcial.minimo(), vacio ? 0 : parcial.maximo(), parcial.media(),
+                vacio ? 0 : Math.sqrt(parcial.m2() / parcial.libros()), parcial.sinAutor(), parcial.sinIdioma(),
+                vidas[0] == 0 ? 0 : (double) vidas[1] / vidas[0]);
+    }
+
+    // Una distribución por idioma, en el orden de los códigos, y al final la de todo el catálogo
+    private static List<Distribucion> distribuciones(Columnas columnas) {
+        long[] descargas = columnas.descargas();
+        int[] inicioIdiomas = columnas.inicioIdiomas();
+        int[] idiomasDeLibro = columnas.idiomasDeLibro();
+        int global = columnas.codigos().length;
+        int libros = descargas.length;
+
+        // Cada libro escribe sus claves en posiciones propias, así que el relleno se reparte sin bloqueos
+        long[] claves = new long[idiomasDeLibro.length + libros];
+        enParalelo(libros, (desde, hasta) -> {
+            for (int libro = desde; libro < hasta; libro++) {
+                long valor = Math.min(Math.max(descargas[libro], 0), MASCARA_DESCARGAS);
+                for (int i = inicioIdiomas[libro]; i < inicioIdiomas[libro + 1]; i++) {
+                    claves[i] = clave(idiomasDeLibro[i], valor);
+                }
+                claves[idiomasDeLibro.length + libro] = clave(global, valor);
+            }
+            return null;
+        }, (a, b) -> null);
+        Arrays.parallelSort(claves);
+
+        return IntStream.rangeClosed(0, global).parallel()
+                .mapToObj(idioma -> distribucion(claves, idioma, idioma == global ? null : columnas.codigos()[idioma]))
+                .toList();
+    }
+
+    private static Distribucion distribucion(long[] claves, int idioma, String codigo) {
+        int desde = primeraNoMenor(claves, clave(idioma, 0));
+        int hasta = primeraNoMenor(claves, clave(idioma + 1, 0));
+        List<Integer> histograma = new ArrayList<>(CUBETAS.size());
+        int anterior = desde;
+        for (long limite : LIMITES_CUBETAS) {
+            int siguiente = primeraNoMenor(claves, clave(idioma, limite), anterior, hasta);
+            histograma.add(siguiente - anterior);
+            anterior = siguiente;
+        }
+        histograma.add(hasta - anterior);
+        return new Distribucion(codigo, hasta - desde, percentil(claves, desde, hasta, 50),
+                percentil(claves, desde, hasta, 90), percentil(claves, desde, hasta, 99),
+                hasta == desde ? 0 : claves[hasta - 1] & MASCARA_DESCARGAS, List.copyOf(histograma));
+    }
+
+    // Percentil por rango más cercano sobre un tramo ordenado
+    private static long percentil(long[] claves, int desde, int hasta, int percentil) {
+        int cantidad = hasta - desde;
+        if (cantidad == 0) {
+            return 0;
+        }
+        int rango = (int) Math.ceil(percentil / 100.0 * cantidad);
+        return claves[desde + Math.max(rango - 1, 0)] & MASCARA_DESCARGAS;
+    }
+
+    // Devuelve un arreglo con los libros de cada siglo y, en la última posición, los que no tienen ningún nacimiento conocido
+    private static int[] librosPorSiglo(Columnas columnas) {
+        int[] inicioAutores = columnas.inicioAutores();
+        int[] autoresDeLibro = columnas.autoresDeLibro();
+        int[] nacimientos = columnas.nacimientos();
+        return enParalelo(columnas.descargas().length, (desde, hasta) -> {
+            int[] conteo = new int[SIGLOS + 1];
+            for (int libro = desde; libro < hasta; libro++) {
+                // Un bit por siglo, para no contar dos veces un libro con dos autores del mismo siglo
+                long siglos = 0;
+                for (int i = inicioAutores[libro]; i < inicioAutores[libro + 1]; i++) {
+                    int nacimiento = nacimientos[autoresDeLibro[i]];
+                    if (nacimiento != SIN_ANIO) {
+                        siglos |= 1L << siglo(nacimiento);
+                    }
+                }
+                if (siglos == 0) {
+                    conteo[SIGLOS]++;
+                }
+                for (; siglos != 0; siglos &= siglos - 1) {
+                    conteo[Long.numberOfTrailingZeros(siglos)]++;
+                }
+            }
+            return conteo;
+        }, (a, b) -> {
+            for (int i = 0; i < a.length; i++) {
+                a[i] += b[i];
+            }
+            return a;
+        });
+    }
+
+    private static int siglo(int anio) {
+        return Math.max(SIGLO_MINIMO, Math.min(SIGLO_MAXIMO, Math.floorDiv(anio, 100))) - SIGLO_MINIMO;
+    }
+
+    private static long clave(int idioma, long descargas) {
+        return ((long) idioma << BITS_DESCARGAS) | descargas;
+    }
+
+    private static int primeraNoMenor(long[] claves, long buscada) {
+        return primeraNoMenor(claves, buscada, 0, claves.length);
+    }
+
+    private static int primeraNoMenor(long[] claves, long buscada, int desde, int hasta) {
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            if (claves[medio] < buscada) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde;
+    }
+
+    @FunctionalInterface
+    private interface Tramo<R> {
+        R calcular(int desde, int hasta);
+    }
+
+    // Reparte [0, total) en tramos que se calculan en paralelo y combina los resultados por parejas
+    private static <R> R enParalelo(int total, Tramo<R> tramo, BinaryOperator<R> combinar) {
+        return ForkJoinPool.commonPool().invoke(new Reparto<>(0, total, tramo, combinar));
+    }
+
+    // ForkJoinTask es Serializable, pero los tramos nunca se serializan
+    @SuppressWarnings("serial")
+    private static final class Reparto<R> extends RecursiveTask<R> {
+        private final int desde;
+        private final int hasta;
+        private final Tramo<R> tramo;
+        private final BinaryOperator<R> combinar;
+
+        Reparto(int desde, int hasta, Tramo<R> tramo, BinaryOperator<R> combinar) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.tramo = tramo;
+            this.combinar = combinar;
+        }
+
+        @Override
+        protected R compute() {
+            if (hasta - desde <= TAMANO_TRAMO) {
+                return tramo.calcular(desde, hasta);
+            }
+            int medio = (desde + hasta) >>> 1;
+            Reparto<R> izquierda = new Reparto<>(desde, medio, tramo, combinar);
+            izquierda.fork();
+            R derecha = new Reparto<>(medio, hasta, tramo, combinar).compute();
+            return combinar.apply(izquierda.join(), derecha);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,434 @@
+package com.alurachallenge.Literatura.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché de respuestas de Gutendex con dos niveles, indexada por la URL normalizada.
+ * El primer nivel es un LRU en memoria limitado en número de entradas; el segundo es un
+ * registro en disco de solo anexado, con los cuerpos comprimidos con gzip, que sobrevive
+ * a los reinicios. Ambos niveles descartan las entradas más antiguas que el TTL.
+ *
+ * <p>La memoria tiene su propio monitor y nunca espera al disco. Las lecturas y los anexados
+ * al registro comparten un cerrojo de lectura (las escrituras reservan su posición al final del
+ * archivo), y solo la compactación lo toma en exclusiva: cuando el registro supera
+ * {@code literatura.cache.umbral-compactacion} se reescribe sin las entradas vencidas ni reemplazadas.
+ */
+
+@Service
+public class CacheRespuestas implements MeterBinder {
+    private static final int MAGICO = 0x4C434131; // "LCA1"
+
+    private final boolean habilitada;
+    private final Duration ttl;
+    private final Path archivo;
+    private final Clock reloj;
+    private final long umbralCompactacion;
+
+    private final Map<String, Entrada> memoria;
+    private final Map<String, Ubicacion> indiceDisco = new ConcurrentHashMap<>();
+    private final ReadWriteLock disco = new ReentrantReadWriteLock();
+    private final AtomicBoolean compactando = new AtomicBoolean();
+    private FileChannel canal;
+    // Final del registro: cada anexado reserva aquí su posición
+    private final AtomicLong fin = new AtomicLong();
+    private final AtomicLong bytesVivos = new AtomicLong();
+    private volatile long proximaCompactacion;
+
+    private final AtomicLong aciertosMemoria = new AtomicLong();
+    private final AtomicLong aciertosDisco = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+
+    private record Entrada(byte[] cuerpo, long guardadoEn) {}
+
+    private record Ubicacion(long posicion, int longitud, long guardadoEn) {}
+
+    public record Estadisticas(long aciertosMemoria, long aciertosDisco, long fallos,
+                               int entradasMemoria, int entradasDisco) {
+        public double tasaDeAciertos() {
+            long total = aciertosMemoria + aciertosDisco + fallos;
+            return total == 0 ? 0 : (double) (aciertosMemoria + aciertosDisco) / total;
+        }
+    }
+
+    @Autowired
+    public CacheRespuestas(@Value("${literatura.cache.habilitada:true}") boolean habilitada,
+                           @Value("${literatura.cache.max-entradas-memoria:500}") int maxEntradasMemoria,
+                           @Value("${literatura.cache.ttl:6h}") Duration ttl,
+                           @Value("${literatura.cache.archivo:cache-respuestas.log}") String archivo,
+                           @Value("${literatura.cache.umbral-compactacion:64MB}") DataSize umbralCompactacion) {
+        this(habilitada, maxEntradasMemoria, ttl, Path.of(archivo), Clock.systemUTC(), umbralCompactacion.toBytes());
+    }
+
+    CacheRespuestas(boolean habilitada, int maxEntradasMemoria, Duration ttl, Path archivo, Clock reloj,
+                    long umbralCompactacion) {
+        this.habilitada = habilitada;
+        this.ttl = ttl;
+        this.archivo = archivo;
+        this.reloj = reloj;
+        this.umbralCompactacion = umbralCompactacion;
+        this.proximaCompactacion = umbralCompactacion;
+        // LinkedHashMap en orden de acceso: la entrada mayor es la usada hace más tiempo
+        this.memoria = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> mayor) {
+                return size() > maxEntradasMemoria;
+            }
+        };
+        if (habilitada) {
+            abrirRegistro();
+        }
+    }
+
+    /**
+     * Devuelve el cuerpo guardado para la URL, buscando primero en memoria y después en disco.
+     */
+
+    public Optional<byte[]> obtener(String url) {
+        if (!habilitada) {
+            return Optional.empty();
+        }
+        String clave = normalizar(url);
+        long ahora = reloj.millis();
+        synchronized (memoria) {
+            Entrada entrada = memoria.get(clave);
+            if (entrada != null) {
+                if (vigente(entrada.guardadoEn(), ahora)) {
+                    aciertosMemoria.incrementAndGet();
+                    return Optional.of(entrada.cuerpo());
+                }
+                memoria.remove(clave);
+            }
+        }
+        byte[] cuerpo = null;
+        long guardadoEn = 0;
+        disco.readLock().lock();
+        try {
+            Ubicacion ubicacion = indiceDisco.get(clave);
+            if (ubicacion != null) {
+                if (vigente(ubicacion.guardadoEn(), ahora)) {
+                    cuerpo = leerDeDisco(ubicacion);
+                    guardadoEn = ubicacion.guardadoEn();
+                } else if (indiceDisco.remove(clave, ubicacion)) {
+                    bytesVivos.addAndGet(-ubicacion.longitud());
+                }
+            }
+        } finally {
+            disco.readLock().unlock();
+        }
+        if (cuerpo == null) {
+            fallos.incrementAndGet();
+            return Optional.empty();
+        }
+        synchronized (memoria) {
+            memoria.put(clave, new Entrada(cuerpo, guardadoEn));
+        }
+        aciertosDisco.incrementAndGet();
+        return Optional.of(cuerpo);
+    }
+
+    public void guardar(String url, byte[] cuerpo) {
+        if (!habilitada) {
+            return;
+        }
+        String clave = normalizar(url);
+        long ahora = reloj.millis();
+        byte[] registro = codificar(clave, ahora, cuerpo);
+        synchronized (memoria) {
+            memoria.put(clave, new Entrada(cuerpo, ahora));
+        }
+        disco.readLock().lock();
+        try {
+            long posicion = fin.getAndAdd(registro.length);
+            escribirCompleto(canal, ByteBuffer.wrap(registro), posicion);
+            Ubicacion anterior = indiceDisco.put(clave, new Ubicacion(posicion, registro.length, ahora));
+            bytesVivos.addAndGet(registro.length - (anterior == null ? 0 : anterior.longitud()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            disco.readLock().unlock();
+        }
+        if (fin.get() > proximaCompactacion && compactando.compareAndSet(false, true)) {
+            try {
+                compactarEnExclusiva();
+            } finally {
+                compactando.set(false);
+            }
+        }
+    }
+
+    public Estadisticas estadisticas() {
+        int entradasMemoria;
+        synchronized (memoria) {
+            entradasMemoria = memoria.size();
+        }
+        return new Estadisticas(aciertosMemoria.get(), aciertosDisco.get(), fallos.get(), entradasMemoria, indiceDisco.size());
+    }
+
+    /**
+     * Tamaño actual del registro en disco, incluidas las entradas vencidas o reemplazadas.
+     */
+
+    long bytesEnDisco() {
+        return fin.get();
+    }
+
+    /**
+     * Publica los aciertos, fallos y entradas de cada nivel como métricas de Micrometer.
+     */
+
+    @Override
+    public void bindTo(MeterRegistry registro) {
+        FunctionCounter.builder("literatura.cache.aciertos", aciertosMemoria, AtomicLong::get)
+                .tag("nivel", "memoria").register(registro);
+        FunctionCounter.builder("literatura.cache.aciertos", aciertosDisco, AtomicLong::get)
+                .tag("nivel", "disco").register(registro);
+        FunctionCounter.builder("literatura.cache.fallos", fallos, AtomicLong::get).register(registro);
+        Gauge.builder("literatura.cache.entradas", this, cache -> cache.estadisticas().entradasMemoria())
+                .tag("nivel", "memoria").register(registro);
+        Gauge.builder("literatura.cache.entradas", this, cache -> cache.estadisticas().entradasDisco())
+                .tag("nivel", "disco").register(registro);
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        disco.writeLock().lock();
+        try {
+            if (canal != null) {
+                canal.force(false);
+                canal.close();
+            }
+        } finally {
+            disco.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Normaliza la URL para que peticiones equivalentes compartan entrada: esquema y host en
+     * minúsculas, parámetros ordenados y el término de búsqueda sin mayúsculas ni espacios sobrantes.
+     */
+
+    static String normalizar(String url) {
+        URI uri = URI.create(url.trim());
+        StringBuilder clave = new StringBuilder();
+        clave.append(uri.getScheme() == null ? "" : uri.getScheme().toLowerCase())
+                .append("://")
+                .append(uri.getHost() == null ? "" : uri.getHost().toLowerCase());
+        if (uri.getPort() != -1) {
+            clave.append(':').append(uri.getPort());
+        }
+        clave.append(uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath());
+        String consulta = uri.getRawQuery();
+        if (consulta != null && !consulta.isBlank()) {
+            String[] parametros = Arrays.stream(consulta.split("&"))
+                    .filter(parametro -> !parametro.isBlank())
+                    .map(CacheRespuestas::normalizarParametro)
+                    .sorted()
+                    .toArray(String[]::new);
+            clave.append('?').append(String.join("&", parametros));
+        }
+        return clave.toString();
+    }
+
+    private static String normalizarParametro(String parametro) {
+        int igual = parametro.indexOf('=');
+        String nombre = URLDecoder.decode(igual < 0 ? parametro : parametro.substring(0, igual), StandardCharsets.UTF_8);
+        String valor = igual < 0 ? "" : URLDecoder.decode(parametro.substring(igual + 1), StandardCharsets.UTF_8);
+        valor = valor.trim().replaceAll("\\s+", " ");
+        if (nombre.equals("search")) {
+            valor = valor.toLowerCase();
+        }
+        return URLEncoder.encode(nombre, StandardCharsets.UTF_8) + "=" + URLEncoder.encode(valor, StandardCharsets.UTF_8);
+    }
+
+    private boolean vigente(long guardadoEn, long ahora) {
+        return ahora - guardadoEn <= ttl.toMillis();
+    }
+
+    // Formato de cada registro: mágico, longitud total, marca de tiempo, clave y cuerpo gzip
+    private static byte[] codificar(String clave, long guardadoEn, byte[] cuerpo) {
+        byte[] claveBytes = clave.getBytes(StandardCharsets.UTF_8);
+        byte[] comprimido = comprimir(cuerpo);
+        int longitud = 4 + 4 + 8 + 4 + claveBytes.length + 4 + comprimido.length;
+        return ByteBuffer.allocate(longitud)
+                .putInt(MAGICO)
+                .putInt(longitud)
+                .putLong(guardadoEn)
+                .putInt(claveBytes.length).put(claveBytes)
+                .putInt(comprimido.length).put(comprimido)
+                .array();
+    }
+
+    private byte[] leerDeDisco(Ubicacion ubicacion) {
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(ubicacion.longitud());
+            leerCompleto(canal, buffer, ubicacion.posicion());
+            buffer.flip();
+            buffer.position(16);
+            int longitudClave = buffer.getInt();
+            buffer.position(buffer.position() + longitudClave);
+            byte[] comprimido = new byte[buffer.getInt()];
+            buffer.get(comprimido);
+            return descomprimir(comprimido);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reconstruye el índice recorriendo el registro. Un registro incompleto al final (por ejemplo,
+     * tras un cierre abrupto) se descarta, y si la mayor parte del archivo son entradas viejas
+     * o reemplazadas, o si supera el umbral, se reescribe compactado.
+     */
+
+    private void abrirRegistro() {
+        try {
+            canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long ahora = reloj.millis();
+            long posicion = 0;
+            long tamano = canal.size();
+            ByteBuffer cabecera = ByteBuffer.allocate(20);
+            while (posicion + 20 <= tamano) {
+                cabecera.clear();
+                canal.read(cabecera, posicion);
+                cabecera.flip();
+                int longitud = cabecera.getInt(4);
+                if (cabecera.getInt(0) != MAGICO || longitud < 24 || posicion + longitud > tamano) {
+                    break;
+                }
+                long guardadoEn = cabecera.getLong(8);
+                byte[] claveBytes = new byte[cabecera.getInt(16)];
+                canal.read(ByteBuffer.wrap(claveBytes), posicion + 20);
+                String clave = new String(claveBytes, StandardCharsets.UTF_8);
+                Ubicacion anterior = indiceDisco.remove(clave);
+                if (anterior != null) {
+                    bytesVivos.addAndGet(-anterior.longitud());
+                }
+                if (vigente(guardadoEn, ahora)) {
+                    indiceDisco.put(clave, new Ubicacion(posicion, longitud, guardadoEn));
+                    bytesVivos.addAndGet(longitud);
+                }
+                posicion += longitud;
+            }
+            canal.truncate(posicion);
+            fin.set(posicion);
+            if (posicion > proximaCompactacion || (posicion > 1024 * 1024 && bytesVivos.get() < posicion / 2)) {
+                compactar();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void compactarEnExclusiva() {
+        disco.writeLock().lock();
+        try {
+            if (fin.get() > proximaCompactacion && canal.isOpen()) {
+                compactar();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            disco.writeLock().unlock();
+        }
+    }
+
+    // Se llama sin otros hilos en el disco: al abrir el registro o con el cerrojo de escritura
+    private void compactar() throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        Map<String, Ubicacion> compactado = new HashMap<>();
+        long ahora = reloj.millis();
+        long posicion = 0;
+        try (FileChannel destino = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<String, Ubicacion> entrada : indiceDisco.entrySet()) {
+                Ubicacion ubicacion = entrada.getValue();
+                if (!vigente(ubicacion.guardadoEn(), ahora)) {
+                    continue;
+                }
+                ByteBuffer registro = ByteBuffer.allocate(ubicacion.longitud());
+                leerCompleto(canal, registro, ubicacion.posicion());
+                registro.flip();
+                escribirCompleto(destino, registro, posicion);
+                compactado.put(entrada.getKey(), new Ubicacion(posicion, ubicacion.longitud(), ubicacion.guardadoEn()));
+                posicion += ubicacion.longitud();
+            }
+            destino.force(true);
+        }
+        canal.close();
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indiceDisco.clear();
+        indiceDisco.putAll(compactado);
+        fin.set(posicion);
+        bytesVivos.set(posicion);
+        // Si casi todo sigue vigente, se espera a que el registro vuelva a crecer antes de repetir
+        proximaCompactacion = Math.max(umbralCompactacion, 2 * posicion);
+    }
+
+    private static void leerCompleto(FileChannel canal, ByteBuffer buffer, long posicion) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer, posicion + buffer.position()) < 0) {
+                throw new IOException("El registro de la caché termina antes de lo esperado.");
+            }
+        }
+    }
+
+    private static void escribirCompleto(FileChannel canal, ByteBuffer buffer, long posicion) throws IOException {
+        while (buffer.hasRemaining()) {
+            canal.write(buffer, posicion + buffer.position());
+        }
+    }
+
+    private static byte[] comprimir(byte[] datos) {
+        var salida = new ByteArrayOutputStream(Math.max(64, datos.length / 4));
+        try (var gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    private static byte[] descomprimir(byte[] datos) throws IOException {
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(datos))) {
+            return gzip.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.alurachallenge.Literatura.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dirección base de la API de Gutendex ({@code literatura.gutendex.url-base}), compartida por
+ * todos los servicios que la consultan. Las pruebas de carga la apuntan a un servidor falso.
+ */
+
+@Component
+public class ConfiguracionGutendex {
+    private final String urlBase;
+
+    public ConfiguracionGutendex(@Value("${literatura.gutendex.url-base:https://gutendex.com/books/}") String urlBase) {
+        this.urlBase = urlBase;
+    }
+
+    public String urlBase() {
+        return urlBase;
+    }
+}
\ No newline at end of file
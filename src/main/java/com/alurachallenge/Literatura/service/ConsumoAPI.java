@@ -1,27 +1,427 @@
 package com.alurachallenge.Literatura.service;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Cliente HTTP de la API de Gutendex.
+ * Usa un único {@link HttpClient} compartido (HTTP/2 y conexiones reutilizables)
+ * y pide las respuestas comprimidas con gzip. Si hay una {@link CacheRespuestas},
+ * las respuestas correctas se guardan en ella y se sirven desde ahí mientras sigan vigentes.
+ * Cada petición se mide con {@code literatura.http.peticiones} (por origen, red o caché, y por
+ * código de estado) y el tamaño de los cuerpos con {@code literatura.http.bytes}.
+ *
+ * <p>Todas las peticiones pasan por {@link ResilienciaHttp} (reintentos, cobertura y circuito)
+ * y las respuestas que no son 2xx se convierten en {@link ErrorConsultaAPI}. Las peticiones
+ * cacheables simultáneas a la misma URL se agrupan: solo sale una a la red y las demás
+ * reciben una copia de su cuerpo.
+ */
 
+@Service
 public class ConsumoAPI {
+    // Respuestas mayores no se copian a la caché mientras se leen como flujo
+    private static final int MAXIMO_BYTES_EN_CACHE = 4 * 1024 * 1024;
+
+    private final HttpClient client;
+    private final Duration tiempoMaximoPeticion;
+    private final CacheRespuestas cache;
+    private final MeterRegistry registro;
+    private final ResilienciaHttp resiliencia;
+    // Cuerpo de cada petición cacheable en curso; se completa con null si no se pudo copiar
+    private final Map<String, CompletableFuture<byte[]>> enCurso = new ConcurrentHashMap<>();
+
+    public ConsumoAPI() {
+        this(Duration.ofSeconds(5), Duration.ofSeconds(30), null, new CompositeMeterRegistry(), ResilienciaHttp.predeterminada());
+    }
+
+    @Autowired
+    public ConsumoAPI(@Value("${literatura.http.tiempo-conexion:5s}") Duration tiempoMaximoConexion,
+                      @Value("${literatura.http.tiempo-peticion:30s}") Duration tiempoMaximoPeticion,
+                      CacheRespuestas cache, MeterRegistry registro, ResilienciaHttp resiliencia) {
+        this.tiempoMaximoPeticion = tiempoMaximoPeticion;
+        this.cache = cache;
+        this.registro = registro;
+        this.resiliencia = resiliencia;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(tiempoMaximoConexion)
+                .build();
+    }
 
     public String obtenerDatos(String url) {
-        HttpClient client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
+        return new String(esperar(obtenerBytes(url)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Variante no bloqueante de {@link #obtenerDatos(String)}: permite tener muchas
+     * peticiones en curso a la vez sobre el mismo cliente.
+     */
+
+    public CompletableFuture<String> obtenerDatosAsync(String url) {
+        return obtenerBytes(url).thenApply(cuerpo -> new String(cuerpo, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Devuelve el cuerpo de la respuesta como flujo, ya descomprimido, para poder
+     * procesarlo a medida que llega sin guardarlo entero en memoria.
+     * Quien lo llama debe cerrar el flujo.
+     */
+
+    public InputStream obtenerFlujo(String url) {
+        return obtenerFlujo(url, true);
+    }
+
+    /**
+     * Como {@link #obtenerFlujo(String)}, pero permite saltarse la caché en lecturas masivas
+     * que no se van a repetir, como la cosecha del catálogo.
+     */
+
+    public InputStream obtenerFlujo(String url, boolean usarCache) {
+        return esperar(obtenerFlujoAsync(url, usarCache));
+    }
+
+    public CompletableFuture<InputStream> obtenerFlujoAsync(String url) {
+        return obtenerFlujoAsync(url, true);
+    }
+
+    private CompletableFuture<byte[]> obtenerBytes(String url) {
+        Optional<byte[]> guardado = buscarEnCache(url);
+        if (guardado.isPresent()) {
+            return CompletableFuture.completedFuture(guardado.get());
+        }
+        CompletableFuture<byte[]> propia = new CompletableFuture<>();
+        CompletableFuture<byte[]> existente = enCurso.putIfAbsent(url, propia);
+        if (existente != null) {
+            return esperarCompartida(existente)
+                    .thenCompose(cuerpo -> cuerpo != null ? CompletableFuture.completedFuture(cuerpo) : descargarBytes(url));
+        }
+        descargarBytes(url).whenComplete((cuerpo, error) -> {
+            enCurso.remove(url, propia);
+            if (error != null) {
+                propia.completeExceptionally(ResilienciaHttp.comoError(error));
+            } else {
+                propia.complete(cuerpo);
+            }
+        });
+        return propia;
+    }
+
+    private CompletableFuture<byte[]> descargarBytes(String url) {
+        long inicio = System.nanoTime();
+        return resiliencia.ejecutar(() -> client.sendAsync(crearPeticion(url), HttpResponse.BodyHandlers.ofByteArray()), cuerpo -> {})
+                .whenComplete((response, error) -> medirFallo(inicio, error))
+                .thenApply(response -> leerCuerpo(url, response, inicio));
+    }
+
+    private CompletableFuture<InputStream> obtenerFlujoAsync(String url, boolean usarCache) {
+        if (!usarCache) {
+            return descargarFlujo(url, false, null);
+        }
+        Optional<byte[]> guardado = buscarEnCache(url);
+        if (guardado.isPresent()) {
+            return CompletableFuture.completedFuture(new ByteArrayInputStream(guardado.get()));
+        }
+        CompletableFuture<byte[]> propia = new CompletableFuture<>();
+        CompletableFuture<byte[]> existente = enCurso.putIfAbsent(url, propia);
+        if (existente != null) {
+            return esperarCompartida(existente).thenCompose(cuerpo -> cuerpo != null
+                    ? CompletableFuture.completedFuture(new ByteArrayInputStream(cuerpo))
+                    : descargarFlujo(url, true, null));
+        }
+        // El flujo copia el cuerpo mientras se lee y lo comparte con las peticiones agrupadas al terminar
+        return descargarFlujo(url, true, propia).whenComplete((flujo, error) -> {
+            if (error != null) {
+                enCurso.remove(url, propia);
+                propia.completeExceptionally(ResilienciaHttp.comoError(error));
+            }
+        });
+    }
+
+    private CompletableFuture<InputStream> descargarFlujo(String url, boolean usarCache, CompletableFuture<byte[]> compartida) {
+        long inicio = System.nanoTime();
+        return resiliencia.ejecutar(() -> client.sendAsync(crearPeticion(url), HttpResponse.BodyHandlers.ofInputStream()),
+                        ConsumoAPI::cerrar)
+                .whenComplete((response, error) -> medirFallo(inicio, error))
+                .thenApply(response -> abrirCuerpo(url, response, usarCache, compartida, inicio));
+    }
+
+    private CompletableFuture<byte[]> esperarCompartida(CompletableFuture<byte[]> existente) {
+        resiliencia.contar("agrupada");
+        // Si la primera petición no termina a tiempo, cada una sigue por su cuenta
+        return existente.copy().completeOnTimeout(null, tiempoMaximoPeticion.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static <T> T esperar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ErrorConsultaAPI("Se interrumpió la espera de la respuesta de Gutendex.", 0, false, e);
+        } catch (ExecutionException e) {
+            throw ResilienciaHttp.comoError(e.getCause());
+        }
+    }
+
+    private Optional<byte[]> buscarEnCache(String url) {
+        long inicio = System.nanoTime();
+        Optional<byte[]> guardado = cache == null ? Optional.empty() : cache.obtener(url);
+        guardado.ifPresent(cuerpo -> medir("cache", "200", inicio, cuerpo.length));
+        return guardado;
+    }
+
+    private void medir(String origen, String estado, long inicio, long bytes) {
+        Timer.builder("literatura.http.peticiones")
+                .description("Duración de las peticiones a Gutendex hasta leer el cuerpo completo")
+                .tags("origen", origen, "estado", estado)
+                .register(registro)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("literatura.http.bytes")
+                .description("Tamaño de los cuerpos de respuesta, ya descomprimidos")
+                .baseUnit("bytes")
+                .tags("origen", origen)
+                .register(registro)
+                .record(bytes);
+    }
+
+    private void medirFallo(long inicio, Throwable error) {
+        if (error != null) {
+            int estado = ResilienciaHttp.comoError(error).getEstado();
+            medir("red", estado == 0 ? "error" : Integer.toString(estado), inicio, 0);
+        }
+    }
+
+    private HttpRequest crearPeticion(String url) {
+        return HttpRequest.newBuilder()
                 .uri(URI.create(url))
+                .timeout(tiempoMaximoPeticion)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
                 .build();
-        HttpResponse<String> response = null;
+    }
+
+    private InputStream abrirCuerpo(String url, HttpResponse<InputStream> response, boolean usarCache,
+                                    CompletableFuture<byte[]> compartida, long inicio) {
+        InputStream cuerpo = response.body();
+        if (estaComprimido(response)) {
+            try {
+                cuerpo = new GZIPInputStream(cuerpo, 16 * 1024);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        cuerpo = new FlujoMedido(cuerpo, Integer.toString(response.statusCode()), inicio);
+        if (response.statusCode() == 200 && (compartida != null || usarCache && cache != null)) {
+            return new CopiaHaciaCache(cuerpo, url, usarCache, compartida);
+        }
+        if (compartida != null) {
+            enCurso.remove(url, compartida);
+            compartida.complete(null);
+        }
+        return cuerpo;
+    }
+
+    private byte[] leerCuerpo(String url, HttpResponse<byte[]> response, long inicio) {
+        byte[] cuerpo = response.body();
+        if (estaComprimido(response)) {
+            try (var gzip = new GZIPInputStream(new ByteArrayInputStream(cuerpo))) {
+                cuerpo = gzip.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (cache != null && response.statusCode() == 200) {
+            cache.guardar(url, cuerpo);
+        }
+        medir("red", Integer.toString(response.statusCode()), inicio, cuerpo.length);
+        return cuerpo;
+    }
+
+    private static void cerrar(InputStream cuerpo) {
         try {
-            response = client
-                    .send(request, HttpResponse.BodyHandlers.ofString());
-        } catch (IOException | InterruptedException e) {
-            throw new RuntimeException(e);
+            cuerpo.close();
+        } catch (IOException e) {
+            // Es el cuerpo de una respuesta descartada; no hay nada más que hacer con él
+        }
+    }
+
+    private static boolean estaComprimido(HttpResponse<?> response) {
+        return response.headers().firstValue("Content-Encoding")
+                .map(codificacion -> codificacion.equalsIgnoreCase("gzip"))
+                .orElse(false);
+    }
+
+    /**
+     * Cuenta los bytes leídos de un flujo de la red y registra la petición al cerrarlo,
+     * de modo que la duración incluye la lectura del cuerpo.
+     */
+
+    private class FlujoMedido extends FilterInputStream {
+        private final String estado;
+        private final long inicio;
+        private long bytes;
+        private boolean cerrado;
+
+        FlujoMedido(InputStream origen, String estado, long inicio) {
+            super(origen);
+            this.estado = estado;
+            this.inicio = inicio;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int leido = super.read();
+            if (leido != -1) {
+                bytes++;
+            }
+            return leido;
+        }
+
+        @Override
+        public int read(byte[] destino, int desde, int cantidad) throws IOException {
+            int leidos = super.read(destino, desde, cantidad);
+            if (leidos > 0) {
+                bytes += leidos;
+            }
+            return leidos;
         }
 
-        String json = response.body();
-        return json;
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (!cerrado) {
+                    cerrado = true;
+                    medir("red", estado, inicio, bytes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copia lo que se va leyendo del flujo y, al llegar al final, lo guarda en la caché y lo
+     * entrega a las peticiones agrupadas que estaban esperando.
+     * Si la respuesta supera {@link #MAXIMO_BYTES_EN_CACHE} se deja de copiar y no se guarda;
+     * las peticiones agrupadas reciben null y repiten la petición por su cuenta.
+     */
+
+    private class CopiaHaciaCache extends FilterInputStream {
+        private final String url;
+        private final boolean guardarEnCache;
+        private final CompletableFuture<byte[]> compartida;
+        private ByteArrayOutputStream copia = new ByteArrayOutputStream(8 * 1024);
+
+        CopiaHaciaCache(InputStream origen, String url, boolean guardarEnCache, CompletableFuture<byte[]> compartida) {
+            super(origen);
+            this.url = url;
+            this.guardarEnCache = guardarEnCache && cache != null;
+            this.compartida = compartida;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int leido = super.read();
+            if (leido == -1) {
+                terminar();
+            } else if (copia != null) {
+                copia.write(leido);
+                descartarSiExcede();
+            }
+            return leido;
+        }
+
+        @Override
+        public int read(byte[] destino, int desde, int cantidad) throws IOException {
+            int leidos = super.read(destino, desde, cantidad);
+            if (leidos == -1) {
+                terminar();
+            } else if (copia != null) {
+                copia.write(destino, desde, leidos);
+                descartarSiExcede();
+            }
+            return leidos;
+        }
+
+        @Override
+        public long skip(long cantidad) throws IOException {
+            descartar();
+            return super.skip(cantidad);
+        }
+
+        /**
+         * Jackson deja de leer al cerrar el objeto raíz, sin llegar a ver el fin del flujo.
+         * Se consume lo que quede para poder guardar la respuesta y para que el cliente
+         * pueda reutilizar la conexión.
+         */
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (copia != null) {
+                    byte[] resto = new byte[8 * 1024];
+                    while (read(resto, 0, resto.length) != -1) {
+                        // Se descarta: read ya lo copia
+                    }
+                }
+            } finally {
+                descartar();
+                super.close();
+            }
+        }
+
+        private void descartarSiExcede() {
+            if (copia.size() > MAXIMO_BYTES_EN_CACHE) {
+                descartar();
+            }
+        }
+
+        private void descartar() {
+            copia = null;
+            compartir(null);
+        }
+
+        private void terminar() {
+            if (copia != null) {
+                byte[] cuerpo = copia.toByteArray();
+                copia = null;
+                if (guardarEnCache) {
+                    cache.guardar(url, cuerpo);
+                }
+                compartir(cuerpo);
+            }
+        }
+
+        private void compartir(byte[] cuerpo) {
+            if (compartida != null && !compartida.isDone()) {
+                enCurso.remove(url, compartida);
+                compartida.complete(cuerpo);
+            }
+        }
     }
-}
\ No newline at end of file
+}
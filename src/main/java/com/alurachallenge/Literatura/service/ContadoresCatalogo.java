@@ -0,0 +1,80 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.Repository.AutorRepository;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.dto.ConteoPorClave;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Conteos de libros por idioma y por autor mantenidos en memoria.
+ * Se calculan una sola vez al arrancar con las consultas agrupadas y después se incrementan
+ * al confirmarse cada registro, de modo que leerlos cuesta lo que el número de claves
+ * distintas y no lo que la tabla de libros.
+ */
+
+@Service
+public class ContadoresCatalogo {
+    private final Map<String, LongAdder> porIdioma = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> porAutor = new ConcurrentHashMap<>();
+    private final LibroRepository libroRepository;
+    private final AutorRepository autorRepository;
+
+    public record Conteo(String clave, long total) {}
+
+    public ContadoresCatalogo(LibroRepository libroRepository, AutorRepository autorRepository) {
+        this.libroRepository = libroRepository;
+        this.autorRepository = autorRepository;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void inicializar() {
+        for (ConteoPorClave conteo : libroRepository.contarLibrosPorIdioma()) {
+            sumar(porIdioma, conteo.getClave(), conteo.getTotal());
+        }
+        for (ConteoPorClave conteo : autorRepository.contarLibrosPorAutor()) {
+            sumar(porAutor, conteo.getClave(), conteo.getTotal());
+        }
+    }
+
+    // Solo se cuentan los libros de transacciones confirmadas
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alRegistrarLibros(LibrosRegistradosEvento evento) {
+        for (Libro libro : evento.libros()) {
+            // Un libro cuenta una vez para cada uno de sus idiomas y de sus autores
+            libro.getCodigosDeIdioma().forEach(idioma -> sumar(porIdioma, idioma, 1));
+            libro.getNombresDeAutores().forEach(autor -> sumar(porAutor, autor, 1));
+        }
+    }
+
+    public List<Conteo> librosPorIdioma() {
+        return ordenados(porIdioma);
+    }
+
+    public List<Conteo> librosPorAutor() {
+        return ordenados(porAutor);
+    }
+
+    private static void sumar(Map<String, LongAdder> conteos, String clave, long cantidad) {
+        if (clave != null) {
+            conteos.computeIfAbsent(clave, k -> new LongAdder()).add(cantidad);
+        }
+    }
+
+    private static List<Conteo> ordenados(Map<String, LongAdder> conteos) {
+        return conteos.entrySet().stream()
+                .map(entrada -> new Conteo(entrada.getKey(), entrada.getValue().sum()))
+                .filter(conteo -> conteo.total() > 0)
+                .sorted(Comparator.comparingLong(Conteo::total).reversed().thenComparing(Conteo::clave))
+                .toList();
+    }
+}
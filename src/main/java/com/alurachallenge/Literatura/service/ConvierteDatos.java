@@ -1,17 +1,148 @@
 package com.alurachallenge.Literatura.service;
 
+import com.alurachallenge.Literatura.dto.Datos;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Convierte las respuestas JSON de Gutendex en registros.
+ * Cada conversión se mide con el temporizador {@code literatura.json.conversion} y el número
+ * de libros leídos con {@code literatura.json.resultados}. Cuando la entrada es un flujo de
+ * red, el tiempo incluye la espera de los datos que todavía no han llegado.
+ */
+
+@Service
 public class ConvierteDatos implements IConvierteDatos {
     private ObjectMapper objectMapper = new ObjectMapper();
+    // Los ObjectReader son inmutables y seguros entre hilos, así que se crean una vez por clase
+    private final Map<Class<?>, ObjectReader> lectores = new ConcurrentHashMap<>();
+    private final ObjectReader lectorLibro = lector(DatosLibro.class);
+    private final MeterRegistry registro;
+
+    public ConvierteDatos() {
+        // Registro compuesto vacío: las métricas no se guardan en ningún sitio
+        this(new CompositeMeterRegistry());
+    }
+
+    @Autowired
+    public ConvierteDatos(MeterRegistry registro) {
+        this.registro = registro;
+    }
 
     @Override
     public <T> T obtenerDatos(String json, Class<T> clase) {
+        long inicio = System.nanoTime();
         try {
-            return objectMapper.readValue(json, clase);
+            return medir("texto", clase, inicio, lector(clase).readValue(json));
         } catch (JsonProcessingException e) {
             throw new RuntimeException(e);
         }
     }
+
+    @Override
+    public <T> T obtenerDatos(InputStream json, Class<T> clase) {
+        long inicio = System.nanoTime();
+        try (json) {
+            return medir("flujo", clase, inicio, lector(clase).readValue(json));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public <T> T obtenerDatos(ByteBuffer json, Class<T> clase) {
+        long inicio = System.nanoTime();
+        try {
+            if (json.hasArray()) {
+                return medir("buffer", clase, inicio,
+                        lector(clase).readValue(json.array(), json.arrayOffset() + json.position(), json.remaining()));
+            }
+            return medir("buffer", clase, inicio, lector(clase).readValue(new ByteBufferBackedInputStream(json.duplicate())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Datos recorrerResultados(InputStream json, Consumer<DatosLibro> consumidor) {
+        long inicio = System.nanoTime();
+        int leidos = 0;
+        Integer total = null;
+        String siguiente = null;
+        String anterior = null;
+        try (json; JsonParser parser = objectMapper.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Se esperaba un objeto JSON al inicio de la respuesta");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+                switch (campo) {
+                    case "count" -> total = valor == JsonToken.VALUE_NULL ? null : parser.getIntValue();
+                    case "next" -> siguiente = valor == JsonToken.VALUE_NULL ? null : parser.getText();
+                    case "previous" -> anterior = valor == JsonToken.VALUE_NULL ? null : parser.getText();
+                    case "results" -> {
+                        if (valor != JsonToken.START_ARRAY) {
+                            parser.skipChildren();
+                            break;
+                        }
+                        // Cada libro se entrega en cuanto se cierra su objeto
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            consumidor.accept(lectorLibro.readValue(parser));
+                            leidos++;
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registrar("recorrido", Datos.class, inicio, leidos);
+        return new Datos(total, siguiente, anterior, List.of());
+    }
+
+    private <T> T medir(String entrada, Class<?> clase, long inicio, T resultado) {
+        int libros = resultado instanceof Datos datos && datos.resultados() != null ? datos.resultados().size() : 1;
+        registrar(entrada, clase, inicio, libros);
+        return resultado;
+    }
+
+    private void registrar(String entrada, Class<?> clase, long inicio, int libros) {
+        Timer.builder("literatura.json.conversion")
+                .description("Tiempo de conversión de las respuestas JSON")
+                .tags("entrada", entrada, "tipo", clase.getSimpleName())
+                .register(registro)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("literatura.json.resultados")
+                .description("Libros leídos en cada conversión")
+                .tags("entrada", entrada, "tipo", clase.getSimpleName())
+                .register(registro)
+                .record(libros);
+    }
+
+    private ObjectReader lector(Class<?> clase) {
+        return lectores.computeIfAbsent(clase, objectMapper::readerFor);
+    }
 }
\ No newline at end of file
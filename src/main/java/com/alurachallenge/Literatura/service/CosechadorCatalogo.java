@@ -0,0 +1,185 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.dto.Datos;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recorre todas las páginas del catálogo de Gutendex (o un rango elegido) y registra
+ * los libros en la base de datos.
+ * Las páginas se descargan en paralelo sobre hilos virtuales con una concurrencia
+ * limitada, y el progreso se guarda en disco para poder reanudar la cosecha.
+ */
+
+@Service
+public class CosechadorCatalogo {
+    private static final int LIBROS_POR_PAGINA = 32;
+
+    private final ConsumoAPI consumoAPI;
+    private final ConvierteDatos conversor;
+    private final RegistroLibros registroLibros;
+    private final int concurrencia;
+    private final Path archivoProgreso;
+    private final String urlBase;
+
+    public CosechadorCatalogo(ConsumoAPI consumoAPI, ConvierteDatos conversor, RegistroLibros registroLibros,
+                              @Value("${literatura.cosecha.concurrencia:8}") int concurrencia,
+                              @Value("${literatura.cosecha.archivo-progreso:cosecha.progreso}") String archivoProgreso,
+                              ConfiguracionGutendex gutendex) {
+        this.consumoAPI = consumoAPI;
+        this.conversor = conversor;
+        this.registroLibros = registroLibros;
+        this.concurrencia = Math.max(1, concurrencia);
+        this.archivoProgreso = Path.of(archivoProgreso);
+        this.urlBase = gutendex.urlBase();
+    }
+
+    public record ResumenCosecha(int paginasCompletadas, int librosRegistrados,
+                                 List<Integer> paginasFallidas, int ultimaPaginaContigua, Duration duracion) {}
+
+    /**
+     * Cosecha las páginas del rango [desde, hasta]. Si {@code hasta} es 0 o negativo,
+     * se recorre hasta la última página que indique el campo {@code count} de la API.
+     */
+
+    public ResumenCosecha cosechar(int desde, int hasta) {
+        Instant inicio = Instant.now();
+        int primera = Math.max(1, desde);
+        AtomicInteger librosRegistrados = new AtomicInteger();
+        NavigableSet<Integer> completadas = new ConcurrentSkipListSet<>();
+        List<Integer> fallidas = Collections.synchronizedList(new ArrayList<>());
+        Progreso progreso = new Progreso(primera - 1);
+
+        // La primera página se pide antes para conocer el total de libros del catálogo
+        Datos primeraPagina;
+        try {
+            primeraPagina = descargarPagina(primera);
+        } catch (ErrorConsultaAPI e) {
+            // Gutendex responde 404 a las páginas posteriores a la última
+            if (e.getEstado() != 404) {
+                throw e;
+            }
+            primeraPagina = new Datos(null, null, null, null);
+        }
+        if (primeraPagina.total() == null || primeraPagina.resultados() == null) {
+            System.out.println("⚠️ La página " + primera + " no existe en la API.");
+            return new ResumenCosecha(0, 0, List.of(), primera - 1, Duration.between(inicio, Instant.now()));
+        }
+        int ultimaDisponible = Math.max(primera, (primeraPagina.total() + LIBROS_POR_PAGINA - 1) / LIBROS_POR_PAGINA);
+        int ultima = hasta > 0 ? Math.min(hasta, ultimaDisponible) : ultimaDisponible;
+        System.out.println("Cosechando páginas " + primera + " a " + ultima + " con " + concurrencia + " descargas simultáneas...");
+
+        librosRegistrados.addAndGet(persistir(primeraPagina));
+        completadas.add(primera);
+        progreso.completar(primera);
+
+        Semaphore permisos = new Semaphore(concurrencia);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int pagina = primera + 1; pagina <= ultima; pagina++) {
+                final int numero = pagina;
+                permisos.acquireUninterruptibly();
+                executor.submit(() -> {
+                    try {
+                        Datos datos = descargarPagina(numero);
+                        librosRegistrados.addAndGet(persistir(datos));
+                        completadas.add(numero);
+                        progreso.completar(numero);
+                        if (completadas.size() % 25 == 0) {
+                            System.out.println("  -> " + completadas.size() + " páginas completadas, " + librosRegistrados.get() + " libros nuevos.");
+                        }
+                    } catch (RuntimeException e) {
+                        fallidas.add(numero);
+                        System.out.println("⚠️ Falló la página " + numero + ": " + e.getMessage());
+                    } finally {
+                        permisos.release();
+                    }
+                });
+            }
+        }
+
+        Collections.sort(fallidas);
+        return new ResumenCosecha(completadas.size(), librosRegistrados.get(), List.copyOf(fallidas),
+                progreso.ultimaContigua(), Duration.between(inicio, Instant.now()));
+    }
+
+    private Datos descargarPagina(int pagina) {
+        // El orden ascendente por id mantiene estable la paginación entre ejecuciones.
+        // Las páginas de la cosecha no se repiten, así que no se guardan en la caché.
+        var flujo = consumoAPI.obtenerFlujo(urlBase + "?sort=ascending&page=" + pagina, false);
+        return conversor.obtenerDatos(flujo, Datos.class);
+    }
+
+    private int persistir(Datos datos) {
+        // El registro por lotes tolera importaciones simultáneas, así que las páginas se guardan en paralelo
+        List<Libro> registrados = registroLibros.registrarTodos(datos.resultados());
+        return registrados.size();
+    }
+
+    public int leerUltimaPaginaCompletada() {
+        try {
+            if (Files.notExists(archivoProgreso)) {
+                return 0;
+            }
+            return Integer.parseInt(Files.readString(archivoProgreso).trim());
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Lleva la cuenta de la última página completada sin huecos y la escribe en disco.
+     * Las páginas terminan en desorden, así que solo se avanza cuando la siguiente ya está lista.
+     */
+
+    private class Progreso {
+        private final NavigableSet<Integer> pendientes = new ConcurrentSkipListSet<>();
+        private int ultimaContigua;
+
+        Progreso(int ultimaContigua) {
+            this.ultimaContigua = ultimaContigua;
+        }
+
+        synchronized void completar(int pagina) {
+            pendientes.add(pagina);
+            int anterior = ultimaContigua;
+            while (pendientes.remove(ultimaContigua + 1)) {
+                ultimaContigua++;
+            }
+            if (ultimaContigua != anterior) {
+                guardar(ultimaContigua);
+            }
+        }
+
+        synchronized int ultimaContigua() {
+            return ultimaContigua;
+        }
+
+        private void guardar(int pagina) {
+            try {
+                Path temporal = archivoProgreso.resolveSibling(archivoProgreso.getFileName() + ".tmp");
+                Files.writeString(temporal, Integer.toString(pagina));
+                Files.move(temporal, archivoProgreso, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
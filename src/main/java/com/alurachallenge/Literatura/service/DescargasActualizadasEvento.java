@@ -0,0 +1,10 @@
+package com.alurachallenge.Literatura.service;
+
+import java.util.List;
+
+/**
+ * Se publica cuando se guardan los nuevos números de descargas de libros ya registrados.
+ * Cada posición lleva los datos del libro con el número de descargas ya actualizado.
+ */
+
+public record DescargasActualizadasEvento(List<RankingDescargas.Posicion> libros) {}
\ No newline at end of file
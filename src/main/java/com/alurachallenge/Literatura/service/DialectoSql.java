@@ -0,0 +1,40 @@
+package com.alurachallenge.Literatura.service;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Diferencias de SQL entre PostgreSQL y el H2 que usan las pruebas.
+ * PostgreSQL acepta {@code ON CONFLICT (columna) DO NOTHING}, que solo ignora la restricción única
+ * indicada y deja que cualquier otra violación (por ejemplo, un {@code id_gutendex} repetido) llegue
+ * como error; H2 solo acepta la forma sin columnas, así que allí se usa esa.
+ */
+
+@Component
+public class DialectoSql {
+    private final boolean admiteObjetivoDeConflicto;
+
+    public DialectoSql(DataSource dataSource) {
+        this.admiteObjetivoDeConflicto = "PostgreSQL".equals(nombreDelProducto(dataSource));
+    }
+
+    /**
+     * Devuelve la cláusula que ignora el conflicto con la restricción única de {@code columnas}.
+     */
+
+    public String ignorarConflictoEn(String columnas) {
+        return admiteObjetivoDeConflicto ? "ON CONFLICT (" + columnas + ") DO NOTHING" : "ON CONFLICT DO NOTHING";
+    }
+
+    private static String nombreDelProducto(DataSource dataSource) {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("No se pudo identificar la base de datos.", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.alurachallenge.Literatura.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ids de los códigos de idioma de la tabla {@code idiomas}, guardados en memoria.
+ * Es un diccionario pequeño que solo crece, así que cuando falta algún código se inserta y
+ * se vuelve a leer la tabla entera. La inserción va en la transacción de quien lo pide, y los
+ * ids leídos pasan a la memoria solo cuando esa transacción se confirma: si hace rollback, los
+ * códigos nuevos desaparecen con ella y la memoria no guarda ids que no existen.
+ */
+
+@Service
+public class DiccionarioIdiomas {
+    private static final String INSERTAR_IDIOMA = "INSERT INTO idiomas (codigo) VALUES (?) ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertarIdioma;
+    private final Map<String, Short> ids = new ConcurrentHashMap<>();
+
+    public DiccionarioIdiomas(JdbcTemplate jdbcTemplate, DialectoSql dialectoSql) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.insertarIdioma = INSERTAR_IDIOMA + dialectoSql.ignorarConflictoEn("codigo");
+    }
+
+    /**
+     * Id de cada código, registrando los que todavía no existen.
+     */
+
+    public Map<String, Short> ids(Collection<String> codigos) {
+        Map<String, Short> resultado = new HashMap<>();
+        // En orden de código, como los autores y libros de RegistroLibros, para que dos
+        // importaciones simultáneas no se bloqueen mutuamente en el índice único
+        Set<String> faltantes = new TreeSet<>();
+        for (String codigo : codigos) {
+            Short id = ids.get(codigo);
+            if (id != null) {
+                resultado.put(codigo, id);
+            } else {
+                faltantes.add(codigo);
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            List<String> nuevos = List.copyOf(faltantes);
+            jdbcTemplate.batchUpdate(insertarIdioma, nuevos, nuevos.size(), (ps, codigo) -> ps.setString(1, codigo));
+            Map<String, Short> leidos = new HashMap<>();
+            jdbcTemplate.query("SELECT codigo, id FROM idiomas", fila -> {
+                leidos.put(fila.getString("codigo"), fila.getShort("id"));
+            });
+            faltantes.forEach(codigo -> resultado.put(codigo, leidos.get(codigo)));
+            recordarAlConfirmar(leidos);
+        }
+        return resultado;
+    }
+
+    private void recordarAlConfirmar(Map<String, Short> leidos) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Sin transacción, cada sentencia ya se confirmó al ejecutarse
+            ids.putAll(leidos);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.putAll(leidos);
+            }
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.alurachallenge.Literatura.service;
+
+/**
+ * Error al consultar la API de Gutendex: no hubo respuesta, la respuesta no fue 2xx
+ * o el circuito está abierto porque la API lleva un rato fallando.
+ * {@link #esTransitorio()} indica si tiene sentido volver a intentarlo más tarde.
+ */
+
+public class ErrorConsultaAPI extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    // Código HTTP de la respuesta, o 0 si no llegó a haber respuesta
+    private final int estado;
+    private final boolean transitorio;
+
+    public ErrorConsultaAPI(String mensaje, int estado, boolean transitorio) {
+        super(mensaje);
+        this.estado = estado;
+        this.transitorio = transitorio;
+    }
+
+    public ErrorConsultaAPI(String mensaje, int estado, boolean transitorio, Throwable causa) {
+        super(mensaje, causa);
+        this.estado = estado;
+        this.transitorio = transitorio;
+    }
+
+    public int getEstado() {
+        return estado;
+    }
+
+    public boolean esTransitorio() {
+        return transitorio;
+    }
+}
\ No newline at end of file
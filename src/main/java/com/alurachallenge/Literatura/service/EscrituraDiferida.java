@@ -0,0 +1,333 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Escritura diferida de los libros importados desde la API (opcional, {@code literatura.escritura-diferida.habilitada}).
+ * Los libros nuevos se dejan en una cola en memoria y la búsqueda responde sin esperar a la base
+ * de datos; un hilo de fondo los guarda con {@link RegistroLibros} en lotes, cuando se juntan
+ * {@code tamano-lote} libros o cuando el primero lleva {@code intervalo} esperando.
+ *
+ * <p>Un título que ya está en la cola o en el índice de títulos no se vuelve a encolar; se
+ * comparan los títulos normalizados. Si la cola está llena, quien encola espera a que el escritor
+ * libere sitio. Un lote que no se puede guardar tras {@value #INTENTOS_POR_LOTE} intentos vuelve al
+ * principio de la cola y el escritor espera cada vez más antes de reintentarlo. Al cerrar la
+ * aplicación se guardan todos los libros pendientes antes de que se cierre el pool de conexiones;
+ * los que aun así no se pueden guardar quedan en {@link #sinGuardar()} y en la métrica
+ * {@code literatura.escritura.sin-guardar}.
+ */
+
+@Service
+public class EscrituraDiferida {
+    private static final Logger log = LoggerFactory.getLogger(EscrituraDiferida.class);
+    private static final int INTENTOS_POR_LOTE = 3;
+    private static final long ESPERA_MAXIMA_NANOS = Duration.ofSeconds(30).toNanos();
+
+    private final RegistroLibros registroLibros;
+    private final IndiceBusqueda indiceBusqueda;
+    private final MeterRegistry registro;
+    private final boolean habilitada;
+    private final int capacidad;
+    private final int tamanoLote;
+    private final long intervaloNanos;
+
+    private final ReentrantLock bloqueo = new ReentrantLock();
+    private final Condition hayTrabajo = bloqueo.newCondition();
+    private final Condition haySitio = bloqueo.newCondition();
+    private final Condition vaciada = bloqueo.newCondition();
+    private final Map<String, DatosLibro> pendientes = new LinkedHashMap<>();
+    private final Set<String> enEscritura = new HashSet<>();
+    private final Map<String, DatosLibro> sinGuardar = new LinkedHashMap<>();
+    private long llegadaDelPrimero;
+    private long reintentarDesde;
+    private int fallosSeguidos;
+    private boolean cerrando;
+    private final Thread escritor;
+
+    public EscrituraDiferida(RegistroLibros registroLibros, IndiceBusqueda indiceBusqueda, MeterRegistry registro,
+                             @Value("${literatura.escritura-diferida.habilitada:false}") boolean habilitada,
+                             @Value("${literatura.escritura-diferida.capacidad:1000}") int capacidad,
+                             @Value("${literatura.escritura-diferida.tamano-lote:200}") int tamanoLote,
+                             @Value("${literatura.escritura-diferida.intervalo:500ms}") Duration intervalo) {
+        this.registroLibros = registroLibros;
+        this.indiceBusqueda = indiceBusqueda;
+        this.registro = registro;
+        this.habilitada = habilitada;
+        this.capacidad = Math.max(1, capacidad);
+        this.tamanoLote = Math.max(1, tamanoLote);
+        this.intervaloNanos = intervalo.toNanos();
+        this.reintentarDesde = System.nanoTime();
+        this.escritor = habilitada ? Thread.ofVirtual().name("escritura-diferida").unstarted(this::escribirPendientes) : null;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        Gauge.builder("literatura.escritura.sin-guardar", this, EscrituraDiferida::cantidadSinGuardar)
+                .description("Libros encolados que no se pudieron guardar antes de cerrar la aplicación")
+                .register(registro);
+        if (escritor != null) {
+            escritor.start();
+        }
+    }
+
+    public boolean habilitada() {
+        return habilitada;
+    }
+
+    /**
+     * Encola los libros cuyo título no está registrado ni pendiente y los devuelve.
+     * Bloquea mientras la cola esté llena. Si la aplicación se está cerrando, los guarda en el
+     * momento y devuelve solo los que se guardaron.
+     */
+
+    public List<DatosLibro> encolar(List<DatosLibro> encontrados) {
+        List<DatosLibro> aceptados = new ArrayList<>();
+        Map<String, DatosLibro> aGuardarAhora = new LinkedHashMap<>();
+        bloqueo.lock();
+        try {
+            for (DatosLibro datosLibro : encontrados) {
+                String clave = IndiceTrigramas.normalizar(datosLibro.titulo());
+                if (clave.isEmpty() || pendientes.containsKey(clave) || enEscritura.contains(clave)
+                        || aGuardarAhora.containsKey(clave) || indiceBusqueda.existeTitulo(clave)) {
+                    continue;
+                }
+                while (pendientes.size() + enEscritura.size() >= capacidad && !cerrando) {
+                    haySitio.await();
+                }
+                if (cerrando) {
+                    // El escritor ya no acepta trabajo: se guardan al salir del bloqueo
+                    aGuardarAhora.put(clave, datosLibro);
+                } else {
+                    if (pendientes.isEmpty()) {
+                        llegadaDelPrimero = System.nanoTime();
+                    }
+                    pendientes.put(clave, datosLibro);
+                    hayTrabajo.signal();
+                    aceptados.add(datosLibro);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió la espera de sitio en la cola de escritura.", e);
+        } finally {
+            bloqueo.unlock();
+        }
+        if (!aGuardarAhora.isEmpty()) {
+            Set<String> guardados = registroLibros.registrarTodos(new ArrayList<>(aGuardarAhora.values())).stream()
+                    .map(Libro::getTitulo)
+                    .collect(Collectors.toSet());
+            aGuardarAhora.values().stream()
+                    .filter(datosLibro -> guardados.contains(datosLibro.titulo()))
+                    .forEach(aceptados::add);
+        }
+        return aceptados;
+    }
+
+    /**
+     * Libros que no se pudieron guardar antes de cerrar la aplicación.
+     */
+
+    public List<DatosLibro> sinGuardar() {
+        bloqueo.lock();
+        try {
+            return new ArrayList<>(sinGuardar.values());
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Espera a que se hayan guardado todos los libros encolados hasta ahora.
+     */
+
+    void vaciar() {
+        bloqueo.lock();
+        try {
+            hayTrabajo.signal();
+            while (escritor != null && escritor.isAlive() && (!pendientes.isEmpty() || !enEscritura.isEmpty())) {
+                vaciada.await(100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() throws InterruptedException {
+        if (escritor == null) {
+            return;
+        }
+        bloqueo.lock();
+        try {
+            cerrando = true;
+            hayTrabajo.signal();
+            haySitio.signalAll();
+        } finally {
+            bloqueo.unlock();
+        }
+        escritor.join();
+        bloqueo.lock();
+        try {
+            // Solo queda algo si se interrumpió al escritor
+            if (!pendientes.isEmpty()) {
+                apartar(pendientes);
+                pendientes.clear();
+            }
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    private void escribirPendientes() {
+        while (true) {
+            Map<String, DatosLibro> lote = new LinkedHashMap<>();
+            bloqueo.lock();
+            try {
+                while (true) {
+                    if (pendientes.isEmpty()) {
+                        if (cerrando) {
+                            return;
+                        }
+                        hayTrabajo.await();
+                        continue;
+                    }
+                    if (cerrando) {
+                        break;
+                    }
+                    long ahora = System.nanoTime();
+                    long restante = Math.max(reintentarDesde - ahora,
+                            pendientes.size() >= tamanoLote ? 0 : llegadaDelPrimero + intervaloNanos - ahora);
+                    if (restante <= 0) {
+                        break;
+                    }
+                    hayTrabajo.awaitNanos(restante);
+                }
+                Iterator<Map.Entry<String, DatosLibro>> iterador = pendientes.entrySet().iterator();
+                while (iterador.hasNext() && lote.size() < tamanoLote) {
+                    Map.Entry<String, DatosLibro> entrada = iterador.next();
+                    iterador.remove();
+                    enEscritura.add(entrada.getKey());
+                    lote.put(entrada.getKey(), entrada.getValue());
+                }
+                llegadaDelPrimero = System.nanoTime();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                bloqueo.unlock();
+            }
+            if (!escribir(lote)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Guarda el lote con reintentos. Si no lo consigue lo devuelve a la cola, o lo aparta si la
+     * aplicación se está cerrando. Devuelve false si se interrumpió al escritor.
+     */
+
+    private boolean escribir(Map<String, DatosLibro> lote) {
+        List<DatosLibro> libros = new ArrayList<>(lote.values());
+        boolean guardado = false;
+        boolean interrumpido = false;
+        try {
+            for (int intento = 1; intento <= INTENTOS_POR_LOTE && !guardado; intento++) {
+                try {
+                    registroLibros.registrarTodos(libros);
+                    guardado = true;
+                } catch (RuntimeException e) {
+                    log.warn("No se pudieron guardar {} libros (intento {}): {}", libros.size(), intento, e.getMessage());
+                    if (intento < INTENTOS_POR_LOTE) {
+                        TimeUnit.NANOSECONDS.sleep(intervaloNanos);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            interrumpido = true;
+        }
+        bloqueo.lock();
+        try {
+            enEscritura.removeAll(lote.keySet());
+            if (guardado) {
+                fallosSeguidos = 0;
+            } else if (cerrando) {
+                apartar(lote);
+            } else {
+                reencolar(lote);
+            }
+            haySitio.signalAll();
+            vaciada.signalAll();
+        } finally {
+            bloqueo.unlock();
+        }
+        return !interrumpido;
+    }
+
+    /**
+     * Devuelve el lote al principio de la cola y retrasa el siguiente intento, cada vez más
+     * mientras sigan fallando los lotes. Se llama con el bloqueo tomado.
+     */
+
+    private void reencolar(Map<String, DatosLibro> lote) {
+        Map<String, DatosLibro> cola = new LinkedHashMap<>(lote);
+        cola.putAll(pendientes);
+        pendientes.clear();
+        pendientes.putAll(cola);
+        llegadaDelPrimero = System.nanoTime();
+        long espera = Math.min(ESPERA_MAXIMA_NANOS, intervaloNanos << Math.min(fallosSeguidos, 20));
+        reintentarDesde = llegadaDelPrimero + espera;
+        fallosSeguidos++;
+        contarLote("reencolado");
+    }
+
+    private void apartar(Map<String, DatosLibro> lote) {
+        sinGuardar.putAll(lote);
+        log.error("Se cierra la aplicación sin guardar {} libros: {}", lote.size(),
+                lote.values().stream().map(DatosLibro::titulo).collect(Collectors.joining(", ")));
+        contarLote("sin guardar");
+    }
+
+    private double cantidadSinGuardar() {
+        bloqueo.lock();
+        try {
+            return sinGuardar.size();
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    private void contarLote(String resultado) {
+        Counter.builder("literatura.escritura.lotes-fallidos")
+                .description("Lotes de la escritura diferida que no se pudieron guardar: reencolados o apartados al cerrar")
+                .tag("resultado", resultado)
+                .register(registro)
+                .increment();
+    }
+}
\ No newline at end of file
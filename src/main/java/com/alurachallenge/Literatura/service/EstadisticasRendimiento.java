@@ -0,0 +1,91 @@
+package com.alurachallenge.Literatura.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Resume las métricas de Micrometer de la aplicación para mostrarlas en la consola:
+ * peticiones a Gutendex, conversión de JSON, consultas de los repositorios, peticiones
+ * a la API REST, la caché de respuestas y el pool de conexiones.
+ * Los mismos datos se publican completos en {@code /actuator/prometheus}.
+ */
+
+@Service
+public class EstadisticasRendimiento {
+    private static final List<String> TEMPORIZADORES = List.of(
+            "literatura.http.peticiones",
+            "literatura.json.conversion",
+            "spring.data.repository.invocations",
+            "http.server.requests");
+
+    private final MeterRegistry registro;
+    private final CacheRespuestas cache;
+
+    public record Medicion(String nombre, String etiquetas, long cantidad,
+                           double mediaMs, double p95Ms, double maximoMs) {}
+
+    public record Resumen(List<Medicion> mediciones, CacheRespuestas.Estadisticas cache,
+                          Map<String, Double> conexiones) {}
+
+    public EstadisticasRendimiento(MeterRegistry registro, CacheRespuestas cache) {
+        this.registro = registro;
+        this.cache = cache;
+    }
+
+    public Resumen resumen() {
+        List<Medicion> mediciones = new ArrayList<>();
+        for (String nombre : TEMPORIZADORES) {
+            registro.find(nombre).timers().stream()
+                    .filter(timer -> timer.count() > 0)
+                    .map(timer -> medicion(nombre, timer))
+                    // Primero lo que más tiempo ha consumido en total
+                    .sorted(Comparator.comparingDouble((Medicion m) -> m.mediaMs() * m.cantidad()).reversed())
+                    .forEach(mediciones::add);
+        }
+
+        Map<String, Double> conexiones = new LinkedHashMap<>();
+        agregarMedidor(conexiones, "activas", "hikaricp.connections.active");
+        agregarMedidor(conexiones, "inactivas", "hikaricp.connections.idle");
+        agregarMedidor(conexiones, "en espera", "hikaricp.connections.pending");
+        agregarMedidor(conexiones, "máximo", "hikaricp.connections.max");
+        return new Resumen(mediciones, cache.estadisticas(), conexiones);
+    }
+
+    private static Medicion medicion(String nombre, Timer timer) {
+        double p95 = Double.NaN;
+        for (ValueAtPercentile valor : timer.takeSnapshot().percentileValues()) {
+            if (valor.percentile() == 0.95) {
+                p95 = valor.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return new Medicion(nombre, etiquetas(timer.getId()), timer.count(),
+                timer.mean(TimeUnit.MILLISECONDS), p95, timer.max(TimeUnit.MILLISECONDS));
+    }
+
+    private static String etiquetas(Meter.Id id) {
+        return id.getTags().stream()
+                .filter(tag -> !tag.getValue().equals("None"))
+                .map(Tag::getValue)
+                .collect(Collectors.joining(" "));
+    }
+
+    private void agregarMedidor(Map<String, Double> valores, String clave, String nombre) {
+        Gauge medidor = registro.find(nombre).gauge();
+        if (medidor != null) {
+            valores.put(clave, medidor.value());
+        }
+    }
+}
\ No newline at end of file
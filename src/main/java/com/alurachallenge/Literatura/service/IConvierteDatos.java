@@ -1,5 +1,23 @@
 package com.alurachallenge.Literatura.service;
 
+import com.alurachallenge.Literatura.dto.Datos;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
 public interface IConvierteDatos {
     <T> T obtenerDatos(String json, Class<T> clase);
+
+    <T> T obtenerDatos(InputStream json, Class<T> clase);
+
+    <T> T obtenerDatos(ByteBuffer json, Class<T> clase);
+
+    /**
+     * Lee una página de resultados de Gutendex y entrega cada libro al consumidor en cuanto
+     * se termina de leer, sin acumular la lista. Devuelve los datos de paginación
+     * ({@code count}, {@code next}, {@code previous}) con la lista de resultados vacía.
+     */
+    Datos recorrerResultados(InputStream json, Consumer<DatosLibro> consumidor);
 }
\ No newline at end of file
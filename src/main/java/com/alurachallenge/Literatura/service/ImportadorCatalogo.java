@@ -0,0 +1,504 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.dto.DatosAutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Importa el catálogo sin conexión de Project Gutenberg ({@code pg_catalog.csv}, o su versión
+ * comprimida {@code .csv.gz}) sin pasar por la API.
+ *
+ * <p>El archivo se lee en streaming: los archivos sin comprimir se proyectan en memoria por
+ * ventanas y los comprimidos se descomprimen al vuelo. Cada lote de registros se vuelca con
+ * lotes JDBC en tablas intermedias (autores, libros y sus listas de autores e idiomas) y se
+ * fusiona con {@code INSERT ... SELECT}, de modo que la fusión se resuelve dentro de la base de
+ * datos. Los libros cuyo {@code id_gutendex} ya está registrado se saltan de forma explícita y los
+ * títulos y nombres repetidos con {@code ON CONFLICT (titulo)} y {@code ON CONFLICT (nombre)}, así
+ * que repetir una importación no duplica filas; cualquier otra violación hace fallar el lote (ver
+ * {@link DialectoSql}). Se guardan todos los autores e idiomas de cada libro. Las tablas intermedias son temporales y propias de
+ * la conexión, así que dos importaciones simultáneas no se pisan los datos; los libros que se
+ * anuncian son los que devuelve como claves generadas el propio {@code INSERT} de la fusión.
+ *
+ * <p>Después de cada lote se guarda en disco el desplazamiento en bytes del último registro
+ * procesado y se informa del {@link Avance} a quien importa; una importación interrumpida puede
+ * reanudarse desde ahí. El catálogo no incluye
+ * el número de descargas, así que los libros nuevos empiezan con 0 hasta la siguiente
+ * actualización desde la API.
+ */
+
+@Service
+public class ImportadorCatalogo {
+    private static final long VENTANA_MAPEO = 64L * 1024 * 1024;
+    private static final int LONGITUD_MAXIMA_TITULO = 1000;
+    private static final int LONGITUD_MAXIMA_NOMBRE = 255;
+    private static final Pattern ROL = Pattern.compile("\\s*\\[[^]]*]$");
+    private static final Pattern ANIOS = Pattern.compile(
+            "(?:(\\d+)\\??\\s*(BCE)?)?\\s*-\\s*(?:(\\d+)\\??\\s*(BCE)?)?");
+
+    private static final String CREAR_AUTORES_INTERMEDIOS = """
+            CREATE LOCAL TEMPORARY TABLE IF NOT EXISTS importacion_autores (
+                nombre VARCHAR(255),
+                fecha_de_nacimiento INTEGER,
+                fecha_de_fallecimiento INTEGER)""";
+    private static final String CREAR_LIBROS_INTERMEDIOS = """
+            CREATE LOCAL TEMPORARY TABLE IF NOT EXISTS importacion_libros (
+                id_gutendex BIGINT,
+                titulo VARCHAR(1000))""";
+    private static final String CREAR_AUTORES_DE_LIBROS_INTERMEDIOS = """
+            CREATE LOCAL TEMPORARY TABLE IF NOT EXISTS importacion_libros_autores (
+                id_gutendex BIGINT,
+                autor VARCHAR(255),
+                posicion INTEGER)""";
+    private static final String CREAR_IDIOMAS_DE_LIBROS_INTERMEDIOS = """
+            CREATE LOCAL TEMPORARY TABLE IF NOT EXISTS importacion_libros_idiomas (
+                id_gutendex BIGINT,
+                idioma_id SMALLINT,
+                posicion INTEGER)""";
+    private static final String CREAR_LIBROS_FUSIONADOS = """
+            CREATE LOCAL TEMPORARY TABLE IF NOT EXISTS importacion_fusionados (
+                libro_id BIGINT,
+                id_gutendex BIGINT)""";
+    private static final String INSERTAR_AUTOR_INTERMEDIO = """
+            INSERT INTO importacion_autores (nombre, fecha_de_nacimiento, fecha_de_fallecimiento)
+            VALUES (?, ?, ?)""";
+    private static final String INSERTAR_LIBRO_INTERMEDIO =
+            "INSERT INTO importacion_libros (id_gutendex, titulo) VALUES (?, ?)";
+    private static final String INSERTAR_AUTOR_DE_LIBRO_INTERMEDIO =
+            "INSERT INTO importacion_libros_autores (id_gutendex, autor, posicion) VALUES (?, ?, ?)";
+    private static final String INSERTAR_IDIOMA_DE_LIBRO_INTERMEDIO =
+            "INSERT INTO importacion_libros_idiomas (id_gutendex, idioma_id, posicion) VALUES (?, ?, ?)";
+    private static final String INSERTAR_LIBRO_FUSIONADO =
+            "INSERT INTO importacion_fusionados (libro_id, id_gutendex) VALUES (?, ?)";
+    private static final String FUSIONAR_AUTORES = """
+            INSERT INTO autores (nombre, fecha_de_nacimiento, fecha_de_fallecimiento)
+            SELECT nombre, fecha_de_nacimiento, fecha_de_fallecimiento FROM importacion_autores
+            """;
+    // Un libro ya importado se reconoce por su id_gutendex; el ON CONFLICT solo cubre los títulos
+    private static final String FUSIONAR_LIBROS = """
+            INSERT INTO libros (id_gutendex, titulo, numero_de_descargas)
+            SELECT i.id_gutendex, i.titulo, 0 FROM importacion_libros i
+            WHERE NOT EXISTS (SELECT 1 FROM libros l WHERE l.id_gutendex = i.id_gutendex)
+            """;
+    // Solo para los libros que insertó la fusión de este lote, guardados en importacion_fusionados
+    private static final String FUSIONAR_AUTORES_DE_LIBROS = """
+            INSERT INTO libros_autores (libro_id, autor_id, posicion)
+            SELECT f.libro_id, a.id, i.posicion
+            FROM importacion_libros_autores i
+            JOIN importacion_fusionados f ON f.id_gutendex = i.id_gutendex
+            JOIN autores a ON a.nombre = i.autor""";
+    private static final String FUSIONAR_IDIOMAS_DE_LIBROS = """
+            INSERT INTO libros_idiomas (libro_id, idioma_id, posicion)
+            SELECT f.libro_id, i.idioma_id, i.posicion
+            FROM importacion_libros_idiomas i
+            JOIN importacion_fusionados f ON f.id_gutendex = i.id_gutendex""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transacciones;
+    private final DiccionarioIdiomas diccionarioIdiomas;
+    private final LibroRepository libroRepository;
+    private final ApplicationEventPublisher eventos;
+    private final int tamanoLote;
+    private final Path archivoProgreso;
+    private final String fusionarAutores;
+    private final String fusionarLibros;
+
+    public record ResumenImportacion(long registrosLeidos, long librosRegistrados, long autoresRegistrados,
+                                     long desplazamientoFinal, Duration duracion) {}
+
+    /**
+     * Avance tras cada lote. {@code porcentaje} es null en los archivos comprimidos, donde el
+     * desplazamiento cuenta bytes descomprimidos y no se puede comparar con el tamaño del archivo.
+     */
+
+    public record Avance(long registrosLeidos, long librosRegistrados, long desplazamiento, Integer porcentaje) {}
+
+    record Registro(long idGutendex, String titulo, List<String> idiomas, List<DatosAutor> autores) {}
+
+    // Una fila de las listas intermedias: el libro, el autor o idioma y su posición
+    private record Elemento<T>(long idGutendex, T valor, int posicion) {}
+
+    public ImportadorCatalogo(JdbcTemplate jdbcTemplate, TransactionTemplate transacciones,
+                              DiccionarioIdiomas diccionarioIdiomas, LibroRepository libroRepository, ApplicationEventPublisher eventos,
+                              DialectoSql dialectoSql,
+                              @Value("${literatura.importacion.tamano-lote:5000}") int tamanoLote,
+                              @Value("${literatura.importacion.archivo-progreso:importacion.progreso}") String archivoProgreso) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transacciones = transacciones;
+        this.diccionarioIdiomas = diccionarioIdiomas;
+        this.libroRepository = libroRepository;
+        this.eventos = eventos;
+        this.tamanoLote = Math.max(1, tamanoLote);
+        this.archivoProgreso = Path.of(archivoProgreso);
+        this.fusionarAutores = FUSIONAR_AUTORES + dialectoSql.ignorarConflictoEn("nombre");
+        this.fusionarLibros = FUSIONAR_LIBROS + dialectoSql.ignorarConflictoEn("titulo");
+    }
+
+    /**
+     * Importa el archivo empezando en el desplazamiento indicado, que debe ser 0 o uno
+     * devuelto por una importación anterior del mismo archivo.
+     */
+
+    public ResumenImportacion importar(Path archivo, long desde) {
+        return importar(archivo, desde, avance -> {});
+    }
+
+    /**
+     * Igual que {@link #importar(Path, long)}, informando del avance después de cada lote.
+     */
+
+    public synchronized ResumenImportacion importar(Path archivo, long desde, Consumer<Avance> informe) {
+        Instant inicio = Instant.now();
+        long tamanoArchivo;
+        long registrosLeidos = 0;
+        long[] registrados = new long[2];
+        try (LectorCsv lector = abrir(archivo)) {
+            tamanoArchivo = Files.size(archivo);
+            List<String> cabecera = lector.siguiente();
+            if (cabecera == null) {
+                return new ResumenImportacion(0, 0, 0, 0, Duration.between(inicio, Instant.now()));
+            }
+            Columnas columnas = new Columnas(cabecera);
+            if (desde > lector.desplazamiento()) {
+                lector.saltarHasta(desde);
+            }
+
+            List<Registro> lote = new ArrayList<>(tamanoLote);
+            List<String> campos;
+            while ((campos = lector.siguiente()) != null) {
+                registrosLeidos++;
+                Registro registro = convertir(campos, columnas);
+                if (registro != null) {
+                    lote.add(registro);
+                }
+                if (lote.size() == tamanoLote) {
+                    fusionar(lote, registrados);
+                    lote.clear();
+                    guardarProgreso(archivo, lector.desplazamiento());
+                    // En los archivos comprimidos el desplazamiento cuenta bytes descomprimidos
+                    Integer porcentaje = archivo.getFileName().toString().endsWith(".gz")
+                            ? null : (int) Math.min(100, lector.desplazamiento() * 100 / Math.max(1, tamanoArchivo));
+                    informe.accept(new Avance(registrosLeidos, registrados[0], lector.desplazamiento(), porcentaje));
+                }
+            }
+            fusionar(lote, registrados);
+            guardarProgreso(archivo, lector.desplazamiento());
+            return new ResumenImportacion(registrosLeidos, registrados[0], registrados[1],
+                    lector.desplazamiento(), Duration.between(inicio, Instant.now()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Desplazamiento guardado de la última importación de este archivo, o 0 si no hay ninguno.
+     */
+
+    public long leerProgreso(Path archivo) {
+        try {
+            if (Files.notExists(archivoProgreso)) {
+                return 0;
+            }
+            String[] partes = Files.readString(archivoProgreso).trim().split("\t", 2);
+            boolean mismoArchivo = partes.length == 2 && partes[1].equals(archivo.toAbsolutePath().toString());
+            return mismoArchivo ? Long.parseLong(partes[0]) : 0;
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void fusionar(List<Registro> lote, long[] registrados) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        // Se descartan los títulos y los ids repetidos dentro del lote; gana el primero. Las listas
+        // de autores e idiomas se unen a los libros por id_gutendex, que no se puede repetir
+        Map<String, Registro> porTitulo = new LinkedHashMap<>();
+        Set<Long> ids = new HashSet<>();
+        for (Registro registro : lote) {
+            if (!porTitulo.containsKey(registro.titulo()) && ids.add(registro.idGutendex())) {
+                porTitulo.put(registro.titulo(), registro);
+            }
+        }
+        List<Registro> libros = List.copyOf(porTitulo.values());
+        Map<String, DatosAutor> autores = new HashMap<>();
+        Set<String> codigos = new LinkedHashSet<>();
+        List<Elemento<String>> autoresDeLibros = new ArrayList<>();
+        List<Elemento<String>> idiomasDeLibros = new ArrayList<>();
+        for (Registro libro : libros) {
+            for (int i = 0; i < libro.autores().size(); i++) {
+                DatosAutor autor = libro.autores().get(i);
+                autores.putIfAbsent(autor.nombre(), autor);
+                autoresDeLibros.add(new Elemento<>(libro.idGutendex(), autor.nombre(), i));
+            }
+            for (int i = 0; i < libro.idiomas().size(); i++) {
+                codigos.add(libro.idiomas().get(i));
+                idiomasDeLibros.add(new Elemento<>(libro.idGutendex(), libro.idiomas().get(i), i));
+            }
+        }
+        List<DatosAutor> datosAutores = List.copyOf(autores.values());
+
+        transacciones.executeWithoutResult(estado -> {
+            // Las tablas temporales viven en la conexión, que puede cambiar de un lote a otro
+            jdbcTemplate.execute(CREAR_AUTORES_INTERMEDIOS);
+            jdbcTemplate.execute(CREAR_LIBROS_INTERMEDIOS);
+            jdbcTemplate.execute(CREAR_AUTORES_DE_LIBROS_INTERMEDIOS);
+            jdbcTemplate.execute(CREAR_IDIOMAS_DE_LIBROS_INTERMEDIOS);
+            jdbcTemplate.execute(CREAR_LIBROS_FUSIONADOS);
+            jdbcTemplate.update("DELETE FROM importacion_autores");
+            jdbcTemplate.update("DELETE FROM importacion_libros");
+            jdbcTemplate.update("DELETE FROM importacion_libros_autores");
+            jdbcTemplate.update("DELETE FROM importacion_libros_idiomas");
+            jdbcTemplate.update("DELETE FROM importacion_fusionados");
+            // Los códigos nuevos se registran en esta transacción y se deshacen con ella
+            Map<String, Short> idsIdiomas = diccionarioIdiomas.ids(codigos);
+            jdbcTemplate.batchUpdate(INSERTAR_AUTOR_INTERMEDIO, datosAutores, datosAutores.size(), (ps, autor) -> {
+                ps.setString(1, autor.nombre());
+                ps.setObject(2, autor.fechaDeNacimiento(), Types.INTEGER);
+                ps.setObject(3, autor.fechaDeFallecimiento(), Types.INTEGER);
+            });
+            jdbcTemplate.batchUpdate(INSERTAR_LIBRO_INTERMEDIO, libros, libros.size(), (ps, libro) -> {
+                ps.setLong(1, libro.idGutendex());
+                ps.setString(2, libro.titulo());
+            });
+            jdbcTemplate.batchUpdate(INSERTAR_AUTOR_DE_LIBRO_INTERMEDIO, autoresDeLibros, autoresDeLibros.size(), (ps, autor) -> {
+                ps.setLong(1, autor.idGutendex());
+                ps.setString(2, autor.valor());
+                ps.setInt(3, autor.posicion());
+            });
+            jdbcTemplate.batchUpdate(INSERTAR_IDIOMA_DE_LIBRO_INTERMEDIO, idiomasDeLibros, idiomasDeLibros.size(), (ps, idioma) -> {
+                ps.setLong(1, idioma.idGutendex());
+                ps.setShort(2, idsIdiomas.get(idioma.valor()));
+                ps.setInt(3, idioma.posicion());
+            });
+
+            registrados[1] += jdbcTemplate.update(fusionarAutores);
+            // Las claves generadas son solo las filas que insertó esta sentencia, no las de otras escrituras simultáneas
+            KeyHolder claves = new GeneratedKeyHolder();
+            jdbcTemplate.update(conexion -> conexion.prepareStatement(fusionarLibros, new String[]{"id", "id_gutendex"}), claves);
+            List<Map<String, Object>> fusionados = claves.getKeyList();
+            if (!fusionados.isEmpty()) {
+                registrados[0] += fusionados.size();
+                jdbcTemplate.batchUpdate(INSERTAR_LIBRO_FUSIONADO, fusionados, fusionados.size(), (ps, fila) -> {
+                    ps.setLong(1, ((Number) fila.get("id")).longValue());
+                    ps.setLong(2, ((Number) fila.get("id_gutendex")).longValue());
+                });
+                jdbcTemplate.update(FUSIONAR_AUTORES_DE_LIBROS);
+                jdbcTemplate.update(FUSIONAR_IDIOMAS_DE_LIBROS);
+                // Los índices en memoria se enteran por el mismo evento que usa el registro desde la API
+                List<Long> idsNuevos = fusionados.stream().map(fila -> ((Number) fila.get("id")).longValue()).toList();
+                List<Libro> nuevos = libroRepository.findByIdIn(idsNuevos);
+                eventos.publishEvent(new LibrosRegistradosEvento(List.copyOf(nuevos)));
+            }
+        });
+    }
+
+    /**
+     * Convierte una fila del catálogo en un registro, o devuelve null si no es un libro de texto
+     * o le falta el título. Los autores y los idiomas pueden faltar.
+     */
+
+    static Registro convertir(List<String> campos, Columnas columnas) {
+        String tipo = columnas.valor(campos, columnas.tipo);
+        String titulo = columnas.valor(campos, columnas.titulo).replaceAll("\\s+", " ").trim();
+        if ((!tipo.isEmpty() && !tipo.equals("Text")) || titulo.isEmpty()) {
+            return null;
+        }
+        long idGutendex;
+        try {
+            idGutendex = Long.parseLong(columnas.valor(campos, columnas.id).trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        titulo = recortar(titulo, LONGITUD_MAXIMA_TITULO);
+        List<String> idiomas = valores(columnas.valor(campos, columnas.idioma)).stream()
+                .map(String::toLowerCase)
+                .distinct()
+                .toList();
+        Map<String, DatosAutor> autores = new LinkedHashMap<>();
+        for (String autor : valores(columnas.valor(campos, columnas.autores))) {
+            DatosAutor datosAutor = convertirAutor(autor);
+            if (!datosAutor.nombre().isEmpty()) {
+                autores.putIfAbsent(datosAutor.nombre(), datosAutor);
+            }
+        }
+        return new Registro(idGutendex, titulo, idiomas, List.copyOf(autores.values()));
+    }
+
+    /**
+     * Separa el nombre y los años de un autor con el formato del catálogo, por ejemplo
+     * "Austen, Jane, 1775-1817" o "Horace, 65 BCE-8 BCE [Editor]". Los años antes de Cristo
+     * se guardan en negativo, como los devuelve la API. Los nombres más largos que la columna
+     * se recortan, como los títulos.
+     */
+
+    static DatosAutor convertirAutor(String texto) {
+        String autor = ROL.matcher(texto.trim()).replaceAll("");
+        int coma = autor.lastIndexOf(',');
+        if (coma < 0) {
+            return new DatosAutor(recortar(autor, LONGITUD_MAXIMA_NOMBRE), null, null);
+        }
+        String ultimo = autor.substring(coma + 1).trim();
+        if (!ultimo.matches(".*\\d.*")) {
+            return new DatosAutor(recortar(autor, LONGITUD_MAXIMA_NOMBRE), null, null);
+        }
+        String nombre = recortar(autor.substring(0, coma).trim(), LONGITUD_MAXIMA_NOMBRE);
+        Matcher anios = ANIOS.matcher(ultimo);
+        if (!anios.matches()) {
+            return new DatosAutor(nombre, null, null);
+        }
+        return new DatosAutor(nombre, anio(anios.group(1), anios.group(2)), anio(anios.group(3), anios.group(4)));
+    }
+
+    private static String recortar(String texto, int longitudMaxima) {
+        return texto.length() > longitudMaxima ? texto.substring(0, longitudMaxima) : texto;
+    }
+
+    private static Integer anio(String numero, String antesDeCristo) {
+        if (numero == null) {
+            return null;
+        }
+        int anio = Integer.parseInt(numero);
+        return antesDeCristo == null ? anio : -anio;
+    }
+
+    // Los campos con varios valores vienen separados por punto y coma
+    private static List<String> valores(String campo) {
+        return Arrays.stream(campo.split(";"))
+                .map(String::trim)
+                .filter(valor -> !valor.isEmpty())
+                .toList();
+    }
+
+    private static LectorCsv abrir(Path archivo) throws IOException {
+        if (archivo.getFileName().toString().endsWith(".gz")) {
+            InputStream comprimido = new BufferedInputStream(Files.newInputStream(archivo), 64 * 1024);
+            return new LectorCsv(new GZIPInputStream(comprimido, 64 * 1024), 0);
+        }
+        return new LectorCsv(new FlujoMapeado(FileChannel.open(archivo, StandardOpenOption.READ)), 0);
+    }
+
+    private void guardarProgreso(Path archivo, long desplazamiento) {
+        try {
+            Path temporal = archivoProgreso.resolveSibling(archivoProgreso.getFileName() + ".tmp");
+            Files.writeString(temporal, desplazamiento + "\t" + archivo.toAbsolutePath());
+            Files.move(temporal, archivoProgreso, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Posiciones de las columnas que interesan, tomadas de la cabecera del archivo.
+     */
+
+    static final class Columnas {
+        private final int id;
+        private final int tipo;
+        private final int titulo;
+        private final int idioma;
+        private final int autores;
+
+        Columnas(List<String> cabecera) {
+            Map<String, Integer> posiciones = new HashMap<>();
+            for (int i = 0; i < cabecera.size(); i++) {
+                // La cabecera puede empezar con la marca de orden de bytes de UTF-8
+                posiciones.put(cabecera.get(i).replace("\uFEFF", "").trim(), i);
+            }
+            id = posiciones.getOrDefault("Text#", 0);
+            tipo = posiciones.getOrDefault("Type", -1);
+            titulo = posiciones.getOrDefault("Title", 3);
+            idioma = posiciones.getOrDefault("Language", 4);
+            autores = posiciones.getOrDefault("Authors", 5);
+        }
+
+        String valor(List<String> campos, int columna) {
+            return columna >= 0 && columna < campos.size() ? campos.get(columna) : "";
+        }
+    }
+
+    /**
+     * Flujo de lectura sobre un archivo proyectado en memoria por ventanas, para no depender
+     * del límite de 2 GB de un único {@link MappedByteBuffer}.
+     */
+
+    private static final class FlujoMapeado extends InputStream {
+        private final FileChannel canal;
+        private final long tamano;
+        private long posicion;
+        private long inicioVentana;
+        private MappedByteBuffer ventana;
+
+        FlujoMapeado(FileChannel canal) throws IOException {
+            this.canal = canal;
+            this.tamano = canal.size();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] uno = new byte[1];
+            return read(uno, 0, 1) == -1 ? -1 : uno[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] destino, int desde, int longitud) throws IOException {
+            if (posicion >= tamano) {
+                return -1;
+            }
+            if (ventana == null || posicion >= inicioVentana + ventana.capacity()) {
+                inicioVentana = posicion;
+                ventana = canal.map(FileChannel.MapMode.READ_ONLY, posicion, Math.min(VENTANA_MAPEO, tamano - posicion));
+            }
+            int enVentana = (int) (inicioVentana + ventana.capacity() - posicion);
+            int leidos = Math.min(longitud, enVentana);
+            ventana.get((int) (posicion - inicioVentana), destino, desde, leidos);
+            posicion += leidos;
+            return leidos;
+        }
+
+        @Override
+        public long skip(long cantidad) {
+            long saltados = Math.max(0, Math.min(cantidad, tamano - posicion));
+            posicion += saltados;
+            return saltados;
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+}
\ No newline at end of file
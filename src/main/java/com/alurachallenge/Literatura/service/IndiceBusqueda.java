@@ -0,0 +1,61 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Índices de trigramas sobre los títulos de los libros y los nombres de los autores.
+ * Se construyen al arrancar la aplicación a partir de los repositorios y se actualizan
+ * cada vez que se confirma el registro de libros nuevos.
+ */
+
+@Service
+public class IndiceBusqueda {
+    private final IndiceTrigramas titulos = new IndiceTrigramas();
+    private final IndiceTrigramas autores = new IndiceTrigramas();
+    private final ListadoCatalogo listadoCatalogo;
+
+    public IndiceBusqueda(ListadoCatalogo listadoCatalogo) {
+        this.listadoCatalogo = listadoCatalogo;
+    }
+
+    // ApplicationStartedEvent llega antes de que arranque el menú de la consola
+    @EventListener(ApplicationStartedEvent.class)
+    public void construir() {
+        listadoCatalogo.recorrerAutores(autor -> autores.agregar(autor.getId(), autor.getNombre()));
+        listadoCatalogo.recorrerLibros(libro -> titulos.agregar(libro.getId(), libro.getTitulo()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alRegistrarLibros(LibrosRegistradosEvento evento) {
+        for (Libro libro : evento.libros()) {
+            titulos.agregar(libro.getId(), libro.getTitulo());
+            libro.getAutores().forEach(autor -> autores.agregar(autor.getId(), autor.getNombre()));
+        }
+    }
+
+    public List<Long> buscarLibrosPorTitulo(String consulta, int limite) {
+        return titulos.buscarSubcadena(consulta, limite);
+    }
+
+    /**
+     * Indica si ya hay un libro registrado con ese título, comparando los títulos normalizados.
+     */
+
+    public boolean existeTitulo(String titulo) {
+        return titulos.contiene(titulo);
+    }
+
+    public List<Long> buscarAutoresPorNombre(String consulta, int limite) {
+        return autores.buscarSubcadena(consulta, limite);
+    }
+
+    public List<IndiceTrigramas.Coincidencia> sugerirAutores(String consulta, int limite) {
+        return autores.buscarAproximado(consulta, limite, 0.25);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,240 @@
+package com.alurachallenge.Literatura.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de trigramas en memoria: asocia cada grupo de tres caracteres
+ * con los documentos (títulos o nombres) que lo contienen.
+ * Los textos se normalizan sin mayúsculas, acentos ni signos de puntuación, de modo que
+ * "bronte" encuentra "Brontë, Charlotte". Permite búsquedas por subcadena y búsquedas
+ * aproximadas ordenadas por similitud; ambas devuelven ids de la base de datos.
+ */
+
+public class IndiceTrigramas {
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern NO_ALFANUMERICO = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Cada documento tiene un número interno consecutivo; las listas de apariciones quedan ordenadas
+    private long[] ids = new long[1024];
+    private String[] textos = new String[1024];
+    private int[] trigramasPorDocumento = new int[1024];
+    private int documentos;
+    private final Map<Long, Integer> documentoPorId = new HashMap<>();
+    private final Map<Long, Apariciones> apariciones = new HashMap<>();
+    private final ReadWriteLock bloqueo = new ReentrantReadWriteLock();
+
+    public record Coincidencia(long id, double similitud) {}
+
+    /**
+     * Lista de números de documento en orden creciente, con crecimiento amortizado.
+     */
+
+    private static final class Apariciones {
+        private int[] documentos = new int[4];
+        private int tamano;
+
+        void agregar(int documento) {
+            if (tamano > 0 && documentos[tamano - 1] == documento) {
+                return;
+            }
+            if (tamano == documentos.length) {
+                documentos = Arrays.copyOf(documentos, tamano * 2);
+            }
+            documentos[tamano++] = documento;
+        }
+    }
+
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return NO_ALFANUMERICO.matcher(sinAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    public int tamano() {
+        bloqueo.readLock().lock();
+        try {
+            return documentos;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Agrega un documento. Si el id ya estaba indexado no se hace nada.
+     */
+
+    public void agregar(long id, String texto) {
+        // Los espacios en los extremos generan trigramas de inicio y fin de palabra
+        String normalizado = " " + normalizar(texto) + " ";
+        long[] trigramas = trigramas(normalizado);
+        bloqueo.writeLock().lock();
+        try {
+            if (documentoPorId.containsKey(id)) {
+                return;
+            }
+            if (documentos == ids.length) {
+                int capacidad = documentos * 2;
+                ids = Arrays.copyOf(ids, capacidad);
+                textos = Arrays.copyOf(textos, capacidad);
+                trigramasPorDocumento = Arrays.copyOf(trigramasPorDocumento, capacidad);
+            }
+            int documento = documentos++;
+            ids[documento] = id;
+            textos[documento] = normalizado;
+            trigramasPorDocumento[documento] = trigramas.length;
+            documentoPorId.put(id, documento);
+            for (long trigrama : trigramas) {
+                apariciones.computeIfAbsent(trigrama, clave -> new Apariciones()).agregar(documento);
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve los ids de los documentos que contienen la consulta normalizada como subcadena.
+     */
+
+    public List<Long> buscarSubcadena(String consulta, int limite) {
+        String normalizada = normalizar(consulta);
+        List<Long> resultado = new ArrayList<>();
+        if (normalizada.isEmpty()) {
+            return resultado;
+        }
+        long[] trigramas = trigramas(normalizada);
+        bloqueo.readLock().lock();
+        try {
+            if (trigramas.length == 0) {
+                // Consultas de menos de tres caracteres: no hay trigramas, se recorre la lista
+                for (int documento = 0; documento < documentos && resultado.size() < limite; documento++) {
+                    if (textos[documento].contains(normalizada)) {
+                        resultado.add(ids[documento]);
+                    }
+                }
+                return resultado;
+            }
+            Apariciones[] listas = new Apariciones[trigramas.length];
+            for (int i = 0; i < trigramas.length; i++) {
+                listas[i] = apariciones.get(trigramas[i]);
+                if (listas[i] == null) {
+                    return resultado;
+                }
+            }
+            // Se intersecan empezando por la lista más corta; el resto se comprueba por búsqueda binaria
+            Arrays.sort(listas, Comparator.comparingInt(lista -> lista.tamano));
+            Apariciones menor = listas[0];
+            for (int i = 0; i < menor.tamano && resultado.size() < limite; i++) {
+                int documento = menor.documentos[i];
+                if (estaEnTodas(listas, documento) && textos[documento].contains(normalizada)) {
+                    resultado.add(ids[documento]);
+                }
+            }
+            return resultado;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indica si hay un documento cuyo texto normalizado coincide por completo con el indicado.
+     * Los candidatos salen de la lista de apariciones más corta de sus trigramas.
+     */
+
+    public boolean contiene(String texto) {
+        String normalizado = normalizar(texto);
+        if (normalizado.isEmpty()) {
+            return false;
+        }
+        String buscado = " " + normalizado + " ";
+        long[] trigramas = trigramas(buscado);
+        bloqueo.readLock().lock();
+        try {
+            Apariciones menor = null;
+            for (long trigrama : trigramas) {
+                Apariciones lista = apariciones.get(trigrama);
+                if (lista == null) {
+                    return false;
+                }
+                if (menor == null || lista.tamano < menor.tamano) {
+                    menor = lista;
+                }
+            }
+            for (int i = 0; menor != null && i < menor.tamano; i++) {
+                if (textos[menor.documentos[i]].equals(buscado)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve los documentos más parecidos a la consulta, ordenados por similitud de Jaccard
+     * sobre sus trigramas. Tolera errores de escritura y palabras en otro orden.
+     */
+
+    public List<Coincidencia> buscarAproximado(String consulta, int limite, double similitudMinima) {
+        long[] trigramas = trigramas(" " + normalizar(consulta) + " ");
+        if (trigramas.length == 0) {
+            return List.of();
+        }
+        bloqueo.readLock().lock();
+        try {
+            Map<Integer, Integer> compartidos = new HashMap<>();
+            for (long trigrama : trigramas) {
+                Apariciones lista = apariciones.get(trigrama);
+                if (lista != null) {
+                    for (int i = 0; i < lista.tamano; i++) {
+                        compartidos.merge(lista.documentos[i], 1, Integer::sum);
+                    }
+                }
+            }
+            List<Coincidencia> coincidencias = new ArrayList<>();
+            compartidos.forEach((documento, comunes) -> {
+                double similitud = (double) comunes / (trigramas.length + trigramasPorDocumento[documento] - comunes);
+                if (similitud >= similitudMinima) {
+                    coincidencias.add(new Coincidencia(ids[documento], similitud));
+                }
+            });
+            coincidencias.sort(Comparator.comparingDouble(Coincidencia::similitud).reversed());
+            return coincidencias.size() > limite ? List.copyOf(coincidencias.subList(0, limite)) : coincidencias;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    private static boolean estaEnTodas(Apariciones[] listas, int documento) {
+        for (int i = 1; i < listas.length; i++) {
+            if (Arrays.binarySearch(listas[i].documentos, 0, listas[i].tamano, documento) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Trigramas distintos del texto, cada uno empaquetado en un long (16 bits por carácter)
+    private static long[] trigramas(String texto) {
+        if (texto.length() < 3) {
+            return new long[0];
+        }
+        long[] resultado = new long[texto.length() - 2];
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            resultado[i] = ((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2);
+        }
+        return Arrays.stream(resultado).distinct().toArray();
+    }
+}
@@ -0,0 +1,161 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Autor;
+import com.alurachallenge.Literatura.Model.Libro;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de los años de vida de los autores para responder "¿quién vivía en el año Y?"
+ * y "¿quién vivió en algún momento entre Y1 e Y2?" sin recorrer la tabla de autores.
+ *
+ * <p>Las vidas con nacimiento y fallecimiento conocidos se guardan en un árbol de segmentos
+ * sobre los años: cada vida se reparte en O(log R) nodos y una consulta por año recorre un
+ * único camino de la raíz a la hoja, en O(log R + k). Para los rangos se suman los autores
+ * nacidos dentro del rango, que se obtienen de un mapa ordenado por año de nacimiento.
+ *
+ * <p>Se sigue el criterio de la consulta original: un autor está vivo en Y si nació en Y o
+ * antes y falleció después de Y. Los autores sin año de fallecimiento (vivos o con el dato
+ * desconocido) se guardan aparte y se devuelven en una lista separada, porque no se puede
+ * afirmar que siguieran vivos. Los autores sin año de nacimiento no se indexan, y tampoco los
+ * que tienen el fallecimiento en el año de nacimiento o antes: con ese criterio no están vivos en
+ * ningún año, y un fallecimiento anterior al nacimiento es un dato erróneo de la API.
+ */
+
+@Service
+public class IndiceVidaAutores {
+    private static final int ANIO_MINIMO = -4000;
+    private static final int ANIO_MAXIMO = 2200;
+
+    private final int tamano = ANIO_MAXIMO - ANIO_MINIMO + 1;
+    private final long[][] nodos = new long[4 * tamano][];
+    private final int[] ocupados = new int[4 * tamano];
+    private final TreeMap<Integer, List<Long>> cerradosPorNacimiento = new TreeMap<>();
+    private final TreeMap<Integer, List<Long>> abiertosPorNacimiento = new TreeMap<>();
+    private final Set<Long> indexados = new HashSet<>();
+    private final ReadWriteLock bloqueo = new ReentrantReadWriteLock();
+    private final ListadoCatalogo listadoCatalogo;
+
+    public record AutoresVivos(List<Long> confirmados, List<Long> sinFechaDeFallecimiento) {}
+
+    public IndiceVidaAutores(ListadoCatalogo listadoCatalogo) {
+        this.listadoCatalogo = listadoCatalogo;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void construir() {
+        listadoCatalogo.recorrerAutores(autor ->
+                agregar(autor.getId(), autor.getFechaDeNacimiento(), autor.getFechaDeFallecimiento()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alRegistrarLibros(LibrosRegistradosEvento evento) {
+        for (Libro libro : evento.libros()) {
+            for (Autor autor : libro.getAutores()) {
+                agregar(autor.getId(), autor.getFechaDeNacimiento(), autor.getFechaDeFallecimiento());
+            }
+        }
+    }
+
+    public void agregar(long id, Integer nacimiento, Integer fallecimiento) {
+        if (nacimiento == null) {
+            return;
+        }
+        bloqueo.writeLock().lock();
+        try {
+            if (!indexados.add(id)) {
+                return;
+            }
+            if (fallecimiento == null) {
+                abiertosPorNacimiento.computeIfAbsent(nacimiento, anio -> new ArrayList<>()).add(id);
+            } else if (fallecimiento > nacimiento) {
+                // Con fallecimiento <= nacimiento no estaría vivo en ningún año y no se indexa
+                cerradosPorNacimiento.computeIfAbsent(nacimiento, anio -> new ArrayList<>()).add(id);
+                // Años en los que estaba vivo: desde el nacimiento hasta el año anterior al fallecimiento
+                insertar(1, 0, tamano - 1, posicion(nacimiento), posicion(fallecimiento - 1), id);
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    public AutoresVivos vivosEn(int anio) {
+        return vivosEntre(anio, anio);
+    }
+
+    /**
+     * Autores cuya vida se solapa con el rango [desde, hasta], ambos incluidos.
+     */
+
+    public AutoresVivos vivosEntre(int desde, int hasta) {
+        if (hasta < desde) {
+            return new AutoresVivos(List.of(), List.of());
+        }
+        bloqueo.readLock().lock();
+        try {
+            List<Long> confirmados = new ArrayList<>();
+            // Vivos en el primer año del rango...
+            consultar(1, 0, tamano - 1, posicion(desde), confirmados);
+            // ...más los que nacieron después, dentro del rango
+            cerradosPorNacimiento.subMap(desde, false, hasta, true).values().forEach(confirmados::addAll);
+
+            List<Long> sinFechaDeFallecimiento = new ArrayList<>();
+            abiertosPorNacimiento.headMap(hasta, true).values().forEach(sinFechaDeFallecimiento::addAll);
+            return new AutoresVivos(confirmados, sinFechaDeFallecimiento);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    private void insertar(int nodo, int izquierda, int derecha, int desde, int hasta, long id) {
+        if (hasta < izquierda || derecha < desde) {
+            return;
+        }
+        if (desde <= izquierda && derecha <= hasta) {
+            if (nodos[nodo] == null) {
+                nodos[nodo] = new long[2];
+            } else if (ocupados[nodo] == nodos[nodo].length) {
+                nodos[nodo] = Arrays.copyOf(nodos[nodo], ocupados[nodo] * 2);
+            }
+            nodos[nodo][ocupados[nodo]++] = id;
+            return;
+        }
+        int medio = (izquierda + derecha) >>> 1;
+        insertar(2 * nodo, izquierda, medio, desde, hasta, id);
+        insertar(2 * nodo + 1, medio + 1, derecha, desde, hasta, id);
+    }
+
+    private void consultar(int nodo, int izquierda, int derecha, int anio, List<Long> resultado) {
+        while (true) {
+            for (int i = 0; i < ocupados[nodo]; i++) {
+                resultado.add(nodos[nodo][i]);
+            }
+            if (izquierda == derecha) {
+                return;
+            }
+            int medio = (izquierda + derecha) >>> 1;
+            if (anio <= medio) {
+                nodo = 2 * nodo;
+                derecha = medio;
+            } else {
+                nodo = 2 * nodo + 1;
+                izquierda = medio + 1;
+            }
+        }
+    }
+
+    private int posicion(int anio) {
+        return Math.max(ANIO_MINIMO, Math.min(ANIO_MAXIMO, anio)) - ANIO_MINIMO;
+    }
+}
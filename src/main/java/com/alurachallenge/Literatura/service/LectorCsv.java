@@ -0,0 +1,145 @@
+package com.alurachallenge.Literatura.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lector de CSV (RFC 4180) que trabaja directamente sobre bytes UTF-8.
+ * Admite campos entre comillas con comas, saltos de línea y comillas dobladas, y lleva
+ * la cuenta del desplazamiento en bytes del final del último registro leído, que es
+ * el punto desde el que se puede reanudar una lectura interrumpida.
+ */
+
+class LectorCsv implements AutoCloseable {
+    private final InputStream entrada;
+    private final byte[] buffer = new byte[64 * 1024];
+    private int posicion;
+    private int limite;
+    private long desplazamientoBuffer;
+    private byte[] campo = new byte[256];
+    private int longitudCampo;
+
+    LectorCsv(InputStream entrada, long desplazamientoInicial) {
+        this.entrada = entrada;
+        this.desplazamientoBuffer = desplazamientoInicial;
+    }
+
+    /**
+     * Desplazamiento en bytes, desde el principio del archivo, justo después del último registro leído.
+     */
+
+    long desplazamiento() {
+        return desplazamientoBuffer + posicion;
+    }
+
+    /**
+     * Descarta los bytes que haya hasta el desplazamiento indicado.
+     */
+
+    void saltarHasta(long destino) throws IOException {
+        long pendiente = destino - desplazamiento();
+        int enBuffer = (int) Math.min(pendiente, limite - posicion);
+        posicion += enBuffer;
+        pendiente -= enBuffer;
+        while (pendiente > 0) {
+            long saltados = entrada.skip(pendiente);
+            if (saltados <= 0) {
+                if (entrada.read() == -1) {
+                    break;
+                }
+                saltados = 1;
+            }
+            desplazamientoBuffer += saltados;
+            pendiente -= saltados;
+        }
+    }
+
+    /**
+     * Devuelve los campos del siguiente registro, o null al llegar al final del archivo.
+     */
+
+    List<String> siguiente() throws IOException {
+        int actual = leer();
+        if (actual == -1) {
+            return null;
+        }
+        List<String> campos = new ArrayList<>(12);
+        boolean entreComillas = false;
+        boolean campoEntrecomillado = false;
+        longitudCampo = 0;
+        while (true) {
+            if (entreComillas) {
+                if (actual == -1) {
+                    campos.add(textoCampo());
+                    return campos;
+                }
+                if (actual == '"') {
+                    if (mirar() == '"') {
+                        leer();
+                        agregar('"');
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    agregar(actual);
+                }
+            } else if (actual == -1 || actual == '\n') {
+                campos.add(textoCampo());
+                return campos;
+            } else if (actual == ',') {
+                campos.add(textoCampo());
+                longitudCampo = 0;
+                campoEntrecomillado = false;
+            } else if (actual == '"' && longitudCampo == 0 && !campoEntrecomillado) {
+                entreComillas = true;
+                campoEntrecomillado = true;
+            } else if (actual != '\r') {
+                agregar(actual);
+            }
+            actual = leer();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        entrada.close();
+    }
+
+    private String textoCampo() {
+        return new String(campo, 0, longitudCampo, StandardCharsets.UTF_8);
+    }
+
+    private void agregar(int valor) {
+        if (longitudCampo == campo.length) {
+            campo = Arrays.copyOf(campo, campo.length * 2);
+        }
+        campo[longitudCampo++] = (byte) valor;
+    }
+
+    private int leer() throws IOException {
+        if (posicion == limite && !rellenar()) {
+            return -1;
+        }
+        return buffer[posicion++] & 0xFF;
+    }
+
+    private int mirar() throws IOException {
+        if (posicion == limite && !rellenar()) {
+            return -1;
+        }
+        return buffer[posicion] & 0xFF;
+    }
+
+    private boolean rellenar() throws IOException {
+        desplazamientoBuffer += limite;
+        posicion = 0;
+        limite = 0;
+        int leidos = entrada.readNBytes(buffer, 0, buffer.length);
+        limite = Math.max(leidos, 0);
+        return limite > 0;
+    }
+}
\ No newline at end of file
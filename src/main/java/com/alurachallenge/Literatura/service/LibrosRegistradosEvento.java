@@ -0,0 +1,12 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+
+import java.util.List;
+
+/**
+ * Se publica cuando se guardan libros nuevos. Los libros llevan su autor ya cargado,
+ * para que los índices en memoria puedan actualizarse sin volver a la base de datos.
+ */
+
+public record LibrosRegistradosEvento(List<Libro> libros) {}
\ No newline at end of file
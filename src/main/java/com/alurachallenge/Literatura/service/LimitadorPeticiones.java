@@ -0,0 +1,36 @@
+package com.alurachallenge.Literatura.service;
+
+import java.time.Duration;
+
+/**
+ * Reparte las peticiones a un ritmo máximo constante.
+ * Cada llamada a {@link #esperarTurno()} reserva el siguiente hueco libre y espera hasta
+ * que llega, así que varios hilos pueden compartir el mismo limitador sin ráfagas.
+ */
+
+public class LimitadorPeticiones {
+    private final long intervaloNanos;
+    private long siguienteTurno = System.nanoTime();
+
+    public LimitadorPeticiones(double peticionesPorSegundo) {
+        // Un ritmo de 0 o negativo desactiva el límite
+        this.intervaloNanos = peticionesPorSegundo > 0 ? (long) (1_000_000_000L / peticionesPorSegundo) : 0;
+    }
+
+    public void esperarTurno() {
+        long turno;
+        synchronized (this) {
+            turno = Math.max(siguienteTurno, System.nanoTime());
+            siguienteTurno = turno + intervaloNanos;
+        }
+        long espera = turno - System.nanoTime();
+        if (espera > 0) {
+            try {
+                Thread.sleep(Duration.ofNanos(espera));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.Repository.AutorRepository;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.dto.AutorResumen;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Recorre las tablas completas sin cargarlas en una lista.
+ * Los libros y los autores se leen por páginas de tipo keyset, así que la memoria usada no
+ * depende del tamaño de la tabla. Cada página de libros son dos consultas: los ids siguientes
+ * al último recibido y los libros de esos ids con sus autores e idiomas.
+ */
+
+@Service
+public class ListadoCatalogo {
+    private final LibroRepository libroRepository;
+    private final AutorRepository autorRepository;
+    private final int tamanoPaginaLibros;
+    private final int tamanoPagina;
+
+    public ListadoCatalogo(LibroRepository libroRepository, AutorRepository autorRepository,
+                           @Value("${literatura.listado.tamano-pagina-libros:500}") int tamanoPaginaLibros,
+                           @Value("${literatura.listado.tamano-pagina:500}") int tamanoPagina) {
+        this.libroRepository = libroRepository;
+        this.autorRepository = autorRepository;
+        this.tamanoPaginaLibros = tamanoPaginaLibros;
+        this.tamanoPagina = tamanoPagina;
+    }
+
+    /**
+     * Entrega cada libro (con sus autores e idiomas) al consumidor en orden de id.
+     * Devuelve cuántos libros se recorrieron.
+     */
+
+    public long recorrerLibros(Consumer<Libro> consumidor) {
+        long total = 0;
+        long ultimoId = 0;
+        List<Libro> pagina;
+        do {
+            // Cada página se lee en su propia transacción; sus entidades no se acumulan
+            pagina = libroRepository.cargarEnOrden(libroRepository.buscarIdsDespuesDe(ultimoId, Limit.of(tamanoPaginaLibros)));
+            for (Libro libro : pagina) {
+                consumidor.accept(libro);
+                ultimoId = libro.getId();
+                total++;
+            }
+        } while (pagina.size() == tamanoPaginaLibros);
+        return total;
+    }
+
+    /**
+     * Entrega los autores en orden alfabético, pidiendo cada página a partir del último
+     * nombre recibido en lugar de usar OFFSET.
+     */
+
+    public long recorrerAutores(Consumer<AutorResumen> consumidor) {
+        long total = 0;
+        String ultimoNombre = "";
+        List<AutorResumen> pagina;
+        do {
+            pagina = autorRepository.findByNombreGreaterThanOrderByNombreAsc(ultimoNombre, Limit.of(tamanoPagina));
+            for (AutorResumen autor : pagina) {
+                consumidor.accept(autor);
+                ultimoNombre = autor.getNombre();
+                total++;
+            }
+        } while (pagina.size() == tamanoPagina);
+        return total;
+    }
+}
@@ -0,0 +1,66 @@
+package com.alurachallenge.Literatura.service;
+
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Pasa los libros guardados con el modelo anterior, que tenía un único autor ({@code libros.autor_id})
+ * y un único idioma ({@code libros.idioma}), a las tablas {@code libros_autores} y {@code libros_idiomas}.
+ * Con {@code ddl-auto=update} Hibernate crea las tablas nuevas pero deja las columnas viejas,
+ * así que la copia se hace al arrancar y después se borran esas columnas. Si no existen no hace nada.
+ * También asegura el índice (idioma_id, libro_id) de {@code libros_idiomas}, que sustituye al de
+ * (idioma, numero_de_descargas) para las consultas por idioma.
+ */
+
+@Service
+public class MigracionAutoresEIdiomas {
+    private static final String EXISTE_COLUMNA = """
+            SELECT COUNT(*) FROM information_schema.columns
+            WHERE table_schema = CURRENT_SCHEMA AND table_name = 'libros' AND column_name = ?""";
+    private static final String COPIAR_AUTORES = """
+            INSERT INTO libros_autores (libro_id, autor_id, posicion)
+            SELECT l.id, l.autor_id, 0 FROM libros l
+            WHERE l.autor_id IS NOT NULL
+            AND NOT EXISTS (SELECT 1 FROM libros_autores la WHERE la.libro_id = l.id)""";
+    private static final String COPIAR_CODIGOS_DE_IDIOMA = """
+            INSERT INTO idiomas (codigo)
+            SELECT DISTINCT idioma FROM libros WHERE idioma IS NOT NULL
+            ON CONFLICT DO NOTHING""";
+    private static final String CREAR_INDICE_IDIOMAS = """
+            CREATE INDEX IF NOT EXISTS idx_libros_idiomas_idioma ON libros_idiomas (idioma_id, libro_id)""";
+    private static final String COPIAR_IDIOMAS = """
+            INSERT INTO libros_idiomas (libro_id, idioma_id, posicion)
+            SELECT l.id, i.id, 0 FROM libros l JOIN idiomas i ON i.codigo = l.idioma
+            WHERE NOT EXISTS (SELECT 1 FROM libros_idiomas li WHERE li.libro_id = l.id)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MigracionAutoresEIdiomas(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // El contexto se refresca antes de ApplicationStartedEvent, cuando se cargan los índices en memoria
+    @EventListener(ContextRefreshedEvent.class)
+    @Transactional
+    public void migrar() {
+        if (existeColumna("autor_id")) {
+            jdbcTemplate.update(COPIAR_AUTORES);
+            jdbcTemplate.execute("ALTER TABLE libros DROP COLUMN autor_id");
+        }
+        if (existeColumna("idioma")) {
+            jdbcTemplate.update(COPIAR_CODIGOS_DE_IDIOMA);
+            jdbcTemplate.update(COPIAR_IDIOMAS);
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_libros_idioma_descargas");
+            jdbcTemplate.execute("ALTER TABLE libros DROP COLUMN idioma");
+        }
+        jdbcTemplate.execute(CREAR_INDICE_IDIOMAS);
+    }
+
+    private boolean existeColumna(String columna) {
+        Integer columnas = jdbcTemplate.queryForObject(EXISTE_COLUMNA, Integer.class, columna);
+        return columnas != null && columnas > 0;
+    }
+}
\ No newline at end of file
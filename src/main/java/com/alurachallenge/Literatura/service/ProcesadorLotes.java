@@ -0,0 +1,341 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.dto.Datos;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Procesa un lote de consultas sin intervención del usuario, una por línea:
+ * {@code titulo: ...} (o solo el texto) registra el primer libro cuyo título la contenga y
+ * {@code autor: ...} registra todos los libros de la primera página de resultados.
+ * Las líneas vacías y las que empiezan por {@code #} se ignoran.
+ *
+ * <p>Las consultas pasan por tres etapas que trabajan en paralelo: descarga con
+ * {@link ConsumoAPI}, conversión con {@link ConvierteDatos} y registro con {@link RegistroLibros}.
+ * Cada etapa tiene su propia concurrencia y se comunica con la siguiente por una cola acotada,
+ * así que una etapa lenta frena a las anteriores en lugar de acumular trabajo en memoria.
+ * La etapa de registro agrupa las consultas que encuentra en la cola en una sola transacción;
+ * si el grupo falla, registra cada consulta por separado para que un libro erróneo solo haga
+ * fallar su propia consulta. Los libros ya registrados se cuentan una vez por título aunque
+ * los encuentren varias consultas.
+ */
+
+@Service
+public class ProcesadorLotes {
+    private static final Logger log = LoggerFactory.getLogger(ProcesadorLotes.class);
+    private static final int CONSULTAS_POR_REGISTRO = 32;
+
+    private final ConsumoAPI consumoAPI;
+    private final ConvierteDatos conversor;
+    private final RegistroLibros registroLibros;
+    private final int capacidadCola;
+    private final int concurrenciaDescarga;
+    private final int concurrenciaConversion;
+    private final int concurrenciaRegistro;
+    private final String urlBase;
+
+    public record MedicionEtapa(String nombre, int concurrencia, long procesadas, double p50Ms, double p99Ms) {}
+
+    public record ResumenLote(long consultas, long librosRegistrados, long yaRegistrados, long sinResultados,
+                              long fallidas, Duration duracion, List<MedicionEtapa> etapas, MedicionEtapa total) {
+        public double consultasPorSegundo() {
+            return consultas / Math.max(duracion.toNanos() / 1e9, 1e-9);
+        }
+    }
+
+    private record Consulta(boolean porAutor, String texto, long inicio) {}
+
+    private record Descargada(Consulta consulta, String cuerpo) {}
+
+    private record Convertida(Consulta consulta, List<DatosLibro> libros) {}
+
+    public ProcesadorLotes(ConsumoAPI consumoAPI, ConvierteDatos conversor, RegistroLibros registroLibros,
+                           @Value("${literatura.lote.capacidad-cola:100}") int capacidadCola,
+                           @Value("${literatura.lote.concurrencia-descarga:8}") int concurrenciaDescarga,
+                           @Value("${literatura.lote.concurrencia-conversion:2}") int concurrenciaConversion,
+                           @Value("${literatura.lote.concurrencia-registro:2}") int concurrenciaRegistro,
+                           ConfiguracionGutendex gutendex) {
+        this.consumoAPI = consumoAPI;
+        this.conversor = conversor;
+        this.registroLibros = registroLibros;
+        this.capacidadCola = Math.max(1, capacidadCola);
+        this.concurrenciaDescarga = Math.max(1, concurrenciaDescarga);
+        this.concurrenciaConversion = Math.max(1, concurrenciaConversion);
+        this.concurrenciaRegistro = Math.max(1, concurrenciaRegistro);
+        this.urlBase = gutendex.urlBase();
+    }
+
+    public ResumenLote procesar(BufferedReader entrada) {
+        long inicio = System.nanoTime();
+        LongAdder consultas = new LongAdder();
+        LongAdder registrados = new LongAdder();
+        Set<String> encontrados = ConcurrentHashMap.newKeySet();
+        LongAdder sinResultados = new LongAdder();
+        LongAdder fallidas = new LongAdder();
+        Duraciones total = new Duraciones();
+
+        Cola<Consulta> pendientes = new Cola<>(capacidadCola);
+        Cola<Descargada> descargadas = new Cola<>(capacidadCola);
+        Cola<Convertida> convertidas = new Cola<>(capacidadCola);
+
+        var descarga = new Etapa<Consulta, Descargada>("descarga", concurrenciaDescarga, 1, fallidas,
+                (lote, salida) -> {
+                    Consulta consulta = lote.get(0);
+                    salida.accept(new Descargada(consulta, consumoAPI.obtenerDatos(ServicioCatalogo.urlDeBusqueda(urlBase, consulta.texto()))));
+                });
+        var conversion = new Etapa<Descargada, Convertida>("conversión", concurrenciaConversion, 1, fallidas,
+                (lote, salida) -> {
+                    Descargada descargada = lote.get(0);
+                    Datos datos = conversor.obtenerDatos(descargada.cuerpo(), Datos.class);
+                    List<DatosLibro> libros = datos.resultados() == null ? List.of() : elegir(descargada.consulta(), datos.resultados());
+                    if (libros.isEmpty()) {
+                        sinResultados.increment();
+                        total.registrar(System.nanoTime() - descargada.consulta().inicio());
+                    } else {
+                        salida.accept(new Convertida(descargada.consulta(), libros));
+                    }
+                });
+        var registro = new Etapa<Convertida, Void>("registro", concurrenciaRegistro, CONSULTAS_POR_REGISTRO, fallidas,
+                (lote, salida) -> {
+                    try {
+                        registrar(lote, registrados, encontrados, total);
+                    } catch (RuntimeException e) {
+                        if (lote.size() == 1) {
+                            throw e;
+                        }
+                        log.warn("Falló el registro de {} consultas juntas; se registran por separado: {}", lote.size(), e.getMessage());
+                        for (Convertida convertida : lote) {
+                            try {
+                                registrar(List.of(convertida), registrados, encontrados, total);
+                            } catch (RuntimeException errorConsulta) {
+                                fallidas.increment();
+                                log.warn("Falló el registro de la consulta \"{}\": {}", convertida.consulta().texto(), errorConsulta.getMessage());
+                            }
+                        }
+                    }
+                });
+
+        descarga.iniciar(pendientes, descargadas);
+        conversion.iniciar(descargadas, convertidas);
+        registro.iniciar(convertidas, null);
+        try {
+            String linea;
+            while ((linea = entrada.readLine()) != null) {
+                Consulta consulta = leerConsulta(linea);
+                if (consulta != null) {
+                    consultas.increment();
+                    pendientes.poner(consulta);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // Cada etapa se cierra cuando la anterior ha terminado y su cola se ha vaciado
+            pendientes.cerrar();
+            descarga.esperar();
+            descargadas.cerrar();
+            conversion.esperar();
+            convertidas.cerrar();
+            registro.esperar();
+        }
+
+        // Cada título encontrado cuenta una vez: o lo registró este lote o ya estaba registrado
+        return new ResumenLote(consultas.sum(), registrados.sum(), encontrados.size() - registrados.sum(), sinResultados.sum(),
+                fallidas.sum(), Duration.ofNanos(System.nanoTime() - inicio),
+                List.of(descarga.medicion(), conversion.medicion(), registro.medicion()),
+                total.medicion("total", 0));
+    }
+
+    private void registrar(List<Convertida> lote, LongAdder registrados, Set<String> encontrados, Duraciones total) {
+        List<DatosLibro> libros = lote.stream().flatMap(convertida -> convertida.libros().stream()).toList();
+        List<Libro> nuevos = registroLibros.registrarTodos(libros);
+        registrados.add(nuevos.size());
+        libros.stream().map(DatosLibro::titulo).filter(Objects::nonNull).forEach(encontrados::add);
+        long fin = System.nanoTime();
+        lote.forEach(convertida -> total.registrar(fin - convertida.consulta().inicio()));
+    }
+
+    private static Consulta leerConsulta(String linea) {
+        String texto = linea.strip();
+        if (texto.isEmpty() || texto.startsWith("#")) {
+            return null;
+        }
+        boolean porAutor = false;
+        int separador = texto.indexOf(':');
+        if (separador > 0) {
+            String prefijo = texto.substring(0, separador).strip().toLowerCase();
+            if (prefijo.equals("autor") || prefijo.equals("titulo") || prefijo.equals("título")) {
+                porAutor = prefijo.equals("autor");
+                texto = texto.substring(separador + 1).strip();
+            }
+        }
+        return texto.isEmpty() ? null : new Consulta(porAutor, texto, System.nanoTime());
+    }
+
+    // Mismo criterio que las opciones del menú: por título, el primer resultado que lo contenga
+    private static List<DatosLibro> elegir(Consulta consulta, List<DatosLibro> resultados) {
+        if (consulta.porAutor()) {
+            return resultados;
+        }
+        String buscado = IndiceTrigramas.normalizar(consulta.texto());
+        return resultados.stream()
+                .filter(datosLibro -> IndiceTrigramas.normalizar(datosLibro.titulo()).contains(buscado))
+                .limit(1)
+                .toList();
+    }
+
+    /**
+     * Cola acotada que la etapa anterior cierra al terminar, para que los consumidores sepan
+     * cuándo no va a llegar nada más.
+     */
+
+    private static final class Cola<T> {
+        private final BlockingQueue<T> elementos;
+        private volatile boolean cerrada;
+
+        Cola(int capacidad) {
+            this.elementos = new ArrayBlockingQueue<>(capacidad);
+        }
+
+        void poner(T elemento) {
+            try {
+                elementos.put(elemento);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Se interrumpió el procesamiento del lote.", e);
+            }
+        }
+
+        // Devuelve hasta {@code maximo} elementos, o una lista vacía si la cola está cerrada y vacía
+        List<T> tomar(int maximo) throws InterruptedException {
+            List<T> lote = new ArrayList<>(maximo);
+            while (true) {
+                T primero = elementos.poll(50, TimeUnit.MILLISECONDS);
+                if (primero != null) {
+                    lote.add(primero);
+                    elementos.drainTo(lote, maximo - 1);
+                    return lote;
+                }
+                if (cerrada && elementos.isEmpty()) {
+                    return lote;
+                }
+            }
+        }
+
+        void cerrar() {
+            cerrada = true;
+        }
+    }
+
+    /**
+     * Grupo de hilos virtuales que toma elementos de una cola, los procesa y deja el resultado
+     * en la siguiente. Un error en un elemento se cuenta y no detiene la etapa.
+     */
+
+    private static final class Etapa<E, S> {
+        private final String nombre;
+        private final int concurrencia;
+        private final int tamanoLote;
+        private final LongAdder fallidas;
+        private final BiConsumer<List<E>, Consumer<S>> trabajo;
+        private final Duraciones duraciones = new Duraciones();
+        private final List<Thread> hilos = new ArrayList<>();
+
+        Etapa(String nombre, int concurrencia, int tamanoLote, LongAdder fallidas, BiConsumer<List<E>, Consumer<S>> trabajo) {
+            this.nombre = nombre;
+            this.concurrencia = concurrencia;
+            this.tamanoLote = tamanoLote;
+            this.fallidas = fallidas;
+            this.trabajo = trabajo;
+        }
+
+        void iniciar(Cola<E> entrada, Cola<S> salida) {
+            Consumer<S> entregar = salida == null ? resultado -> {} : salida::poner;
+            for (int i = 0; i < concurrencia; i++) {
+                hilos.add(Thread.ofVirtual().name("lote-" + nombre + "-" + i).start(() -> {
+                    try {
+                        List<E> lote;
+                        while (!(lote = entrada.tomar(tamanoLote)).isEmpty()) {
+                            long inicio = System.nanoTime();
+                            try {
+                                trabajo.accept(lote, entregar);
+                            } catch (RuntimeException e) {
+                                fallidas.add(lote.size());
+                                log.warn("Falló la etapa de {} ({} consultas): {}", nombre, lote.size(), e.getMessage());
+                            }
+                            duraciones.registrar(System.nanoTime() - inicio);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+            }
+        }
+
+        void esperar() {
+            for (Thread hilo : hilos) {
+                try {
+                    hilo.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        MedicionEtapa medicion() {
+            return duraciones.medicion(nombre, concurrencia);
+        }
+    }
+
+    /**
+     * Duraciones en nanosegundos, para calcular percentiles al final del lote.
+     */
+
+    private static final class Duraciones {
+        private long[] valores = new long[256];
+        private int tamano;
+
+        synchronized void registrar(long nanos) {
+            if (tamano == valores.length) {
+                valores = Arrays.copyOf(valores, tamano * 2);
+            }
+            valores[tamano++] = nanos;
+        }
+
+        synchronized MedicionEtapa medicion(String nombre, int concurrencia) {
+            long[] ordenados = Arrays.copyOf(valores, tamano);
+            Arrays.sort(ordenados);
+            return new MedicionEtapa(nombre, concurrencia, tamano, percentil(ordenados, 0.5), percentil(ordenados, 0.99));
+        }
+
+        private static double percentil(long[] ordenados, double percentil) {
+            if (ordenados.length == 0) {
+                return 0;
+            }
+            int posicion = (int) Math.min(ordenados.length - 1, Math.ceil(percentil * ordenados.length) - 1);
+            return ordenados[Math.max(0, posicion)] / 1e6;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Clasificación de los libros más descargados, global y por idioma.
+ * Cada tablero guarda como mucho K libros ordenados y publica una copia inmutable
+ * después de cada cambio, así que {@link #top(int, String)} no consulta la base de datos
+ * ni ordena nada: devuelve una vista del principio de esa copia.
+ *
+ * <p>Solo se vuelve a la base de datos si un libro del tablero baja por debajo del último
+ * cuando ya se habían dejado libros fuera, porque alguno de ellos podría haberlo superado.
+ */
+
+@Service
+public class RankingDescargas {
+    private static final Comparator<Posicion> ORDEN = Comparator.comparingLong(Posicion::descargas).reversed()
+            .thenComparingLong(Posicion::id);
+
+    private final LibroRepository libroRepository;
+    private final int capacidad;
+    private final Tablero global = new Tablero(null);
+    private final Map<String, Tablero> porIdioma = new ConcurrentHashMap<>();
+
+    public record Posicion(long id, String titulo, List<String> autores, List<String> idiomas, long descargas) {
+        public static Posicion de(Libro libro) {
+            return new Posicion(libro.getId(), libro.getTitulo(), List.copyOf(libro.getNombresDeAutores()),
+                    List.copyOf(libro.getCodigosDeIdioma()), libro.getNumeroDeDescargas());
+        }
+    }
+
+    public RankingDescargas(LibroRepository libroRepository,
+                            @Value("${literatura.ranking.k:100}") int capacidad) {
+        this.libroRepository = libroRepository;
+        this.capacidad = capacidad;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void inicializar() {
+        global.recargar();
+        for (String idioma : libroRepository.buscarIdiomas()) {
+            porIdioma.computeIfAbsent(idioma, Tablero::new).recargar();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alRegistrarLibros(LibrosRegistradosEvento evento) {
+        evento.libros().forEach(libro -> actualizar(Posicion.de(libro)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alActualizarDescargas(DescargasActualizadasEvento evento) {
+        evento.libros().forEach(this::actualizar);
+    }
+
+    /**
+     * Agrega un libro nuevo o cambia el número de descargas de uno ya clasificado.
+     * Un libro en varios idiomas compite en el tablero de cada uno.
+     */
+
+    public void actualizar(Posicion posicion) {
+        global.actualizar(posicion);
+        for (String idioma : posicion.idiomas()) {
+            porIdioma.computeIfAbsent(idioma, Tablero::new).actualizar(posicion);
+        }
+    }
+
+    /**
+     * Los {@code k} libros más descargados del idioma, o de todo el catálogo si el idioma es nulo.
+     * Como mucho se devuelven K libros, el tamaño configurado en {@code literatura.ranking.k}.
+     */
+
+    public List<Posicion> top(int k, String idioma) {
+        Tablero tablero = idioma == null ? global : porIdioma.get(idioma);
+        if (tablero == null || k <= 0) {
+            return List.of();
+        }
+        List<Posicion> vista = tablero.vista;
+        return vista.subList(0, Math.min(k, vista.size()));
+    }
+
+    public int capacidad() {
+        return capacidad;
+    }
+
+    private final class Tablero {
+        private final String idioma;
+        private final TreeSet<Posicion> orden = new TreeSet<>(ORDEN);
+        private final Map<Long, Posicion> porId = new HashMap<>();
+        // Indica si algún libro del catálogo quedó fuera del tablero por no caber
+        private boolean recortado;
+        private volatile List<Posicion> vista = List.of();
+
+        Tablero(String idioma) {
+            this.idioma = idioma;
+        }
+
+        synchronized void actualizar(Posicion posicion) {
+            Posicion anterior = porId.remove(posicion.id());
+            if (anterior != null) {
+                orden.remove(anterior);
+                // Si el libro baja por debajo del último (o era el único), alguno de los que quedaron fuera puede superarlo
+                if (recortado && (orden.isEmpty() || ORDEN.compare(posicion, orden.last()) > 0)) {
+                    recargar();
+                    return;
+                }
+            }
+            if (orden.size() < capacidad || ORDEN.compare(posicion, orden.last()) < 0) {
+                orden.add(posicion);
+                porId.put(posicion.id(), posicion);
+                if (orden.size() > capacidad) {
+                    porId.remove(orden.pollLast().id());
+                    recortado = true;
+                }
+            } else {
+                recortado = true;
+            }
+            vista = List.copyOf(orden);
+        }
+
+        synchronized void recargar() {
+            // Se pide uno más de la cuenta para saber si quedan libros fuera
+            Limit limite = Limit.of(capacidad + 1);
+            List<Libro> libros = libroRepository.cargarEnOrden(idioma == null
+                    ? libroRepository.buscarIdsMasDescargados(limite)
+                    : libroRepository.buscarIdsMasDescargadosPorIdioma(idioma, limite));
+            orden.clear();
+            porId.clear();
+            recortado = libros.size() > capacidad;
+            libros.stream().limit(capacidad).map(Posicion::de).forEach(posicion -> {
+                orden.add(posicion);
+                porId.put(posicion.id(), posicion);
+            });
+            vista = List.copyOf(orden);
+        }
+    }
+}
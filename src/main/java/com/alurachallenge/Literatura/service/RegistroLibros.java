@@ -0,0 +1,252 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.Repository.AutorRepository;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.dto.DatosAutor;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Registra en la base de datos los libros obtenidos de la API, evitando duplicados
+ * y reutilizando los autores que ya existen.
+ * Trabaja por lotes: los títulos y autores existentes se resuelven con una consulta cada uno
+ * y el resto se inserta con lotes JDBC, incluidas las filas de {@code libros_autores} y
+ * {@code libros_idiomas}. Los {@code ON CONFLICT (titulo)} y {@code ON CONFLICT (nombre)} hacen que dos
+ * importaciones simultáneas no dupliquen filas; cualquier otra violación, como un {@code id_gutendex}
+ * ya registrado con otro título, hace fallar la transacción (ver {@link DialectoSql}).
+ * Se guardan todos los autores e idiomas de cada libro, y también los libros que no tienen.
+ */
+
+@Service
+public class RegistroLibros {
+    private static final int TAMANO_LOTE = 500;
+
+    private static final String INSERTAR_AUTOR = """
+            INSERT INTO autores (nombre, fecha_de_nacimiento, fecha_de_fallecimiento)
+            VALUES (?, ?, ?)
+            """;
+    private static final String INSERTAR_LIBRO = """
+            INSERT INTO libros (id_gutendex, titulo, numero_de_descargas)
+            VALUES (?, ?, ?)
+            """;
+    private static final String INSERTAR_AUTOR_DE_LIBRO =
+            "INSERT INTO libros_autores (libro_id, autor_id, posicion) VALUES (?, ?, ?)";
+    private static final String INSERTAR_IDIOMA_DE_LIBRO =
+            "INSERT INTO libros_idiomas (libro_id, idioma_id, posicion) VALUES (?, ?, ?)";
+
+    private final LibroRepository libroRepository;
+    private final AutorRepository autorRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DiccionarioIdiomas diccionarioIdiomas;
+    private final ApplicationEventPublisher eventos;
+    private final String insertarAutor;
+    private final String insertarLibro;
+
+    // Una fila de una tabla de unión: el libro, el autor o idioma y su posición en la lista del libro
+    private record Union(long libroId, long otroId, int posicion) {}
+
+    public RegistroLibros(LibroRepository libroRepository, AutorRepository autorRepository,
+                          JdbcTemplate jdbcTemplate, DiccionarioIdiomas diccionarioIdiomas,
+                          ApplicationEventPublisher eventos, DialectoSql dialectoSql) {
+        this.libroRepository = libroRepository;
+        this.autorRepository = autorRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.diccionarioIdiomas = diccionarioIdiomas;
+        this.eventos = eventos;
+        this.insertarAutor = INSERTAR_AUTOR + dialectoSql.ignorarConflictoEn("nombre");
+        this.insertarLibro = INSERTAR_LIBRO + dialectoSql.ignorarConflictoEn("titulo");
+    }
+
+    /**
+     * Registra un libro si su título no existe todavía.
+     * Devuelve el libro guardado, o vacío si ya estaba registrado.
+     */
+
+    @Transactional
+    public Optional<Libro> registrar(DatosLibro datosLibro) {
+        return registrarTodos(List.of(datosLibro)).stream().findFirst();
+    }
+
+    /**
+     * Registra una lista de libros en una sola transacción.
+     * Devuelve únicamente los libros que se guardaron por primera vez y los anuncia con
+     * un {@link LibrosRegistradosEvento}.
+     */
+
+    @Transactional
+    public List<Libro> registrarTodos(List<DatosLibro> librosEncontrados) {
+        // Se descartan los títulos repetidos dentro de la misma lista; gana el primero
+        Map<String, DatosLibro> porTitulo = new TreeMap<>();
+        for (DatosLibro datosLibro : librosEncontrados) {
+            if (datosLibro.titulo() != null) {
+                porTitulo.putIfAbsent(datosLibro.titulo(), datosLibro);
+            }
+        }
+        List<DatosLibro> nuevos = new ArrayList<>();
+        for (List<DatosLibro> lote : lotes(new ArrayList<>(porTitulo.values()))) {
+            Set<String> existentes = new HashSet<>(libroRepository.buscarTitulosExistentes(titulos(lote)));
+            lote.stream().filter(datosLibro -> !existentes.contains(datosLibro.titulo())).forEach(nuevos::add);
+        }
+        if (nuevos.isEmpty()) {
+            return List.of();
+        }
+
+        // Primero todos los autores en orden de nombre y después los libros en orden de título:
+        // dos importaciones simultáneas toman los bloqueos de los índices únicos en el mismo orden
+        // y no pueden quedar esperándose la una a la otra
+        Map<String, Long> idsAutores = registrarAutores(nuevos);
+        Map<String, Short> idsIdiomas = diccionarioIdiomas.ids(nuevos.stream()
+                .flatMap(datosLibro -> idiomas(datosLibro).stream())
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        List<Libro> registrados = new ArrayList<>();
+        for (List<DatosLibro> lote : lotes(nuevos)) {
+            registrados.addAll(registrarLote(lote, idsAutores, idsIdiomas));
+        }
+        if (!registrados.isEmpty()) {
+            eventos.publishEvent(new LibrosRegistradosEvento(List.copyOf(registrados)));
+        }
+        return registrados;
+    }
+
+    private Map<String, Long> registrarAutores(List<DatosLibro> nuevos) {
+        Map<String, DatosAutor> autoresPorNombre = new TreeMap<>();
+        nuevos.forEach(datosLibro -> autores(datosLibro).forEach(datosAutor -> autoresPorNombre.putIfAbsent(datosAutor.nombre(), datosAutor)));
+        Map<String, Long> idsAutores = new HashMap<>();
+        for (List<DatosAutor> lote : lotes(new ArrayList<>(autoresPorNombre.values()))) {
+            idsAutores.putAll(idsPorNombre(lote.stream().map(DatosAutor::nombre).toList()));
+            List<DatosAutor> autoresFaltantes = lote.stream()
+                    .filter(datosAutor -> !idsAutores.containsKey(datosAutor.nombre()))
+                    .toList();
+            if (!autoresFaltantes.isEmpty()) {
+                jdbcTemplate.batchUpdate(insertarAutor, autoresFaltantes, autoresFaltantes.size(), (ps, datosAutor) -> {
+                    ps.setString(1, datosAutor.nombre());
+                    ps.setObject(2, datosAutor.fechaDeNacimiento(), Types.INTEGER);
+                    ps.setObject(3, datosAutor.fechaDeFallecimiento(), Types.INTEGER);
+                });
+                // Incluye los autores que otra importación haya insertado mientras tanto
+                idsAutores.putAll(idsPorNombre(autoresFaltantes.stream().map(DatosAutor::nombre).toList()));
+            }
+        }
+        return idsAutores;
+    }
+
+    private List<Libro> registrarLote(List<DatosLibro> nuevos, Map<String, Long> idsAutores, Map<String, Short> idsIdiomas) {
+        // Las claves generadas son solo las de las filas insertadas por esta transacción: si otra
+        // importación simultánea ganó el conflicto, ese libro no se devuelve ni se anuncia dos veces
+        KeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(conexion -> conexion.prepareStatement(insertarLibro, new String[]{"id", "titulo"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        DatosLibro datosLibro = nuevos.get(i);
+                        ps.setObject(1, datosLibro.idGutendex(), Types.BIGINT);
+                        ps.setString(2, datosLibro.titulo());
+                        ps.setLong(3, datosLibro.numeroDeDescargas() == null ? 0 : datosLibro.numeroDeDescargas());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return nuevos.size();
+                    }
+                }, claves);
+
+        Map<String, Long> insertados = new HashMap<>();
+        claves.getKeyList().forEach(fila -> insertados.put((String) fila.get("titulo"), ((Number) fila.get("id")).longValue()));
+        if (insertados.isEmpty()) {
+            return List.of();
+        }
+
+        List<Union> autoresDeLibros = new ArrayList<>();
+        List<Union> idiomasDeLibros = new ArrayList<>();
+        for (DatosLibro datosLibro : nuevos) {
+            Long libroId = insertados.get(datosLibro.titulo());
+            if (libroId == null) {
+                continue;
+            }
+            List<DatosAutor> autores = autores(datosLibro);
+            for (int i = 0; i < autores.size(); i++) {
+                autoresDeLibros.add(new Union(libroId, idsAutores.get(autores.get(i).nombre()), i));
+            }
+            List<String> idiomas = idiomas(datosLibro);
+            for (int i = 0; i < idiomas.size(); i++) {
+                idiomasDeLibros.add(new Union(libroId, idsIdiomas.get(idiomas.get(i)), i));
+            }
+        }
+        insertarUniones(INSERTAR_AUTOR_DE_LIBRO, autoresDeLibros);
+        insertarUniones(INSERTAR_IDIOMA_DE_LIBRO, idiomasDeLibros);
+        return libroRepository.findByIdIn(insertados.values());
+    }
+
+    private void insertarUniones(String sentencia, List<Union> uniones) {
+        if (!uniones.isEmpty()) {
+            jdbcTemplate.batchUpdate(sentencia, uniones, uniones.size(), (ps, union) -> {
+                ps.setLong(1, union.libroId());
+                ps.setLong(2, union.otroId());
+                ps.setInt(3, union.posicion());
+            });
+        }
+    }
+
+    // Autores del libro sin nombres repetidos, en el orden de la API
+    static List<DatosAutor> autores(DatosLibro datosLibro) {
+        if (datosLibro.autores() == null) {
+            return List.of();
+        }
+        Map<String, DatosAutor> porNombre = new LinkedHashMap<>();
+        datosLibro.autores().stream()
+                .filter(datosAutor -> datosAutor.nombre() != null)
+                .forEach(datosAutor -> porNombre.putIfAbsent(datosAutor.nombre(), datosAutor));
+        return List.copyOf(porNombre.values());
+    }
+
+    static List<String> idiomas(DatosLibro datosLibro) {
+        return datosLibro.idiomas() == null ? List.of() : datosLibro.idiomas().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+    }
+
+    private Map<String, Long> idsPorNombre(Collection<String> nombres) {
+        Map<String, Long> ids = new HashMap<>();
+        for (Object[] fila : autorRepository.buscarIdsPorNombre(nombres)) {
+            ids.put((String) fila[0], (Long) fila[1]);
+        }
+        return ids;
+    }
+
+    private static <T> List<List<T>> lotes(List<T> lista) {
+        List<List<T>> lotes = new ArrayList<>();
+        for (int desde = 0; desde < lista.size(); desde += TAMANO_LOTE) {
+            lotes.add(lista.subList(desde, Math.min(desde + TAMANO_LOTE, lista.size())));
+        }
+        return lotes;
+    }
+
+    private static List<String> titulos(List<DatosLibro> libros) {
+        return libros.stream().map(DatosLibro::titulo).toList();
+    }
+}
@@ -0,0 +1,308 @@
+package com.alurachallenge.Literatura.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Política de reintentos, peticiones de cobertura y cortocircuito para las llamadas a Gutendex.
+ *
+ * <ul>
+ *   <li>Los fallos transitorios (sin respuesta, 408, 429 y 5xx) se reintentan con espera
+ *   exponencial con jitter completo, respetando {@code Retry-After} si la API lo envía.</li>
+ *   <li>Si una petición tarda más que el percentil configurado de las últimas latencias, se
+ *   lanza una segunda idéntica y se usa la primera respuesta que llegue; la otra se cancela.</li>
+ *   <li>Tras varios fallos transitorios seguidos el circuito se abre y las peticiones fallan
+ *   al instante durante un tiempo; después se deja pasar una sola de prueba.</li>
+ * </ul>
+ * Los eventos se cuentan en {@code literatura.http.resiliencia} y el estado del circuito se
+ * publica en {@code literatura.http.circuito} (0 cerrado, 1 de prueba, 2 abierto).
+ */
+
+@Component
+public class ResilienciaHttp {
+    private static final int MUESTRAS_LATENCIA = 256;
+    private static final int MUESTRAS_MINIMAS_COBERTURA = 20;
+
+    private final int maximoIntentos;
+    private final Duration esperaBase;
+    private final Duration esperaMaxima;
+    private final boolean coberturaHabilitada;
+    private final double percentilCobertura;
+    private final Duration retrasoMinimoCobertura;
+    private final MeterRegistry registro;
+    private final Circuito circuito;
+    private final Latencias latencias = new Latencias();
+
+    public enum Estado { CERRADO, PRUEBA, ABIERTO }
+
+    @Autowired
+    public ResilienciaHttp(@Value("${literatura.http.reintentos.maximo-intentos:3}") int maximoIntentos,
+                           @Value("${literatura.http.reintentos.espera-base:200ms}") Duration esperaBase,
+                           @Value("${literatura.http.reintentos.espera-maxima:5s}") Duration esperaMaxima,
+                           @Value("${literatura.http.cobertura.habilitada:true}") boolean coberturaHabilitada,
+                           @Value("${literatura.http.cobertura.percentil:0.95}") double percentilCobertura,
+                           @Value("${literatura.http.cobertura.retraso-minimo:50ms}") Duration retrasoMinimoCobertura,
+                           @Value("${literatura.http.circuito.fallos-para-abrir:5}") int fallosParaAbrir,
+                           @Value("${literatura.http.circuito.tiempo-abierto:30s}") Duration tiempoAbierto,
+                           MeterRegistry registro) {
+        this.maximoIntentos = Math.max(1, maximoIntentos);
+        this.esperaBase = esperaBase;
+        this.esperaMaxima = esperaMaxima;
+        this.coberturaHabilitada = coberturaHabilitada;
+        this.percentilCobertura = percentilCobertura;
+        this.retrasoMinimoCobertura = retrasoMinimoCobertura;
+        this.registro = registro;
+        this.circuito = new Circuito(Math.max(1, fallosParaAbrir), tiempoAbierto);
+        Gauge.builder("literatura.http.circuito", circuito, c -> c.estado().ordinal())
+                .description("Estado del circuito de Gutendex: 0 cerrado, 1 de prueba, 2 abierto")
+                .register(registro);
+    }
+
+    /**
+     * Configuración por defecto, para usar {@link ConsumoAPI} fuera de Spring.
+     */
+
+    public static ResilienciaHttp predeterminada() {
+        return new ResilienciaHttp(3, Duration.ofMillis(200), Duration.ofSeconds(5), true, 0.95,
+                Duration.ofMillis(50), 5, Duration.ofSeconds(30), new CompositeMeterRegistry());
+    }
+
+    public Estado estadoCircuito() {
+        return circuito.estado();
+    }
+
+    /**
+     * Envía la petición aplicando la política completa. El futuro se completa con una
+     * respuesta 2xx o falla con {@link ErrorConsultaAPI}. {@code descartar} libera el cuerpo
+     * de las respuestas que no se entregan (las de error y las de la petición perdedora).
+     */
+
+    public <T> CompletableFuture<HttpResponse<T>> ejecutar(Supplier<CompletableFuture<HttpResponse<T>>> envio,
+                                                          Consumer<T> descartar) {
+        return intentar(envio, descartar, 1);
+    }
+
+    void contar(String evento) {
+        Counter.builder("literatura.http.resiliencia")
+                .description("Reintentos, peticiones de cobertura, rechazos del circuito y peticiones agrupadas")
+                .tag("evento", evento)
+                .register(registro)
+                .increment();
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> intentar(Supplier<CompletableFuture<HttpResponse<T>>> envio,
+                                                           Consumer<T> descartar, int intento) {
+        if (!circuito.permitir()) {
+            contar("circuito-abierto");
+            return CompletableFuture.failedFuture(new ErrorConsultaAPI(
+                    "Gutendex no está respondiendo; se volverá a intentar en unos segundos.", 0, true));
+        }
+        long inicio = System.nanoTime();
+        return conCobertura(envio, descartar).handle((response, error) -> {
+            ErrorConsultaAPI fallo = error != null ? comoError(error) : errorDeEstado(response);
+            if (fallo == null) {
+                circuito.exito();
+                latencias.registrar(System.nanoTime() - inicio);
+                return CompletableFuture.completedFuture(response);
+            }
+            if (response != null) {
+                descartar.accept(response.body());
+            }
+            if (!fallo.esTransitorio()) {
+                // La API respondió, aunque sea con un error del cliente: sigue en pie
+                circuito.exito();
+                return CompletableFuture.<HttpResponse<T>>failedFuture(fallo);
+            }
+            circuito.fallo();
+            if (intento >= maximoIntentos) {
+                return CompletableFuture.<HttpResponse<T>>failedFuture(fallo);
+            }
+            contar("reintento");
+            return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(espera(intento, response), TimeUnit.MILLISECONDS))
+                    .thenCompose(nada -> intentar(envio, descartar, intento + 1));
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * Lanza la petición y, si no ha respondido al cumplirse el percentil de latencia,
+     * una segunda idéntica. Gana la primera respuesta; las demás se cancelan o se descartan.
+     */
+
+    private <T> CompletableFuture<HttpResponse<T>> conCobertura(Supplier<CompletableFuture<HttpResponse<T>>> envio,
+                                                               Consumer<T> descartar) {
+        long retraso = coberturaHabilitada ? latencias.percentil(percentilCobertura) : -1;
+        if (retraso < 0) {
+            return envio.get();
+        }
+        CompletableFuture<HttpResponse<T>> resultado = new CompletableFuture<>();
+        List<CompletableFuture<HttpResponse<T>>> lanzadas = new ArrayList<>(2);
+        AtomicInteger enVuelo = new AtomicInteger();
+        Runnable lanzar = () -> {
+            CompletableFuture<HttpResponse<T>> peticion;
+            synchronized (lanzadas) {
+                if (resultado.isDone()) {
+                    return;
+                }
+                enVuelo.incrementAndGet();
+                peticion = envio.get();
+                lanzadas.add(peticion);
+            }
+            peticion.whenComplete((response, error) -> {
+                enVuelo.decrementAndGet();
+                if (error == null) {
+                    if (!resultado.complete(response)) {
+                        descartar.accept(response.body());
+                    }
+                } else if (enVuelo.get() == 0) {
+                    resultado.completeExceptionally(error);
+                }
+            });
+        };
+        lanzar.run();
+        long retrasoMs = Math.max(retraso / 1_000_000, retrasoMinimoCobertura.toMillis());
+        CompletableFuture.delayedExecutor(retrasoMs, TimeUnit.MILLISECONDS).execute(() -> {
+            if (!resultado.isDone()) {
+                contar("cobertura");
+                lanzar.run();
+            }
+        });
+        return resultado.whenComplete((response, error) -> {
+            synchronized (lanzadas) {
+                lanzadas.forEach(peticion -> peticion.cancel(true));
+            }
+        });
+    }
+
+    private long espera(int intento, HttpResponse<?> response) {
+        long tope = Math.min(esperaMaxima.toMillis(), esperaBase.toMillis() << Math.min(intento - 1, 20));
+        long espera = ThreadLocalRandom.current().nextLong(tope + 1);
+        if (response != null) {
+            long pedida = response.headers().firstValue("Retry-After")
+                    .map(ResilienciaHttp::segundos)
+                    .orElse(0L) * 1000;
+            espera = Math.max(espera, Math.min(pedida, esperaMaxima.toMillis()));
+        }
+        return espera;
+    }
+
+    private static long segundos(String valor) {
+        try {
+            return Long.parseLong(valor.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static ErrorConsultaAPI errorDeEstado(HttpResponse<?> response) {
+        int estado = response.statusCode();
+        if (estado >= 200 && estado < 300) {
+            return null;
+        }
+        boolean transitorio = estado == 408 || estado == 429 || estado >= 500;
+        return new ErrorConsultaAPI("Gutendex respondió con el código " + estado + " a " + response.uri(), estado, transitorio);
+    }
+
+    static ErrorConsultaAPI comoError(Throwable error) {
+        Throwable causa = error;
+        while (causa instanceof CompletionException && causa.getCause() != null) {
+            causa = causa.getCause();
+        }
+        if (causa instanceof ErrorConsultaAPI errorConsulta) {
+            return errorConsulta;
+        }
+        boolean transitorio = causa instanceof IOException || causa instanceof CancellationException;
+        return new ErrorConsultaAPI("No se pudo contactar con Gutendex: " + causa, 0, transitorio, causa);
+    }
+
+    /**
+     * Últimas latencias de las peticiones correctas, en nanosegundos, en un buffer circular.
+     */
+
+    private static final class Latencias {
+        private final long[] muestras = new long[MUESTRAS_LATENCIA];
+        private int siguiente;
+        private int tamano;
+
+        synchronized void registrar(long nanos) {
+            muestras[siguiente] = nanos;
+            siguiente = (siguiente + 1) % muestras.length;
+            tamano = Math.min(tamano + 1, muestras.length);
+        }
+
+        // Devuelve -1 mientras no haya muestras suficientes para fiarse del percentil
+        synchronized long percentil(double percentil) {
+            if (tamano < MUESTRAS_MINIMAS_COBERTURA) {
+                return -1;
+            }
+            long[] ordenadas = Arrays.copyOf(muestras, tamano);
+            Arrays.sort(ordenadas);
+            return ordenadas[(int) Math.min(tamano - 1, Math.ceil(percentil * tamano) - 1)];
+        }
+    }
+
+    private static final class Circuito {
+        private final int fallosParaAbrir;
+        private final long tiempoAbiertoNanos;
+        private Estado estado = Estado.CERRADO;
+        private int fallosSeguidos;
+        private long abiertoDesde;
+
+        Circuito(int fallosParaAbrir, Duration tiempoAbierto) {
+            this.fallosParaAbrir = fallosParaAbrir;
+            this.tiempoAbiertoNanos = tiempoAbierto.toNanos();
+        }
+
+        synchronized Estado estado() {
+            return estado;
+        }
+
+        synchronized boolean permitir() {
+            return switch (estado) {
+                case CERRADO -> true;
+                case PRUEBA -> false;
+                case ABIERTO -> {
+                    if (System.nanoTime() - abiertoDesde < tiempoAbiertoNanos) {
+                        yield false;
+                    }
+                    // Se deja pasar una única petición de prueba
+                    estado = Estado.PRUEBA;
+                    yield true;
+                }
+            };
+        }
+
+        synchronized void exito() {
+            fallosSeguidos = 0;
+            estado = Estado.CERRADO;
+        }
+
+        synchronized void fallo() {
+            fallosSeguidos++;
+            if (estado == Estado.PRUEBA || fallosSeguidos >= fallosParaAbrir) {
+                estado = Estado.ABIERTO;
+                abiertoDesde = System.nanoTime();
+            }
+        }
+    }
+}
\ No newline at end of file
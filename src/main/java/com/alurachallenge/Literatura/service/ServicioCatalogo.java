@@ -0,0 +1,231 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Autor;
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.Repository.AutorRepository;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.dto.AutorResumen;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Operaciones del catálogo compartidas por la consola y la API REST.
+ * No guarda estado propio: reúne los repositorios y las estructuras en memoria
+ * (índices, contadores y clasificación) y puede usarse desde muchos hilos a la vez.
+ */
+
+@Service
+public class ServicioCatalogo {
+    private static final int MAXIMO_AUTORES_POR_BUSQUEDA = 1000;
+
+    private final ConsumoAPI consumoAPI;
+    private final ConvierteDatos conversor;
+    private final LibroRepository libroRepository;
+    private final AutorRepository autorRepository;
+    private final RegistroLibros registroLibros;
+    private final ListadoCatalogo listadoCatalogo;
+    private final IndiceBusqueda indiceBusqueda;
+    private final IndiceVidaAutores indiceVidaAutores;
+    private final ContadoresCatalogo contadoresCatalogo;
+    private final RankingDescargas rankingDescargas;
+    private final EscrituraDiferida escrituraDiferida;
+    private final String urlBase;
+
+    /**
+     * Resultado de importar libros desde la API: los que se guardaron ahora
+     * y los títulos que ya estaban en la base de datos.
+     * Con la escritura diferida, los registrados aún no tienen id: están en cola para guardarse.
+     */
+
+    public record Importacion(List<Libro> registrados, List<String> yaRegistrados) {
+        public boolean vacia() {
+            return registrados.isEmpty() && yaRegistrados.isEmpty();
+        }
+    }
+
+    public record AutoresVivos(List<AutorResumen> confirmados, List<AutorResumen> sinFechaDeFallecimiento) {}
+
+    public record LibrosDeAutor(List<Libro> libros, List<String> sugerencias) {}
+
+    public ServicioCatalogo(ConsumoAPI consumoAPI, ConvierteDatos conversor,
+                            LibroRepository libroRepository, AutorRepository autorRepository,
+                            RegistroLibros registroLibros, ListadoCatalogo listadoCatalogo,
+                            IndiceBusqueda indiceBusqueda, IndiceVidaAutores indiceVidaAutores,
+                            ContadoresCatalogo contadoresCatalogo, RankingDescargas rankingDescargas,
+                            EscrituraDiferida escrituraDiferida,
+                            ConfiguracionGutendex gutendex) {
+        this.consumoAPI = consumoAPI;
+        this.conversor = conversor;
+        this.libroRepository = libroRepository;
+        this.autorRepository = autorRepository;
+        this.registroLibros = registroLibros;
+        this.listadoCatalogo = listadoCatalogo;
+        this.indiceBusqueda = indiceBusqueda;
+        this.indiceVidaAutores = indiceVidaAutores;
+        this.contadoresCatalogo = contadoresCatalogo;
+        this.rankingDescargas = rankingDescargas;
+        this.escrituraDiferida = escrituraDiferida;
+        this.urlBase = gutendex.urlBase();
+    }
+
+    /**
+     * Busca el título en la API y registra el primer resultado cuyo título lo contenga.
+     */
+
+    public Importacion importarPorTitulo(String titulo) {
+        String buscado = IndiceTrigramas.normalizar(titulo);
+        List<DatosLibro> encontrados = new ArrayList<>(1);
+        try (InputStream flujo = consumoAPI.obtenerFlujo(urlDeBusqueda(urlBase, titulo))) {
+            conversor.recorrerResultados(flujo, datosLibro -> {
+                if (encontrados.isEmpty() && IndiceTrigramas.normalizar(datosLibro.titulo()).contains(buscado)) {
+                    encontrados.add(datosLibro);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return registrar(encontrados);
+    }
+
+    /**
+     * Busca el autor en la API y registra todos los libros de la primera página de resultados.
+     */
+
+    public Importacion importarPorAutor(String nombreAutor) {
+        List<DatosLibro> encontrados = new ArrayList<>();
+        try (InputStream flujo = consumoAPI.obtenerFlujo(urlDeBusqueda(urlBase, nombreAutor))) {
+            conversor.recorrerResultados(flujo, encontrados::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return registrar(encontrados);
+    }
+
+    public long recorrerLibros(Consumer<Libro> consumidor) {
+        return listadoCatalogo.recorrerLibros(consumidor);
+    }
+
+    public long recorrerAutores(Consumer<AutorResumen> consumidor) {
+        return listadoCatalogo.recorrerAutores(consumidor);
+    }
+
+    /**
+     * Página de libros ordenados por id que empieza después de {@code despuesDe}.
+     * Si se indica un idioma, solo incluye los libros en ese idioma.
+     */
+
+    public List<Libro> paginaDeLibros(long despuesDe, int tamano, String idioma) {
+        return libroRepository.cargarEnOrden(idioma == null
+                ? libroRepository.buscarIdsDespuesDe(despuesDe, Limit.of(tamano))
+                : libroRepository.buscarIdsPorIdiomaDespuesDe(idioma, despuesDe, Limit.of(tamano)));
+    }
+
+    /**
+     * Página de autores en orden alfabético que empieza después del nombre indicado.
+     */
+
+    public List<AutorResumen> paginaDeAutores(String despuesDe, int tamano) {
+        return autorRepository.findByNombreGreaterThanOrderByNombreAsc(despuesDe == null ? "" : despuesDe, Limit.of(tamano));
+    }
+
+    public List<Libro> librosPorIdioma(String idioma) {
+        return libroRepository.findByIdiomasCodigo(idioma);
+    }
+
+    /**
+     * Libros registrados cuyo título contiene la consulta, resueltos con el índice de trigramas.
+     */
+
+    public List<Libro> buscarLibrosPorTitulo(String consulta, int limite) {
+        List<Long> ids = indiceBusqueda.buscarLibrosPorTitulo(consulta, limite);
+        return libroRepository.cargarEnOrden(ids);
+    }
+
+    /**
+     * Libros registrados de los autores cuyo nombre contiene la consulta.
+     * Si no hay ninguno, devuelve los nombres de autor más parecidos como sugerencia.
+     */
+
+    public LibrosDeAutor buscarLibrosPorAutor(String nombreAutor) {
+        List<Long> autores = indiceBusqueda.buscarAutoresPorNombre(nombreAutor, MAXIMO_AUTORES_POR_BUSQUEDA);
+        List<Libro> libros = autores.isEmpty() ? List.of() : libroRepository.findDistinctByAutoresIdIn(autores);
+        if (!libros.isEmpty()) {
+            return new LibrosDeAutor(libros, List.of());
+        }
+        List<Long> sugeridos = indiceBusqueda.sugerirAutores(nombreAutor, 5).stream()
+                .map(IndiceTrigramas.Coincidencia::id)
+                .toList();
+        List<String> sugerencias = ordenarComo(sugeridos, autorRepository.findAllById(sugeridos), Autor::getId).stream()
+                .map(Autor::getNombre)
+                .toList();
+        return new LibrosDeAutor(List.of(), sugerencias);
+    }
+
+    /**
+     * Autores vivos en algún momento del rango [desde, hasta], ordenados por nombre.
+     */
+
+    public AutoresVivos autoresVivos(int desde, int hasta) {
+        var vivos = indiceVidaAutores.vivosEntre(desde, hasta);
+        return new AutoresVivos(resumenes(vivos.confirmados()), resumenes(vivos.sinFechaDeFallecimiento()));
+    }
+
+    public List<ContadoresCatalogo.Conteo> contarLibrosPorIdioma() {
+        return contadoresCatalogo.librosPorIdioma();
+    }
+
+    public List<ContadoresCatalogo.Conteo> contarLibrosPorAutor() {
+        return contadoresCatalogo.librosPorAutor();
+    }
+
+    public List<RankingDescargas.Posicion> masDescargados(int k, String idioma) {
+        return rankingDescargas.top(k, idioma);
+    }
+
+    private Importacion registrar(List<DatosLibro> encontrados) {
+        List<Libro> registrados = escrituraDiferida.habilitada()
+                ? escrituraDiferida.encolar(encontrados).stream().map(Libro::new).toList()
+                : registroLibros.registrarTodos(encontrados);
+        Set<String> titulosRegistrados = registrados.stream().map(Libro::getTitulo).collect(Collectors.toSet());
+        List<String> yaRegistrados = encontrados.stream()
+                .map(DatosLibro::titulo)
+                .filter(titulo -> !titulosRegistrados.contains(titulo))
+                .toList();
+        return new Importacion(registrados, yaRegistrados);
+    }
+
+    private List<AutorResumen> resumenes(List<Long> ids) {
+        return ids.isEmpty() ? List.of() : autorRepository.findByIdInOrderByNombreAsc(ids);
+    }
+
+    static String urlDeBusqueda(String urlBase, String consulta) {
+        return urlBase + "?search=" + URLEncoder.encode(consulta.trim(), StandardCharsets.UTF_8);
+    }
+
+    // Las consultas IN no conservan el orden de los ids; se restituye el del índice
+    private static <T> List<T> ordenarComo(List<Long> ids, List<T> elementos, Function<T, Long> id) {
+        Map<Long, Integer> posiciones = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            posiciones.put(ids.get(i), i);
+        }
+        return elementos.stream()
+                .sorted(Comparator.comparingInt(elemento -> posiciones.get(id.apply(elemento))))
+                .toList();
+    }
+}
@@ -0,0 +1,178 @@
+package com.alurachallenge.Literatura.carga;
+
+import com.alurachallenge.Literatura.Repository.AutorRepository;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.service.ServicioCatalogo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Prueba de carga de la importación por autor contra {@link ServidorGutendexFalso}, sin salir a la red.
+ * Para cada nivel de concurrencia lanza el mismo número de importaciones de autores distintos
+ * (todos sus libros son nuevos) y muestra libros por segundo, latencia p50/p99 por importación
+ * y viajes a la base de datos (sentencias ejecutadas, lotes JDBC y confirmaciones).
+ *
+ * <p>Solo se ejecuta si se pide: {@code mvn -Pcarga test}, o {@code -Dliteratura.carga=true}.
+ * Se ajusta con las propiedades de sistema {@code literatura.carga.*}: concurrencias ("1,4,16"),
+ * importaciones por nivel (200), libros-por-autor (10), latencia (20 ms), variacion (10 ms),
+ * tasa-errores (0.01) y relleno (0 bytes por libro).
+ */
+
+@EnabledIfSystemProperty(named = "literatura.carga", matches = "true")
+@SpringBootTest
+class PruebaCargaImportacion {
+
+	private static final int[] CONCURRENCIAS = Arrays.stream(System.getProperty("literatura.carga.concurrencias", "1,4,16").split(","))
+			.mapToInt(nivel -> Integer.parseInt(nivel.trim()))
+			.toArray();
+	private static final int IMPORTACIONES = Integer.getInteger("literatura.carga.importaciones", 200);
+	private static final int LIBROS_POR_AUTOR = Integer.getInteger("literatura.carga.libros-por-autor", 10);
+
+	private static final AtomicLong VIAJES = new AtomicLong();
+	private static ServidorGutendexFalso servidor;
+
+	@Autowired
+	private ServicioCatalogo servicioCatalogo;
+	@Autowired
+	private LibroRepository libroRepository;
+	@Autowired
+	private AutorRepository autorRepository;
+
+	@DynamicPropertySource
+	static void apuntarAlServidorFalso(DynamicPropertyRegistry propiedades) throws IOException {
+		int autores = IMPORTACIONES * CONCURRENCIAS.length;
+		var configuracion = new ServidorGutendexFalso.Configuracion(
+				Duration.ofMillis(Long.getLong("literatura.carga.latencia", 20)),
+				Duration.ofMillis(Long.getLong("literatura.carga.variacion", 10)),
+				Double.parseDouble(System.getProperty("literatura.carga.tasa-errores", "0.01")),
+				Integer.getInteger("literatura.carga.relleno", 0));
+		servidor = new ServidorGutendexFalso(
+				ServidorGutendexFalso.catalogoSintetico(autores * LIBROS_POR_AUTOR, autores, 42), configuracion);
+		propiedades.add("literatura.gutendex.url-base", servidor::urlBase);
+	}
+
+	@AfterAll
+	static void detenerServidor() {
+		servidor.close();
+	}
+
+	@AfterEach
+	void limpiar() {
+		libroRepository.deleteAllInBatch();
+		autorRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void importaAutoresEnCadaNivelDeConcurrencia() throws Exception {
+		System.out.printf("%n%-12s %10s %12s %10s %10s %12s %10s %10s%n", "concurrencia", "libros", "libros/s",
+				"p50 ms", "p99 ms", "viajes BD", "peticiones", "errores");
+		int primerAutor = 0;
+		for (int concurrencia : CONCURRENCIAS) {
+			long peticionesAntes = servidor.peticiones();
+			long erroresAntes = servidor.errores();
+			long viajesAntes = VIAJES.get();
+			long[] latencias = new long[IMPORTACIONES];
+			List<Future<Integer>> tareas = new ArrayList<>(IMPORTACIONES);
+
+			long inicio = System.nanoTime();
+			try (ExecutorService hilos = Executors.newFixedThreadPool(concurrencia)) {
+				for (int i = 0; i < IMPORTACIONES; i++) {
+					int tarea = i;
+					String autor = ServidorGutendexFalso.nombreSintetico(primerAutor + i);
+					tareas.add(hilos.submit(() -> {
+						long inicioTarea = System.nanoTime();
+						int registrados = servicioCatalogo.importarPorAutor(autor).registrados().size();
+						latencias[tarea] = System.nanoTime() - inicioTarea;
+						return registrados;
+					}));
+				}
+			}
+			double segundos = (System.nanoTime() - inicio) / 1e9;
+			int libros = 0;
+			for (Future<Integer> tarea : tareas) {
+				libros += tarea.get();
+			}
+			Arrays.sort(latencias);
+			System.out.printf("%-12d %10d %12.1f %10.1f %10.1f %12d %10d %10d%n", concurrencia, libros, libros / segundos,
+					percentil(latencias, 0.50), percentil(latencias, 0.99), VIAJES.get() - viajesAntes,
+					servidor.peticiones() - peticionesAntes, servidor.errores() - erroresAntes);
+
+			assertEquals(IMPORTACIONES * LIBROS_POR_AUTOR, libros);
+			primerAutor += IMPORTACIONES;
+		}
+	}
+
+	private static double percentil(long[] ordenadas, double percentil) {
+		int posicion = (int) Math.ceil(percentil * ordenadas.length) - 1;
+		return ordenadas[Math.max(0, posicion)] / 1e6;
+	}
+
+	/**
+	 * Envuelve el DataSource para contar los viajes a la base de datos: cada ejecución de una
+	 * sentencia (un lote JDBC cuenta como uno) y cada commit o rollback.
+	 */
+
+	@TestConfiguration
+	static class ContadorViajes {
+		@Bean
+		static BeanPostProcessor contarViajes() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String nombre) {
+					return bean instanceof DataSource dataSource ? envolver(DataSource.class, dataSource) : bean;
+				}
+			};
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <T> T envolver(Class<T> tipo, T objetivo) {
+			InvocationHandler manejador = (proxy, metodo, argumentos) -> {
+				String nombre = metodo.getName();
+				if (nombre.startsWith("execute") || nombre.equals("commit") || nombre.equals("rollback")) {
+					VIAJES.incrementAndGet();
+				}
+				Object resultado;
+				try {
+					resultado = metodo.invoke(objetivo, argumentos);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+				if (resultado instanceof Connection conexion && metodo.getReturnType() == Connection.class) {
+					return envolver(Connection.class, conexion);
+				}
+				if (resultado instanceof Statement sentencia && Statement.class.isAssignableFrom(metodo.getReturnType())) {
+					return envolver((Class<Statement>) metodo.getReturnType(), sentencia);
+				}
+				return resultado;
+			};
+			return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, manejador);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,282 @@
+package com.alurachallenge.Literatura.carga;
+
+import com.alurachallenge.Literatura.dto.Datos;
+import com.alurachallenge.Literatura.dto.DatosAutor;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import com.alurachallenge.Literatura.service.IndiceTrigramas;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Servidor HTTP local que responde como {@code https://gutendex.com/books/} a partir de un
+ * catálogo en memoria, sintético o grabado de páginas reales de Gutendex.
+ * Entiende {@code search} (todas las palabras dentro del título o del nombre de algún autor),
+ * {@code ids}, {@code page} y {@code sort=ascending}; pagina de 32 en 32 con enlaces
+ * {@code next}/{@code previous} absolutos y responde 404 a las páginas que no existen.
+ *
+ * <p>Cada respuesta puede retrasarse, fallar con un 503 con la probabilidad indicada y llevar
+ * relleno en {@code summaries} para simular libros más pesados.
+ */
+
+public final class ServidorGutendexFalso implements AutoCloseable {
+	static final int LIBROS_POR_PAGINA = 32;
+
+	private static final ObjectMapper JSON = new ObjectMapper();
+
+	private final List<Ficha> porId;
+	private final List<Ficha> porDescargas;
+	private final Configuracion configuracion;
+	private final String relleno;
+	private final HttpServer servidor;
+	private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+	private final AtomicLong peticiones = new AtomicLong();
+	private final AtomicLong errores = new AtomicLong();
+
+	/**
+	 * Latencia de cada respuesta (fija más una parte aleatoria entre 0 y {@code variacion}),
+	 * fracción de respuestas que fallan y bytes de relleno por libro.
+	 */
+
+	public record Configuracion(Duration latencia, Duration variacion, double tasaErrores, int bytesDeRelleno) {
+		public static Configuracion inmediata() {
+			return new Configuracion(Duration.ZERO, Duration.ZERO, 0, 0);
+		}
+	}
+
+	// El libro con el texto en minúsculas sobre el que se buscan las palabras de "search"
+	private record Ficha(DatosLibro libro, String textoBuscable) {}
+
+	public ServidorGutendexFalso(List<DatosLibro> catalogo, Configuracion configuracion) throws IOException {
+		this.porId = catalogo.stream()
+				.map(libro -> new Ficha(libro, textoBuscable(libro)))
+				.sorted(Comparator.comparingLong(ficha -> ficha.libro().idGutendex()))
+				.toList();
+		// Sin sort=ascending, Gutendex ordena por popularidad
+		this.porDescargas = porId.stream()
+				.sorted(Comparator.comparingLong((Ficha ficha) -> descargas(ficha.libro())).reversed())
+				.toList();
+		this.configuracion = configuracion;
+		this.relleno = "x".repeat(Math.max(0, configuracion.bytesDeRelleno()));
+		this.servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		servidor.createContext("/books/", this::responder);
+		servidor.setExecutor(hilos);
+		servidor.start();
+	}
+
+	/**
+	 * Catálogo reproducible de {@code libros} libros repartidos por igual entre {@code autores}
+	 * autores: el autor {@code i} se llama "Autor Sintético 0000i" (cinco cifras), así que
+	 * {@code search=sintetico 0000i} encuentra sus libros y ninguno más.
+	 */
+
+	public static List<DatosLibro> catalogoSintetico(int libros, int autores, long semilla) {
+		Random aleatorio = new Random(semilla);
+		String[] idiomas = {"en", "en", "en", "fr", "de", "es", "it", "pt"};
+		List<DatosAutor> listaAutores = new ArrayList<>(autores);
+		for (int i = 0; i < autores; i++) {
+			int nacimiento = 1500 + aleatorio.nextInt(450);
+			Integer fallecimiento = aleatorio.nextInt(10) == 0 ? null : nacimiento + 25 + aleatorio.nextInt(60);
+			listaAutores.add(new DatosAutor(nombreSintetico(i), nacimiento, fallecimiento));
+		}
+		List<DatosLibro> catalogo = new ArrayList<>(libros);
+		for (int i = 0; i < libros; i++) {
+			long descargas = (long) (Math.pow(aleatorio.nextDouble(), 4) * 100_000);
+			catalogo.add(new DatosLibro((long) i + 1, "Libro sintético " + (i + 1), List.of(listaAutores.get(i % autores)),
+					List.of(idiomas[aleatorio.nextInt(idiomas.length)]), descargas));
+		}
+		return catalogo;
+	}
+
+	public static String nombreSintetico(int autor) {
+		return "Autor Sintético %05d".formatted(autor);
+	}
+
+	/**
+	 * Catálogo a partir de páginas de Gutendex guardadas en disco, sin libros repetidos.
+	 */
+
+	public static List<DatosLibro> catalogoGrabado(Path... paginas) throws IOException {
+		Map<Long, DatosLibro> libros = new LinkedHashMap<>();
+		for (Path pagina : paginas) {
+			for (DatosLibro libro : JSON.readValue(pagina.toFile(), Datos.class).resultados()) {
+				libros.putIfAbsent(libro.idGutendex(), libro);
+			}
+		}
+		return List.copyOf(libros.values());
+	}
+
+	public String urlBase() {
+		return "http://127.0.0.1:" + servidor.getAddress().getPort() + "/books/";
+	}
+
+	public long peticiones() {
+		return peticiones.get();
+	}
+
+	public long errores() {
+		return errores.get();
+	}
+
+	@Override
+	public void close() {
+		servidor.stop(0);
+		hilos.close();
+	}
+
+	private void responder(HttpExchange intercambio) throws IOException {
+		peticiones.incrementAndGet();
+		try (intercambio) {
+			esperar();
+			if (configuracion.tasaErrores() > 0 && ThreadLocalRandom.current().nextDouble() < configuracion.tasaErrores()) {
+				errores.incrementAndGet();
+				enviar(intercambio, 503, "{\"detail\":\"Service unavailable.\"}");
+				return;
+			}
+			Map<String, String> parametros = parametros(intercambio.getRequestURI().getRawQuery());
+			List<Ficha> encontrados = filtrar(parametros);
+			int pagina = Integer.parseInt(parametros.getOrDefault("page", "1"));
+			int desde = (pagina - 1) * LIBROS_POR_PAGINA;
+			if (pagina < 1 || (desde >= encontrados.size() && pagina > 1)) {
+				enviar(intercambio, 404, "{\"detail\":\"Invalid page.\"}");
+				return;
+			}
+			int hasta = Math.min(desde + LIBROS_POR_PAGINA, encontrados.size());
+			ObjectNode respuesta = JSON.createObjectNode();
+			respuesta.put("count", encontrados.size());
+			respuesta.put("next", hasta < encontrados.size() ? enlace(parametros, pagina + 1) : null);
+			respuesta.put("previous", pagina > 1 ? enlace(parametros, pagina - 1) : null);
+			ArrayNode resultados = respuesta.putArray("results");
+			encontrados.subList(desde, hasta).forEach(ficha -> escribir(resultados.addObject(), ficha.libro()));
+			enviar(intercambio, 200, JSON.writeValueAsString(respuesta));
+		}
+	}
+
+	private List<Ficha> filtrar(Map<String, String> parametros) {
+		List<Ficha> orden = "ascending".equals(parametros.get("sort")) ? porId : porDescargas;
+		String ids = parametros.get("ids");
+		Set<Long> buscados = ids == null ? null : Arrays.stream(ids.split(","))
+				.filter(id -> !id.isBlank())
+				.map(id -> Long.parseLong(id.trim()))
+				.collect(Collectors.toCollection(HashSet::new));
+		String search = parametros.get("search");
+		String normalizada = IndiceTrigramas.normalizar(search);
+		String[] palabras = normalizada.isEmpty() ? new String[0] : normalizada.split(" ");
+		if (buscados == null && palabras.length == 0) {
+			return orden;
+		}
+		List<Ficha> encontrados = new ArrayList<>();
+		for (Ficha ficha : orden) {
+			if ((buscados == null || buscados.contains(ficha.libro().idGutendex())) && contieneTodas(ficha.textoBuscable(), palabras)) {
+				encontrados.add(ficha);
+			}
+		}
+		return encontrados;
+	}
+
+	private void escribir(ObjectNode nodo, DatosLibro libro) {
+		nodo.put("id", libro.idGutendex());
+		nodo.put("title", libro.titulo());
+		ArrayNode autores = nodo.putArray("authors");
+		for (DatosAutor autor : libro.autores()) {
+			ObjectNode nodoAutor = autores.addObject();
+			nodoAutor.put("name", autor.nombre());
+			nodoAutor.put("birth_year", autor.fechaDeNacimiento());
+			nodoAutor.put("death_year", autor.fechaDeFallecimiento());
+		}
+		ArrayNode idiomas = nodo.putArray("languages");
+		libro.idiomas().forEach(idiomas::add);
+		nodo.put("download_count", descargas(libro));
+		ArrayNode resumenes = nodo.putArray("summaries");
+		if (!relleno.isEmpty()) {
+			resumenes.add(relleno);
+		}
+	}
+
+	private String enlace(Map<String, String> parametros, int pagina) {
+		Map<String, String> siguiente = new LinkedHashMap<>(parametros);
+		siguiente.put("page", Integer.toString(pagina));
+		return urlBase() + "?" + siguiente.entrySet().stream()
+				.map(parametro -> parametro.getKey() + "=" + URLEncoder.encode(parametro.getValue(), StandardCharsets.UTF_8))
+				.collect(Collectors.joining("&"));
+	}
+
+	private void esperar() {
+		long retraso = configuracion.latencia().toNanos();
+		long variacion = configuracion.variacion().toNanos();
+		if (variacion > 0) {
+			retraso += ThreadLocalRandom.current().nextLong(variacion);
+		}
+		if (retraso > 0) {
+			try {
+				Thread.sleep(Duration.ofNanos(retraso));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static void enviar(HttpExchange intercambio, int estado, String cuerpo) throws IOException {
+		byte[] bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+		intercambio.getResponseHeaders().set("Content-Type", "application/json");
+		intercambio.sendResponseHeaders(estado, bytes.length);
+		intercambio.getResponseBody().write(bytes);
+	}
+
+	private static Map<String, String> parametros(String consulta) {
+		Map<String, String> parametros = new LinkedHashMap<>();
+		if (consulta == null) {
+			return parametros;
+		}
+		for (String par : consulta.split("&")) {
+			int igual = par.indexOf('=');
+			if (igual > 0) {
+				parametros.put(par.substring(0, igual), URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+			}
+		}
+		return parametros;
+	}
+
+	private static String textoBuscable(DatosLibro libro) {
+		StringBuilder texto = new StringBuilder(IndiceTrigramas.normalizar(libro.titulo()));
+		libro.autores().forEach(autor -> texto.append(' ').append(IndiceTrigramas.normalizar(autor.nombre())));
+		return texto.toString();
+	}
+
+	private static boolean contieneTodas(String texto, String[] palabras) {
+		for (String palabra : palabras) {
+			if (!texto.contains(palabra)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long descargas(DatosLibro libro) {
+		return libro.numeroDeDescargas() == null ? 0 : libro.numeroDeDescargas();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.alurachallenge.Literatura.carga;
+
+import com.alurachallenge.Literatura.dto.Datos;
+import com.alurachallenge.Literatura.service.ConsumoAPI;
+import com.alurachallenge.Literatura.service.ConvierteDatos;
+import com.alurachallenge.Literatura.service.ErrorConsultaAPI;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ServidorGutendexFalsoTest {
+
+	private final ConsumoAPI consumoAPI = new ConsumoAPI();
+	private final ConvierteDatos conversor = new ConvierteDatos();
+
+	@Test
+	void paginaLasBusquedasYFiltraPorIdsComoGutendex() throws IOException {
+		var catalogo = ServidorGutendexFalso.catalogoSintetico(70, 2, 1);
+		try (var servidor = new ServidorGutendexFalso(catalogo, ServidorGutendexFalso.Configuracion.inmediata())) {
+			Datos primera = pedir(servidor.urlBase() + "?search=sint%C3%A9tico+00000&sort=ascending");
+			assertEquals(35, primera.total());
+			assertEquals(32, primera.resultados().size());
+			assertEquals("Autor Sintético 00000", primera.resultados().get(0).autores().get(0).nombre());
+
+			Datos segunda = pedir(primera.siguiente());
+			assertEquals(3, segunda.resultados().size());
+			assertNull(segunda.siguiente());
+			assertEquals(69L, segunda.resultados().get(2).idGutendex());
+
+			Datos porIds = pedir(servidor.urlBase() + "?ids=2,5,7");
+			assertEquals(3, porIds.total());
+
+			ErrorConsultaAPI error = assertThrows(ErrorConsultaAPI.class,
+					() -> consumoAPI.obtenerDatos(servidor.urlBase() + "?page=9"));
+			assertEquals(404, error.getEstado());
+		}
+	}
+
+	private Datos pedir(String url) {
+		return conversor.obtenerDatos(consumoAPI.obtenerDatos(url), Datos.class);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.alurachallenge.Literatura.controller;
+
+import com.alurachallenge.Literatura.Repository.AutorRepository;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.dto.DatosAutor;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import com.alurachallenge.Literatura.service.RegistroLibros;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogoControllerTest {
+
+	private static final DatosAutor AUSTEN = new DatosAutor("Austen, Jane", 1775, 1817);
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private RegistroLibros registroLibros;
+	@Autowired
+	private LibroRepository libroRepository;
+	@Autowired
+	private AutorRepository autorRepository;
+
+	@AfterEach
+	void limpiar() {
+		libroRepository.deleteAllInBatch();
+		autorRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void paginaLosLibrosConCursorYRespondeNoModificadoConElMismoEtag() throws Exception {
+		registroLibros.registrarTodos(List.of(
+				new DatosLibro(158L, "Emma", List.of(AUSTEN), List.of("en"), 1200L),
+				new DatosLibro(105L, "Persuasion", List.of(AUSTEN), List.of("en"), 900L),
+				new DatosLibro(1342L, "Orgullo y prejuicio", List.of(AUSTEN), List.of("es"), 300L)));
+
+		var primera = mockMvc.perform(get("/api/libros").param("tamano", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.elementos", hasSize(2)))
+				.andExpect(jsonPath("$.elementos[0].titulo").value("Emma"))
+				.andExpect(jsonPath("$.siguiente").exists())
+				.andReturn().getResponse();
+
+		mockMvc.perform(get("/api/libros").param("tamano", "2").param("despuesDe", primera.getContentAsString()
+						.replaceAll(".*\"siguiente\":\"(\\d+)\".*", "$1")))
+				.andExpect(jsonPath("$.elementos", hasSize(1)))
+				// Los libros de un mismo lote se insertan en orden de título
+				.andExpect(jsonPath("$.elementos[0].titulo").value("Persuasion"))
+				.andExpect(jsonPath("$.siguiente").doesNotExist());
+
+		mockMvc.perform(get("/api/libros").param("tamano", "2").header("If-None-Match", primera.getHeader("ETag")))
+				.andExpect(status().isNotModified());
+
+		mockMvc.perform(get("/api/libros/top").param("k", "1").param("idioma", "es"))
+				.andExpect(jsonPath("$[0].titulo").value("Orgullo y prejuicio"))
+				.andExpect(header().exists("ETag"));
+
+		mockMvc.perform(get("/api/libros/top").param("k", "-5"))
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].titulo").value("Emma"));
+	}
+}
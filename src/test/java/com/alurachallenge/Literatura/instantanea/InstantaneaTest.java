@@ -0,0 +1,83 @@
+package com.alurachallenge.Literatura.instantanea;
+
+import com.alurachallenge.Literatura.Repository.AutorRepository;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.dto.DatosAutor;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import com.alurachallenge.Literatura.service.ContadoresCatalogo;
+import com.alurachallenge.Literatura.service.RegistroLibros;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class InstantaneaTest {
+
+	private static final DatosAutor AUSTEN = new DatosAutor("Austen, Jane", 1775, 1817);
+	private static final DatosAutor CERVANTES = new DatosAutor("Cervantes Saavedra, Miguel de", 1547, 1616);
+	private static final DatosAutor SIN_FALLECIMIENTO = new DatosAutor("Doe, John", 1950, null);
+
+	@TempDir
+	Path directorio;
+
+	@Autowired
+	private RegistroLibros registroLibros;
+	@Autowired
+	private ExportadorInstantanea exportadorInstantanea;
+	@Autowired
+	private LibroRepository libroRepository;
+	@Autowired
+	private AutorRepository autorRepository;
+
+	@AfterEach
+	void limpiar() {
+		libroRepository.deleteAllInBatch();
+		autorRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void respondeLasConsultasDelMenuDesdeElArchivoExportado() throws IOException {
+		registroLibros.registrarTodos(List.of(
+				libro("Pride and Prejudice", AUSTEN, "en", 5000),
+				libro("Emma", AUSTEN, "en", 3000),
+				libro("Don Quijote", CERVANTES, "es", 4000),
+				libro("Ensayos", SIN_FALLECIMIENTO, "es", 10)));
+		Path archivo = directorio.resolve("catalogo.instantanea");
+
+		var resumen = exportadorInstantanea.exportar(archivo);
+		var instantanea = Instantanea.abrir(archivo);
+
+		assertEquals(4, resumen.libros());
+		assertEquals(3, resumen.autores());
+		assertEquals(4, instantanea.libros());
+		assertEquals(List.of("Pride and Prejudice", "Don Quijote", "Emma", "Ensayos"),
+				instantanea.masDescargados(10, null).stream().map(Instantanea.FichaLibro::titulo).toList());
+		assertEquals(List.of("Don Quijote", "Ensayos"),
+				instantanea.masDescargados(10, "es").stream().map(Instantanea.FichaLibro::titulo).toList());
+		assertEquals(List.of(new ContadoresCatalogo.Conteo("en", 2), new ContadoresCatalogo.Conteo("es", 2)),
+				instantanea.contarLibrosPorIdioma());
+		assertEquals(new ContadoresCatalogo.Conteo("Austen, Jane", 2), instantanea.contarLibrosPorAutor().get(0));
+		assertEquals(List.of("Austen, Jane"), instantanea.buscarLibrosPorTitulo("pride", 10).get(0).autores());
+		assertEquals(2, instantanea.buscarLibrosPorAutor("austen").size());
+		assertEquals(1, instantanea.librosPorIdioma("es").stream().filter(libro -> libro.descargas() == 4000).count());
+
+		var vivos = instantanea.autoresVivos(1600, 1800);
+		assertEquals(List.of("Austen, Jane", "Cervantes Saavedra, Miguel de"),
+				vivos.confirmados().stream().map(Instantanea.FichaAutor::nombre).toList());
+		assertEquals(List.of(), vivos.sinFechaDeFallecimiento());
+		assertEquals(List.of("Doe, John"),
+				instantanea.autoresVivos(2000, 2000).sinFechaDeFallecimiento().stream().map(Instantanea.FichaAutor::nombre).toList());
+	}
+
+	private static DatosLibro libro(String titulo, DatosAutor autor, String idioma, long descargas) {
+		return new DatosLibro(null, titulo, List.of(autor), List.of(idioma), descargas);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.Repository.AutorRepository;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.carga.ServidorGutendexFalso;
+import com.alurachallenge.Literatura.dto.DatosAutor;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@RecordApplicationEvents
+class ActualizadorDescargasTest {
+
+	// Más de 32 libros para que la actualización haga varias peticiones con ids=
+	private static final int LIBROS = 40;
+	private static final DatosAutor AUSTEN = new DatosAutor("Austen, Jane", 1775, 1817);
+
+	private static ServidorGutendexFalso servidor;
+
+	@Autowired
+	private ActualizadorDescargas actualizadorDescargas;
+	@Autowired
+	private RegistroLibros registroLibros;
+	@Autowired
+	private LibroRepository libroRepository;
+	@Autowired
+	private AutorRepository autorRepository;
+	@Autowired
+	private ApplicationEvents eventos;
+
+	@DynamicPropertySource
+	static void apuntarAlServidorFalso(DynamicPropertyRegistry propiedades) throws IOException {
+		// En Gutendex cambiaron las descargas de uno de cada diez libros
+		List<DatosLibro> catalogo = new ArrayList<>();
+		for (int i = 1; i <= LIBROS; i++) {
+			catalogo.add(libro(i, i % 10 == 0 ? i * 100L + 7 : i * 100L));
+		}
+		servidor = new ServidorGutendexFalso(catalogo, ServidorGutendexFalso.Configuracion.inmediata());
+		propiedades.add("literatura.gutendex.url-base", servidor::urlBase);
+	}
+
+	@AfterAll
+	static void detenerServidor() {
+		servidor.close();
+	}
+
+	@AfterEach
+	void limpiar() {
+		libroRepository.deleteAllInBatch();
+		autorRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void soloEscribeLosLibrosCuyasDescargasCambiaronYAvisaALaClasificacion() {
+		List<DatosLibro> registrados = new ArrayList<>();
+		for (int i = 1; i <= LIBROS; i++) {
+			registrados.add(libro(i, i * 100L));
+		}
+		registroLibros.registrarTodos(registrados);
+
+		var resumen = actualizadorDescargas.actualizar();
+
+		assertEquals(LIBROS, resumen.librosRevisados());
+		assertEquals(4, resumen.librosCambiados());
+		assertEquals(0, resumen.peticionesFallidas());
+
+		Map<String, Long> descargas = libroRepository.findAll().stream()
+				.collect(Collectors.toMap(Libro::getTitulo, Libro::getNumeroDeDescargas));
+		for (int i = 1; i <= LIBROS; i++) {
+			assertEquals(i % 10 == 0 ? i * 100L + 7 : i * 100L, descargas.get("Libro " + i));
+		}
+
+		List<DescargasActualizadasEvento> avisos = eventos.stream(DescargasActualizadasEvento.class).toList();
+		assertEquals(1, avisos.size());
+		assertEquals(List.of("Libro 10", "Libro 20", "Libro 30", "Libro 40"), avisos.get(0).libros().stream()
+				.map(RankingDescargas.Posicion::titulo)
+				.sorted()
+				.toList());
+	}
+
+	private static DatosLibro libro(int id, long descargas) {
+		return new DatosLibro((long) id, "Libro " + id, List.of(AUSTEN), List.of("en"), descargas);
+	}
+}
\ No newline at end of file
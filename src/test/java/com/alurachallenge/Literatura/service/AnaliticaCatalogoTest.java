@@ -0,0 +1,122 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Repository.AutorRepository;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.dto.DatosAutor;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class AnaliticaCatalogoTest {
+
+	@Autowired
+	private AnaliticaCatalogo analiticaCatalogo;
+	@Autowired
+	private RegistroLibros registroLibros;
+	@Autowired
+	private LibroRepository libroRepository;
+	@Autowired
+	private AutorRepository autorRepository;
+
+	@AfterEach
+	void limpiar() {
+		libroRepository.deleteAllInBatch();
+		autorRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void analizaElCatalogoRegistradoYSeRecargaAlRegistrarMasLibros() {
+		DatosAutor austen = new DatosAutor("Austen, Jane", 1775, 1817);
+		DatosAutor cervantes = new DatosAutor("Cervantes Saavedra, Miguel de", 1547, 1616);
+		registroLibros.registrarTodos(List.of(
+				new DatosLibro(null, "Pride and Prejudice", List.of(austen), List.of("en"), 5000L),
+				new DatosLibro(null, "Emma", List.of(austen), List.of("en"), 30L),
+				new DatosLibro(null, "Don Quijote", List.of(cervantes, austen), List.of("es", "en"), 400L),
+				new DatosLibro(null, "Anónimo", List.of(), List.of("es"), 0L)));
+
+		var informe = analiticaCatalogo.informe();
+
+		assertEquals(4, informe.resumen().libros());
+		assertEquals(2, informe.resumen().autores());
+		assertEquals(5430, informe.resumen().descargasTotales());
+		assertEquals(1, informe.resumen().librosSinAutor());
+		assertEquals(55.5, informe.resumen().edadMediaAlFallecer());
+		assertEquals(new AnaliticaCatalogo.Distribucion(null, 4, 30, 5000, 5000, 5000, List.of(1, 0, 1, 1, 1, 0, 0, 0)),
+				informe.global());
+		assertEquals(List.of("en", "es"), informe.porIdioma().stream().map(AnaliticaCatalogo.Distribucion::idioma).toList());
+		assertEquals(400, informe.porIdioma().get(0).p50());
+		assertEquals(List.of(new AnaliticaCatalogo.Siglo(1500, 1), new AnaliticaCatalogo.Siglo(1700, 3)), informe.porSiglo());
+		assertEquals(1, informe.librosSinNacimiento());
+
+		registroLibros.registrarTodos(List.of(new DatosLibro(null, "Persuasion", List.of(austen), List.of("fr"), 7L)));
+
+		var actualizado = analiticaCatalogo.informe();
+		assertEquals(5, actualizado.resumen().libros());
+		assertEquals(List.of("en", "es", "fr"), actualizado.porIdioma().stream().map(AnaliticaCatalogo.Distribucion::idioma).toList());
+	}
+
+	@Test
+	void losTramosParalelosCoincidenConUnRecorridoSecuencial() {
+		// Suficientes libros para que el cálculo se reparta en muchos tramos
+		int libros = 200_000;
+		Random aleatorio = new Random(7);
+		long[] descargas = LongStream.range(0, libros).map(libro -> aleatorio.nextInt(2_000_000)).toArray();
+		int[] inicioIdiomas = new int[libros + 1];
+		int[] inicioAutores = new int[libros + 1];
+		int[] idiomasDeLibro = new int[libros * 2];
+		int[] autoresDeLibro = new int[libros * 2];
+		for (int libro = 0; libro < libros; libro++) {
+			int idiomas = libro % 3 == 0 ? 2 : 1;
+			for (int i = 0; i < idiomas; i++) {
+				idiomasDeLibro[inicioIdiomas[libro] + i] = (libro + i) % 3;
+			}
+			inicioIdiomas[libro + 1] = inicioIdiomas[libro] + idiomas;
+			int autores = libro % 5;
+			for (int i = 0; i < autores; i++) {
+				autoresDeLibro[inicioAutores[libro] + i] = aleatorio.nextInt(100);
+			}
+			inicioAutores[libro + 1] = inicioAutores[libro] + autores;
+		}
+		int[] nacimientos = IntStream.range(0, 100).map(autor -> autor % 10 == 0 ? AnaliticaCatalogo.SIN_ANIO : 1500 + autor * 5).toArray();
+		int[] fallecimientos = IntStream.range(0, 100).map(autor -> 1560 + autor * 5).toArray();
+
+		var informe = AnaliticaCatalogo.calcular(new AnaliticaCatalogo.Columnas(descargas, inicioIdiomas,
+				Arrays.copyOf(idiomasDeLibro, inicioIdiomas[libros]), new String[]{"en", "es", "fr"}, inicioAutores,
+				Arrays.copyOf(autoresDeLibro, inicioAutores[libros]), nacimientos, fallecimientos, Instant.now(), Duration.ZERO));
+
+		long[] ordenadas = descargas.clone();
+		Arrays.sort(ordenadas);
+		double media = Arrays.stream(descargas).average().orElseThrow();
+		double varianza = Arrays.stream(descargas).mapToDouble(valor -> (valor - media) * (valor - media)).sum() / libros;
+		assertEquals(Arrays.stream(descargas).sum(), informe.resumen().descargasTotales());
+		assertEquals(media, informe.resumen().media(), 1e-6);
+		assertEquals(Math.sqrt(varianza), informe.resumen().desviacion(), 1e-6);
+		assertEquals(libros / 5, informe.resumen().librosSinAutor());
+		assertEquals(ordenadas[libros / 2 - 1], informe.global().p50());
+		assertEquals(ordenadas[libros * 99 / 100 - 1], informe.global().p99());
+		assertEquals(ordenadas[libros - 1], informe.global().maximo());
+		assertEquals(libros, informe.global().histograma().stream().mapToInt(Integer::intValue).sum());
+		assertEquals(Arrays.stream(descargas).filter(valor -> valor >= 1_000_000).count(), (long) informe.global().histograma().get(7));
+		assertEquals((long) inicioIdiomas[libros],
+				informe.porIdioma().stream().mapToLong(AnaliticaCatalogo.Distribucion::libros).sum());
+
+		long conNacimiento = IntStream.range(0, libros)
+				.filter(libro -> IntStream.range(inicioAutores[libro], inicioAutores[libro + 1])
+						.anyMatch(i -> nacimientos[autoresDeLibro[i]] != AnaliticaCatalogo.SIN_ANIO))
+				.count();
+		assertEquals(libros - conNacimiento, informe.librosSinNacimiento());
+	}
+}
\ No newline at end of file
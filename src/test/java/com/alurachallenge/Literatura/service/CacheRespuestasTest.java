@@ -0,0 +1,89 @@
+package com.alurachallenge.Literatura.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheRespuestasTest {
+
+	private static final byte[] CUERPO = "{\"count\": 1, \"results\": []}".getBytes(StandardCharsets.UTF_8);
+	private static final long SIN_COMPACTAR = Long.MAX_VALUE;
+
+	@TempDir
+	Path carpeta;
+
+	@Test
+	void lasUrlsEquivalentesCompartenClave() {
+		assertEquals(
+				CacheRespuestas.normalizar("https://gutendex.com/books/?search=jane+austen&languages=en"),
+				CacheRespuestas.normalizar("HTTPS://Gutendex.com/books/?languages=en&search=Jane%20%20Austen"));
+	}
+
+	@Test
+	void lasEntradasSobrevivenAlReinicioDesdeElDisco() throws Exception {
+		Path archivo = carpeta.resolve("cache.log");
+		Clock reloj = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+		CacheRespuestas primera = new CacheRespuestas(true, 1, Duration.ofHours(1), archivo, reloj, SIN_COMPACTAR);
+		primera.guardar("https://gutendex.com/books/?search=austen", CUERPO);
+		primera.guardar("https://gutendex.com/books/?search=shelley", CUERPO);
+		primera.cerrar();
+
+		CacheRespuestas segunda = new CacheRespuestas(true, 1, Duration.ofHours(1), archivo, reloj, SIN_COMPACTAR);
+		assertArrayEquals(CUERPO, segunda.obtener("https://gutendex.com/books/?search=Austen").orElseThrow());
+		assertArrayEquals(CUERPO, segunda.obtener("https://gutendex.com/books/?search=Austen").orElseThrow());
+		assertTrue(segunda.obtener("https://gutendex.com/books/?search=dickens").isEmpty());
+
+		var estadisticas = segunda.estadisticas();
+		assertEquals(1, estadisticas.aciertosDisco());
+		assertEquals(1, estadisticas.aciertosMemoria());
+		assertEquals(1, estadisticas.fallos());
+		assertEquals(2, estadisticas.entradasDisco());
+		segunda.cerrar();
+	}
+
+	@Test
+	void lasEntradasVencidasNoSeSirven() throws Exception {
+		Path archivo = carpeta.resolve("cache.log");
+		CacheRespuestas escritura = new CacheRespuestas(true, 10, Duration.ofMinutes(5), archivo,
+				Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC), SIN_COMPACTAR);
+		escritura.guardar("https://gutendex.com/books/?search=austen", CUERPO);
+		escritura.cerrar();
+
+		CacheRespuestas lectura = new CacheRespuestas(true, 10, Duration.ofMinutes(5), archivo,
+				Clock.fixed(Instant.parse("2026-01-01T00:06:00Z"), ZoneOffset.UTC), SIN_COMPACTAR);
+		assertTrue(lectura.obtener("https://gutendex.com/books/?search=austen").isEmpty());
+		lectura.cerrar();
+	}
+
+	@Test
+	void elRegistroSeCompactaAlSuperarElUmbral() throws Exception {
+		Path archivo = carpeta.resolve("cache.log");
+		Clock reloj = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+		long umbral = 4 * 1024;
+
+		CacheRespuestas cache = new CacheRespuestas(true, 1, Duration.ofHours(1), archivo, reloj, umbral);
+		for (int i = 0; i < 500; i++) {
+			cache.guardar("https://gutendex.com/books/?search=austen", CUERPO);
+			cache.guardar("https://gutendex.com/books/?search=shelley", CUERPO);
+		}
+		assertTrue(cache.bytesEnDisco() <= umbral, "el registro creció hasta " + cache.bytesEnDisco() + " bytes");
+		cache.cerrar();
+
+		CacheRespuestas reiniciada = new CacheRespuestas(true, 1, Duration.ofHours(1), archivo, reloj, umbral);
+		assertArrayEquals(CUERPO, reiniciada.obtener("https://gutendex.com/books/?search=austen").orElseThrow());
+		assertArrayEquals(CUERPO, reiniciada.obtener("https://gutendex.com/books/?search=shelley").orElseThrow());
+		assertEquals(2, reiniciada.estadisticas().entradasDisco());
+		reiniciada.cerrar();
+	}
+}
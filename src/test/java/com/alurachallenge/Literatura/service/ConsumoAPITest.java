@@ -0,0 +1,147 @@
+package com.alurachallenge.Literatura.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsumoAPITest {
+
+	private HttpServer servidor;
+	private String url;
+	private final AtomicInteger peticiones = new AtomicInteger();
+	// Respuestas programadas: código de estado y retraso en ms; si se acaban, 200 inmediato
+	private final Queue<int[]> programadas = new ArrayDeque<>();
+
+	@BeforeEach
+	void arrancarServidor() throws IOException {
+		servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		servidor.createContext("/books/", this::responder);
+		servidor.setExecutor(Executors.newCachedThreadPool());
+		servidor.start();
+		url = "http://127.0.0.1:" + servidor.getAddress().getPort() + "/books/";
+	}
+
+	@AfterEach
+	void detenerServidor() {
+		servidor.stop(0);
+	}
+
+	@Test
+	void reintentaLosErroresTransitoriosYNoLosDelCliente() {
+		programar(503, 0);
+		programar(503, 0);
+		ConsumoAPI consumoAPI = cliente(3, false, 5);
+
+		assertEquals("{\"count\":1}", consumoAPI.obtenerDatos(url + "?search=uno"));
+		assertEquals(3, peticiones.get());
+
+		programar(404, 0);
+		ErrorConsultaAPI error = assertThrows(ErrorConsultaAPI.class, () -> consumoAPI.obtenerDatos(url + "?search=dos"));
+		assertEquals(404, error.getEstado());
+		assertFalse(error.esTransitorio());
+		assertEquals(4, peticiones.get());
+	}
+
+	@Test
+	void agrupaLasPeticionesSimultaneasALaMismaUrl() throws IOException {
+		programar(200, 300);
+		ConsumoAPI consumoAPI = cliente(1, false, 5);
+
+		List<CompletableFuture<String>> respuestas = IntStream.range(0, 5)
+				.mapToObj(i -> consumoAPI.obtenerDatosAsync(url + "?search=austen"))
+				.toList();
+		respuestas.forEach(respuesta -> assertEquals("{\"count\":1}", respuesta.join()));
+		assertEquals(1, peticiones.get());
+
+		// Con flujos ocurre lo mismo: la segunda recibe la copia del cuerpo que leyó la primera
+		programar(200, 300);
+		CompletableFuture<InputStream> primera = consumoAPI.obtenerFlujoAsync(url + "?search=bronte");
+		CompletableFuture<InputStream> segunda = consumoAPI.obtenerFlujoAsync(url + "?search=bronte");
+		try (InputStream flujo = primera.join()) {
+			assertEquals("{\"count\":1}", new String(flujo.readAllBytes(), StandardCharsets.UTF_8));
+		}
+		assertEquals("{\"count\":1}", new String(segunda.join().readAllBytes(), StandardCharsets.UTF_8));
+		assertEquals(2, peticiones.get());
+	}
+
+	@Test
+	void abreElCircuitoTrasVariosFallosSeguidos() {
+		programar(500, 0);
+		programar(500, 0);
+		ConsumoAPI consumoAPI = cliente(1, false, 2);
+
+		assertThrows(ErrorConsultaAPI.class, () -> consumoAPI.obtenerDatos(url + "?search=a"));
+		assertThrows(ErrorConsultaAPI.class, () -> consumoAPI.obtenerDatos(url + "?search=b"));
+		ErrorConsultaAPI rechazo = assertThrows(ErrorConsultaAPI.class, () -> consumoAPI.obtenerDatos(url + "?search=c"));
+
+		assertEquals(0, rechazo.getEstado());
+		assertEquals(2, peticiones.get());
+	}
+
+	@Test
+	void lanzaUnaPeticionDeCoberturaCuandoLaPrimeraSeRetrasa() {
+		ConsumoAPI consumoAPI = cliente(1, true, 5);
+		// Muestras de latencia para que haya un percentil del que fiarse
+		for (int i = 0; i < 25; i++) {
+			consumoAPI.obtenerDatos(url + "?page=" + i);
+		}
+		programar(200, 3000);
+		// Alguna muestra lenta del arranque también puede haber lanzado su cobertura
+		int previas = peticiones.get();
+
+		long inicio = System.nanoTime();
+		assertEquals("{\"count\":1}", consumoAPI.obtenerDatos(url + "?page=lenta"));
+
+		assertTrue(System.nanoTime() - inicio < 2_000_000_000L);
+		assertEquals(previas + 2, peticiones.get());
+	}
+
+	private ConsumoAPI cliente(int maximoIntentos, boolean cobertura, int fallosParaAbrir) {
+		var registro = new SimpleMeterRegistry();
+		var resiliencia = new ResilienciaHttp(maximoIntentos, Duration.ofMillis(10), Duration.ofMillis(50), cobertura, 0.95,
+				Duration.ofMillis(50), fallosParaAbrir, Duration.ofMinutes(1), registro);
+		return new ConsumoAPI(Duration.ofSeconds(2), Duration.ofSeconds(10), null, registro, resiliencia);
+	}
+
+	private synchronized void programar(int estado, int retrasoMs) {
+		programadas.add(new int[]{estado, retrasoMs});
+	}
+
+	private void responder(HttpExchange intercambio) throws IOException {
+		peticiones.incrementAndGet();
+		int[] respuesta;
+		synchronized (this) {
+			respuesta = programadas.isEmpty() ? new int[]{200, 0} : programadas.poll();
+		}
+		try {
+			Thread.sleep(respuesta[1]);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		byte[] cuerpo = "{\"count\":1}".getBytes(StandardCharsets.UTF_8);
+		intercambio.sendResponseHeaders(respuesta[0], cuerpo.length);
+		intercambio.getResponseBody().write(cuerpo);
+		intercambio.close();
+	}
+}
\ No newline at end of file
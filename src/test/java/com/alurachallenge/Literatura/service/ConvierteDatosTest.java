@@ -0,0 +1,59 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.dto.Datos;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConvierteDatosTest {
+
+	private static final String PAGINA = """
+			{"count": 2, "next": "https://gutendex.com/books/?page=2", "previous": null,
+			 "results": [
+			   {"id": 1342, "title": "Pride and Prejudice", "authors": [{"name": "Austen, Jane", "birth_year": 1775, "death_year": 1817}],
+			    "languages": ["en"], "download_count": 54321, "formats": {"text/html": "x"}},
+			   {"id": 84, "title": "Frankenstein", "authors": [{"name": "Shelley, Mary Wollstonecraft", "birth_year": 1797, "death_year": 1851}],
+			    "languages": ["en"], "download_count": 12345}
+			 ]}
+			""";
+
+	private final ConvierteDatos conversor = new ConvierteDatos();
+
+	@Test
+	void recorrerResultadosEntregaCadaLibroYDevuelveLaPaginacion() {
+		List<DatosLibro> libros = new ArrayList<>();
+		Datos datos = conversor.recorrerResultados(flujo(PAGINA), libros::add);
+
+		assertEquals(2, libros.size());
+		assertEquals("Pride and Prejudice", libros.get(0).titulo());
+		assertEquals(1342L, libros.get(0).idGutendex());
+		assertEquals("Shelley, Mary Wollstonecraft", libros.get(1).autores().get(0).nombre());
+		assertEquals(2, datos.total());
+		assertEquals("https://gutendex.com/books/?page=2", datos.siguiente());
+		assertNull(datos.anterior());
+		assertTrue(datos.resultados().isEmpty());
+	}
+
+	@Test
+	void lasVariantesDeFlujoYBufferCoincidenConLaDeTexto() {
+		Datos desdeTexto = conversor.obtenerDatos(PAGINA, Datos.class);
+		Datos desdeFlujo = conversor.obtenerDatos(flujo(PAGINA), Datos.class);
+		Datos desdeBuffer = conversor.obtenerDatos(ByteBuffer.wrap(PAGINA.getBytes(StandardCharsets.UTF_8)), Datos.class);
+
+		assertEquals(desdeTexto, desdeFlujo);
+		assertEquals(desdeTexto, desdeBuffer);
+	}
+
+	private static ByteArrayInputStream flujo(String json) {
+		return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+	}
+}
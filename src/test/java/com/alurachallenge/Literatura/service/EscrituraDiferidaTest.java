@@ -0,0 +1,118 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.Repository.AutorRepository;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.dto.DatosAutor;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+		"literatura.escritura-diferida.habilitada=true",
+		"literatura.escritura-diferida.capacidad=3",
+		"literatura.escritura-diferida.tamano-lote=2",
+		"literatura.escritura-diferida.intervalo=50ms"
+})
+class EscrituraDiferidaTest {
+
+	private static final DatosAutor AUSTEN = new DatosAutor("Austen, Jane", 1775, 1817);
+
+	@Autowired
+	private EscrituraDiferida escrituraDiferida;
+	@Autowired
+	private IndiceBusqueda indiceBusqueda;
+	@Autowired
+	private LibroRepository libroRepository;
+	@Autowired
+	private AutorRepository autorRepository;
+
+	@AfterEach
+	void limpiar() {
+		libroRepository.deleteAllInBatch();
+		autorRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void guardaEnSegundoPlanSinRepetirTitulosAunqueLaColaSeLlene() {
+		List<DatosLibro> aceptados = escrituraDiferida.encolar(List.of(
+				libro("Pride and Prejudice"),
+				libro("Emma"),
+				libro("Emma"),
+				libro("Persuasion"),
+				libro("Mansfield Park"),
+				libro("Northanger Abbey")));
+
+		// Con capacidad 3 la última llamada ha tenido que esperar a que el escritor guardara algún lote
+		assertEquals(5, aceptados.size());
+		escrituraDiferida.vaciar();
+		assertEquals(5, libroRepository.count());
+		assertEquals(1, autorRepository.count());
+		assertTrue(indiceBusqueda.existeTitulo("emma"));
+
+		assertTrue(escrituraDiferida.encolar(List.of(libro("Emma"))).isEmpty());
+		assertEquals(1, escrituraDiferida.encolar(List.of(libro("Sanditon"))).size());
+		escrituraDiferida.vaciar();
+		assertEquals(6, libroRepository.count());
+	}
+
+	@Test
+	void unLoteQueFallaVuelveALaColaHastaQueSeGuarda() {
+		var registroLibros = mock(RegistroLibros.class);
+		when(registroLibros.registrarTodos(anyList()))
+				.thenThrow(new IllegalStateException("sin conexión"))
+				.thenThrow(new IllegalStateException("sin conexión"))
+				.thenThrow(new IllegalStateException("sin conexión"))
+				.thenReturn(List.of());
+		var registro = new SimpleMeterRegistry();
+		var escritura = new EscrituraDiferida(registroLibros, mock(IndiceBusqueda.class), registro,
+				true, 10, 10, Duration.ofMillis(1));
+		escritura.iniciar();
+
+		assertEquals(2, escritura.encolar(List.of(libro("Emma"), libro("EMMA!"), libro("Persuasion"))).size());
+		escritura.vaciar();
+
+		verify(registroLibros, times(4)).registrarTodos(List.of(libro("Emma"), libro("Persuasion")));
+		assertEquals(1, registro.counter("literatura.escritura.lotes-fallidos", "resultado", "reencolado").count());
+		assertTrue(escritura.sinGuardar().isEmpty());
+	}
+
+	@Test
+	void alCerrarApartaLoQueNoSePuedeGuardarYDevuelveSoloLoGuardado() throws Exception {
+		var registroLibros = mock(RegistroLibros.class);
+		when(registroLibros.registrarTodos(anyList())).thenThrow(new IllegalStateException("sin conexión"));
+		var registro = new SimpleMeterRegistry();
+		var escritura = new EscrituraDiferida(registroLibros, mock(IndiceBusqueda.class), registro,
+				true, 10, 10, Duration.ofMillis(1));
+		escritura.iniciar();
+
+		escritura.encolar(List.of(libro("Emma")));
+		escritura.cerrar();
+		assertEquals(List.of(libro("Emma")), escritura.sinGuardar());
+		assertEquals(1, registro.get("literatura.escritura.sin-guardar").gauge().value());
+
+		var persuasion = mock(Libro.class);
+		when(persuasion.getTitulo()).thenReturn("Persuasion");
+		doReturn(List.of(persuasion)).when(registroLibros).registrarTodos(anyList());
+		assertEquals(List.of(libro("Persuasion")), escritura.encolar(List.of(libro("Persuasion"), libro("Sanditon"))));
+	}
+
+	private static DatosLibro libro(String titulo) {
+		return new DatosLibro(null, titulo, List.of(AUSTEN), List.of("en"), 100L);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.alurachallenge.Literatura.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EstadisticasRendimientoTest {
+
+	private static final String PAGINA = """
+			{"count": 2, "next": null, "previous": null, "results": [
+			  {"id": 1, "title": "Uno", "authors": [], "languages": ["en"], "download_count": 1},
+			  {"id": 2, "title": "Dos", "authors": [], "languages": ["en"], "download_count": 2}]}
+			""";
+
+	@Test
+	void resumeLasConversionesYLaCache() {
+		SimpleMeterRegistry registro = new SimpleMeterRegistry();
+		ConvierteDatos conversor = new ConvierteDatos(registro);
+		CacheRespuestas cache = new CacheRespuestas(false, 10, Duration.ofHours(1), Path.of("no-usada"), Clock.systemUTC(), Long.MAX_VALUE);
+		cache.bindTo(registro);
+
+		conversor.recorrerResultados(new ByteArrayInputStream(PAGINA.getBytes(StandardCharsets.UTF_8)), libro -> {});
+		conversor.recorrerResultados(new ByteArrayInputStream(PAGINA.getBytes(StandardCharsets.UTF_8)), libro -> {});
+
+		var resumen = new EstadisticasRendimiento(registro, cache).resumen();
+		var conversion = resumen.mediciones().get(0);
+		assertEquals("literatura.json.conversion", conversion.nombre());
+		assertEquals("recorrido Datos", conversion.etiquetas());
+		assertEquals(2, conversion.cantidad());
+		assertEquals(4, registro.get("literatura.json.resultados").summary().totalAmount());
+		assertEquals(0, resumen.cache().fallos());
+		assertTrue(resumen.conexiones().isEmpty());
+	}
+}
@@ -0,0 +1,126 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.Repository.AutorRepository;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.dto.DatosAutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+		"literatura.importacion.tamano-lote=2",
+		"literatura.importacion.archivo-progreso=target/importacion-prueba.progreso"})
+class ImportadorCatalogoTest {
+
+	private static final String CATALOGO = """
+			Text#,Type,Issued,Title,Language,Authors,Subjects,LoCC,Bookshelves
+			1342,Text,1998-06-01,Pride and Prejudice,en,"Austen, Jane, 1775-1817",Courtship -- Fiction,PR,
+			158,Text,1994-08-01,Emma,en,"Austen, Jane, 1775-1817",,PR,
+			84,Text,1993-10-01,"Frankenstein; Or, The Modern
+			Prometheus",en,"Shelley, Mary Wollstonecraft, 1797-1851; Wollstonecraft, Mary [Editor]",,PR,
+			9999,Sound,2004-01-01,Emma (audio),en,"Austen, Jane, 1775-1817",,,
+			2000,Text,1999-01-01,Don Quijote,es,"Cervantes Saavedra, Miguel de, 1547-1616",,PQ,
+			3000,Text,2001-01-01,Poemas anónimos,es; en,,,,
+			";;;",Text,2000-01-01,"Los ""Cuentos"" sin autor",es,,,,
+			""";
+
+	@TempDir
+	Path directorio;
+
+	@Autowired
+	private ImportadorCatalogo importadorCatalogo;
+	@Autowired
+	private LibroRepository libroRepository;
+	@Autowired
+	private AutorRepository autorRepository;
+
+	@AfterEach
+	void limpiar() {
+		libroRepository.deleteAllInBatch();
+		autorRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void importaUnArchivoComprimidoYNoDuplicaAlRepetir() throws IOException {
+		Path archivo = directorio.resolve("pg_catalog.csv.gz");
+		try (OutputStream salida = new GZIPOutputStream(Files.newOutputStream(archivo))) {
+			salida.write(CATALOGO.getBytes(StandardCharsets.UTF_8));
+		}
+
+		var resumen = importadorCatalogo.importar(archivo, 0);
+
+		assertEquals(7, resumen.registrosLeidos());
+		assertEquals(5, resumen.librosRegistrados());
+		assertEquals(4, resumen.autoresRegistrados());
+		Libro frankenstein = libroRepository.findByTitulo("Frankenstein; Or, The Modern Prometheus").orElseThrow();
+		assertEquals(84L, frankenstein.getIdGutendex());
+		assertEquals(0, frankenstein.getNumeroDeDescargas());
+		assertEquals(List.of("Shelley, Mary Wollstonecraft", "Wollstonecraft, Mary"), frankenstein.getNombresDeAutores());
+		assertEquals(1797, frankenstein.getAutores().get(0).getFechaDeNacimiento());
+		Libro poemas = libroRepository.findByTitulo("Poemas anónimos").orElseThrow();
+		assertEquals(List.of(), poemas.getAutores());
+		assertEquals(List.of("es", "en"), poemas.getCodigosDeIdioma());
+		assertEquals(resumen.desplazamientoFinal(), importadorCatalogo.leerProgreso(archivo));
+
+		assertEquals(0, importadorCatalogo.importar(archivo, 0).librosRegistrados());
+		assertEquals(5, libroRepository.count());
+		assertEquals(List.of("Shelley, Mary Wollstonecraft", "Wollstonecraft, Mary"),
+				libroRepository.findByTitulo("Frankenstein; Or, The Modern Prometheus").orElseThrow().getNombresDeAutores());
+	}
+
+	@Test
+	void reanudaDesdeElDesplazamientoGuardado() throws IOException {
+		Path archivo = Files.writeString(directorio.resolve("pg_catalog.csv"), CATALOGO);
+		String primeraLinea = CATALOGO.substring(0, CATALOGO.indexOf("158,"));
+		long desplazamiento = primeraLinea.getBytes(StandardCharsets.UTF_8).length;
+
+		var resumen = importadorCatalogo.importar(archivo, desplazamiento);
+
+		assertEquals(6, resumen.registrosLeidos());
+		assertEquals(4, resumen.librosRegistrados());
+		assertEquals(Files.size(archivo), resumen.desplazamientoFinal());
+		assertEquals(0, libroRepository.findByTitulo("Pride and Prejudice").stream().count());
+	}
+
+	@Test
+	void noMezclaLosAutoresDeUnIdRepetidoYRecortaLosNombresLargos() throws IOException {
+		String nombreLargo = "Autor " + "x".repeat(300);
+		Path archivo = Files.writeString(directorio.resolve("pg_catalog.csv"), """
+				Text#,Type,Issued,Title,Language,Authors,Subjects,LoCC,Bookshelves
+				500,Text,2000-01-01,Primero,en,"Uno, Autor, 1800-1850",,,
+				500,Text,2000-01-01,Segundo,fr,"Dos, Autor, 1810-1860",,,
+				501,Text,2000-01-01,Largo,en,"%s, 1800-1850",,,
+				""".formatted(nombreLargo));
+
+		var resumen = importadorCatalogo.importar(archivo, 0);
+
+		assertEquals(2, resumen.librosRegistrados());
+		Libro primero = libroRepository.findByTitulo("Primero").orElseThrow();
+		assertEquals(List.of("Uno, Autor"), primero.getNombresDeAutores());
+		assertEquals(List.of("en"), primero.getCodigosDeIdioma());
+		assertEquals(0, libroRepository.findByTitulo("Segundo").stream().count());
+		assertEquals(List.of(nombreLargo.substring(0, 255)),
+				libroRepository.findByTitulo("Largo").orElseThrow().getNombresDeAutores());
+	}
+
+	@Test
+	void separaElNombreYLosAniosDelAutor() {
+		assertEquals(new DatosAutor("Austen, Jane", 1775, 1817), ImportadorCatalogo.convertirAutor("Austen, Jane, 1775-1817"));
+		assertEquals(new DatosAutor("Horace", -65, -8), ImportadorCatalogo.convertirAutor("Horace, 65 BCE-8 BCE [Editor]"));
+		assertEquals(new DatosAutor("Doe, John", 1947, null), ImportadorCatalogo.convertirAutor("Doe, John, 1947-"));
+		assertEquals(new DatosAutor("Anonymous", null, null), ImportadorCatalogo.convertirAutor("Anonymous"));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.alurachallenge.Literatura.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceTrigramasTest {
+
+	@Test
+	void buscaSubcadenasSinDistinguirMayusculasNiAcentos() {
+		IndiceTrigramas indice = new IndiceTrigramas();
+		indice.agregar(1, "Brontë, Charlotte");
+		indice.agregar(2, "Brontë, Emily");
+		indice.agregar(3, "Cervantes Saavedra, Miguel de");
+
+		assertEquals(List.of(1L, 2L), indice.buscarSubcadena("BRONTE", 10));
+		assertEquals(List.of(3L), indice.buscarSubcadena("saavedra miguel", 10));
+		assertEquals(List.of(2L), indice.buscarSubcadena("em", 10));
+		assertTrue(indice.buscarSubcadena("dickens", 10).isEmpty());
+	}
+
+	@Test
+	void lasBusquedasAproximadasOrdenanPorSimilitud() {
+		IndiceTrigramas indice = new IndiceTrigramas();
+		indice.agregar(1, "Austen, Jane");
+		indice.agregar(2, "Auster, Paul");
+		indice.agregar(3, "Dickens, Charles");
+
+		List<IndiceTrigramas.Coincidencia> coincidencias = indice.buscarAproximado("jane austin", 5, 0.2);
+
+		assertEquals(1L, coincidencias.get(0).id());
+		assertTrue(coincidencias.stream().noneMatch(coincidencia -> coincidencia.id() == 3L));
+	}
+}
@@ -0,0 +1,32 @@
+package com.alurachallenge.Literatura.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndiceVidaAutoresTest {
+
+	@Test
+	void respondePorAnioYPorRangoSeparandoLasVidasAbiertas() {
+		IndiceVidaAutores indice = new IndiceVidaAutores(null);
+		indice.agregar(1, 1775, 1817);  // Austen
+		indice.agregar(2, 1797, 1851);  // Shelley
+		indice.agregar(3, 1812, 1870);  // Dickens
+		indice.agregar(4, -69, -30);    // Cleopatra
+		indice.agregar(5, 1947, null);  // sin fallecimiento
+		indice.agregar(6, null, 1900);  // sin nacimiento: no se indexa
+
+		assertEquals(List.of(1L, 2L), ordenados(indice.vivosEn(1800).confirmados()));
+		assertEquals(List.of(2L, 3L), ordenados(indice.vivosEn(1817).confirmados()));
+		assertEquals(List.of(4L), indice.vivosEn(-50).confirmados());
+		assertEquals(List.of(1L, 2L, 3L), ordenados(indice.vivosEntre(1810, 1820).confirmados()));
+		assertEquals(List.of(), indice.vivosEn(1800).sinFechaDeFallecimiento());
+		assertEquals(List.of(5L), indice.vivosEn(2000).sinFechaDeFallecimiento());
+	}
+
+	private static List<Long> ordenados(List<Long> ids) {
+		return ids.stream().sorted().toList();
+	}
+}
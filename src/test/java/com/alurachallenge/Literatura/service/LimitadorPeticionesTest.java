@@ -0,0 +1,19 @@
+package com.alurachallenge.Literatura.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimitadorPeticionesTest {
+
+	@Test
+	void reparteLasPeticionesAlRitmoIndicado() {
+		LimitadorPeticiones limitador = new LimitadorPeticiones(50);
+		long inicio = System.nanoTime();
+		for (int i = 0; i < 6; i++) {
+			limitador.esperarTurno();
+		}
+		// Seis turnos a 50 por segundo: el primero es inmediato y los otros cinco llegan cada 20 ms
+		assertTrue(System.nanoTime() - inicio >= 100_000_000L);
+	}
+}
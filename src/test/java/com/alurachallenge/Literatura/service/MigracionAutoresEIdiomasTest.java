@@ -0,0 +1,57 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.Repository.AutorRepository;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class MigracionAutoresEIdiomasTest {
+
+	@Autowired
+	private MigracionAutoresEIdiomas migracion;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private LibroRepository libroRepository;
+	@Autowired
+	private AutorRepository autorRepository;
+
+	@AfterEach
+	void limpiar() {
+		libroRepository.deleteAllInBatch();
+		autorRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void pasaLasColumnasDelModeloAnteriorALasTablasDeUnion() {
+		// Esquema de una base de datos creada antes de las tablas de unión
+		jdbcTemplate.execute("ALTER TABLE libros ADD COLUMN autor_id BIGINT");
+		jdbcTemplate.execute("ALTER TABLE libros ADD COLUMN idioma VARCHAR(255)");
+		jdbcTemplate.update("INSERT INTO autores (nombre, fecha_de_nacimiento) VALUES ('Austen, Jane', 1775)");
+		Long autorId = jdbcTemplate.queryForObject("SELECT id FROM autores", Long.class);
+		jdbcTemplate.update("INSERT INTO libros (titulo, numero_de_descargas, autor_id, idioma) VALUES ('Emma', 10, ?, 'en')", autorId);
+		jdbcTemplate.update("INSERT INTO libros (titulo, numero_de_descargas, idioma) VALUES ('Anónimo', 5, 'la')");
+
+		migracion.migrar();
+		migracion.migrar();
+
+		Libro emma = libroRepository.findByTitulo("Emma").orElseThrow();
+		assertEquals(List.of("Austen, Jane"), emma.getNombresDeAutores());
+		assertEquals(List.of("en"), emma.getCodigosDeIdioma());
+		Libro anonimo = libroRepository.findByTitulo("Anónimo").orElseThrow();
+		assertEquals(List.of(), anonimo.getAutores());
+		assertEquals(List.of("la"), anonimo.getCodigosDeIdioma());
+		assertEquals(0, jdbcTemplate.queryForObject("""
+				SELECT COUNT(*) FROM information_schema.columns
+				WHERE table_name = 'libros' AND column_name IN ('autor_id', 'idioma')""", Integer.class));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Repository.AutorRepository;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.dto.DatosAutor;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class ProcesadorLotesTest {
+
+	private static final String AUSTEN = """
+			{"count": 2, "results": [
+			  {"id": 1342, "title": "Pride and Prejudice", "authors": [{"name": "Austen, Jane", "birth_year": 1775, "death_year": 1817}],
+			   "languages": ["en"], "download_count": 500},
+			  {"id": 158, "title": "Emma", "authors": [{"name": "Austen, Jane", "birth_year": 1775, "death_year": 1817}],
+			   "languages": ["en"], "download_count": 300}]}
+			""";
+	private static final String SHELLEY = """
+			{"count": 1, "results": [
+			  {"id": 84, "title": "Frankenstein", "authors": [{"name": "Shelley, Mary", "birth_year": 1797, "death_year": 1851}],
+			   "languages": ["en"], "download_count": 900}]}
+			""";
+	private static final String PRIMERO = """
+			{"count": 1, "results": [{"id": 2, "title": "Primero", "authors": [], "languages": ["en"], "download_count": 1}]}
+			""";
+	private static final String ERRONEO = """
+			{"count": 1, "results": [{"id": 1, "title": "Libro erróneo", "authors": [], "languages": ["en"], "download_count": 1}]}
+			""";
+
+	@Autowired
+	private ConvierteDatos conversor;
+	@Autowired
+	private RegistroLibros registroLibros;
+	@Autowired
+	private LibroRepository libroRepository;
+	@Autowired
+	private AutorRepository autorRepository;
+
+	@AfterEach
+	void limpiar() {
+		libroRepository.deleteAllInBatch();
+		autorRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void procesaLasConsultasPorEtapasYResumeElResultado() {
+		// Responde como Gutendex sin salir a la red: "austen" y "emma" encuentran libros, "falla" da error
+		ConsumoAPI consumoAPI = new ConsumoAPI() {
+			@Override
+			public String obtenerDatos(String url) {
+				String consulta = URLDecoder.decode(url.substring(url.indexOf("search=") + 7), StandardCharsets.UTF_8).toLowerCase();
+				if (consulta.equals("falla")) {
+					throw new ErrorConsultaAPI("Gutendex respondió con el código 500", 500, true);
+				}
+				return consulta.contains("austen") || consulta.equals("emma") ? AUSTEN : "{\"count\": 0, \"results\": []}";
+			}
+		};
+		var procesador = new ProcesadorLotes(consumoAPI, conversor, registroLibros, 2, 3, 2, 2,
+				new ConfiguracionGutendex("https://gutendex.com/books/"));
+		String lote = """
+				# Consultas de prueba
+				autor: austen
+				titulo: emma
+				Emma
+
+				inexistente
+				falla
+				""";
+
+		registroLibros.registrarTodos(List.of(new DatosLibro(158L, "Emma",
+				List.of(new DatosAutor("Austen, Jane", 1775, 1817)), List.of("en"), 300L)));
+
+		var resumen = procesador.procesar(new BufferedReader(new StringReader(lote)));
+
+		assertEquals(5, resumen.consultas());
+		assertEquals(1, resumen.sinResultados());
+		assertEquals(1, resumen.fallidas());
+		assertEquals(1, resumen.librosRegistrados());
+		// Emma la encuentran tres consultas, pero ya estaba registrada una sola vez
+		assertEquals(1, resumen.yaRegistrados());
+		assertEquals(2, libroRepository.count());
+		assertEquals(5, resumen.etapas().get(0).procesadas());
+		assertEquals(4, resumen.total().procesadas());
+		assertTrue(resumen.consultasPorSegundo() > 0);
+	}
+
+	@Test
+	void siFallaElRegistroDeUnGrupoRegistraCadaConsultaPorSeparado() {
+		ConsumoAPI consumoAPI = new ConsumoAPI() {
+			@Override
+			public String obtenerDatos(String url) {
+				String consulta = URLDecoder.decode(url.substring(url.indexOf("search=") + 7), StandardCharsets.UTF_8).toLowerCase();
+				if (consulta.equals("primero")) {
+					return PRIMERO;
+				}
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return switch (consulta) {
+					case "austen" -> AUSTEN;
+					case "shelley" -> SHELLEY;
+					default -> ERRONEO;
+				};
+			}
+		};
+		// "primero" llega antes y su registro tarda, así que las otras tres consultas se juntan en un grupo
+		// que falla por el libro erróneo
+		var registroLento = mock(RegistroLibros.class);
+		var primero = new AtomicBoolean(true);
+		when(registroLento.registrarTodos(anyList())).thenAnswer(invocacion -> {
+			List<DatosLibro> libros = invocacion.getArgument(0);
+			if (primero.getAndSet(false)) {
+				Thread.sleep(500);
+			}
+			if (libros.stream().anyMatch(libro -> libro.titulo().equals("Libro erróneo"))) {
+				throw new IllegalStateException("título no válido");
+			}
+			return registroLibros.registrarTodos(libros);
+		});
+		var procesador = new ProcesadorLotes(consumoAPI, conversor, registroLento, 10, 4, 4, 1,
+				new ConfiguracionGutendex("https://gutendex.com/books/"));
+
+		var resumen = procesador.procesar(new BufferedReader(new StringReader("""
+				autor: primero
+				autor: austen
+				autor: erroneo
+				autor: shelley
+				""")));
+
+		assertEquals(1, resumen.fallidas());
+		assertEquals(4, resumen.librosRegistrados());
+		assertEquals(0, resumen.yaRegistrados());
+		assertEquals(4, libroRepository.count());
+		// "primero", el grupo de tres que falla y después cada una de sus consultas
+		verify(registroLento, times(5)).registrarTodos(anyList());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RankingDescargasTest {
+
+	@Test
+	void guardaLosKMasDescargadosGlobalesYPorIdioma() {
+		RankingDescargas ranking = new RankingDescargas(null, 3);
+		ranking.actualizar(posicion(1, "en", 500));
+		ranking.actualizar(posicion(2, "es", 900));
+		ranking.actualizar(posicion(3, "en", 100));
+		ranking.actualizar(posicion(4, "en", 700));
+		ranking.actualizar(posicion(5, "fr", 50));
+
+		assertEquals(List.of(2L, 4L, 1L), ids(ranking.top(10, null)));
+		assertEquals(List.of(2L, 4L), ids(ranking.top(2, null)));
+		assertEquals(List.of(4L, 1L, 3L), ids(ranking.top(3, "en")));
+		assertEquals(List.of(5L), ids(ranking.top(3, "fr")));
+		assertEquals(List.of(), ranking.top(3, "pt"));
+	}
+
+	@Test
+	void reordenaAlSubirLasDescargasDeUnLibro() {
+		RankingDescargas ranking = new RankingDescargas(null, 3);
+		ranking.actualizar(posicion(1, "en", 500));
+		ranking.actualizar(posicion(2, "en", 400));
+		ranking.actualizar(posicion(3, "en", 300));
+		ranking.actualizar(posicion(4, "en", 200));
+
+		ranking.actualizar(posicion(3, "en", 1000));
+		ranking.actualizar(posicion(4, "en", 450));
+
+		assertEquals(List.of(3L, 1L, 4L), ids(ranking.top(3, null)));
+		assertEquals(1000, ranking.top(1, "en").get(0).descargas());
+	}
+
+	@Test
+	void conCapacidadUnoRecargaCuandoElUnicoLibroBaja() {
+		LibroRepository libroRepository = mock(LibroRepository.class);
+		List<Libro> catalogo = List.of(libro(2, "en", 400), libro(1, "en", 100));
+		when(libroRepository.buscarIdsMasDescargados(any(Limit.class))).thenReturn(List.of(2L, 1L));
+		when(libroRepository.buscarIdsMasDescargadosPorIdioma(eq("en"), any(Limit.class))).thenReturn(List.of(2L, 1L));
+		when(libroRepository.cargarEnOrden(List.of(2L, 1L))).thenReturn(catalogo);
+		RankingDescargas ranking = new RankingDescargas(libroRepository, 1);
+		ranking.actualizar(posicion(1, "en", 500));
+		ranking.actualizar(posicion(2, "en", 400));
+
+		ranking.actualizar(posicion(1, "en", 100));
+
+		assertEquals(List.of(2L), ids(ranking.top(1, null)));
+		assertEquals(List.of(2L), ids(ranking.top(1, "en")));
+	}
+
+	private static Libro libro(long id, String idioma, long descargas) {
+		Libro libro = mock(Libro.class);
+		when(libro.getId()).thenReturn(id);
+		when(libro.getTitulo()).thenReturn("Libro " + id);
+		when(libro.getNombresDeAutores()).thenReturn(List.of("Autor"));
+		when(libro.getCodigosDeIdioma()).thenReturn(List.of(idioma));
+		when(libro.getNumeroDeDescargas()).thenReturn(descargas);
+		return libro;
+	}
+
+	private static RankingDescargas.Posicion posicion(long id, String idioma, long descargas) {
+		return new RankingDescargas.Posicion(id, "Libro " + id, List.of("Autor"), List.of(idioma), descargas);
+	}
+
+	private static List<Long> ids(List<RankingDescargas.Posicion> posiciones) {
+		return posiciones.stream().map(RankingDescargas.Posicion::id).toList();
+	}
+}
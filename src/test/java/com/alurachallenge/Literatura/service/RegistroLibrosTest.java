@@ -0,0 +1,99 @@
+package com.alurachallenge.Literatura.service;
+
+import com.alurachallenge.Literatura.Model.Libro;
+import com.alurachallenge.Literatura.Repository.AutorRepository;
+import com.alurachallenge.Literatura.Repository.LibroRepository;
+import com.alurachallenge.Literatura.dto.DatosAutor;
+import com.alurachallenge.Literatura.dto.DatosLibro;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class RegistroLibrosTest {
+
+	private static final DatosAutor AUSTEN = new DatosAutor("Austen, Jane", 1775, 1817);
+
+	@Autowired
+	private RegistroLibros registroLibros;
+	@Autowired
+	private LibroRepository libroRepository;
+	@Autowired
+	private AutorRepository autorRepository;
+	@Autowired
+	private TransactionTemplate transacciones;
+
+	@AfterEach
+	void limpiar() {
+		libroRepository.deleteAllInBatch();
+		autorRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void registraUnaPaginaReutilizandoAutoresYSaltandoTitulosRepetidos() {
+		List<Libro> registrados = registroLibros.registrarTodos(List.of(
+				libro("Pride and Prejudice", AUSTEN),
+				libro("Emma", AUSTEN),
+				libro("Emma", AUSTEN),
+				libro("Frankenstein", new DatosAutor("Shelley, Mary Wollstonecraft", 1797, 1851))));
+
+		assertEquals(3, registrados.size());
+		assertEquals(3, libroRepository.count());
+		assertEquals(2, autorRepository.count());
+		assertEquals("Austen, Jane", libroRepository.findByTitulo("Emma").orElseThrow().getNombresDeAutores().get(0));
+
+		List<Libro> segundaVez = registroLibros.registrarTodos(List.of(
+				libro("Emma", AUSTEN),
+				libro("Persuasion", AUSTEN)));
+
+		assertEquals(1, segundaVez.size());
+		assertEquals("Persuasion", segundaVez.get(0).getTitulo());
+		assertEquals(2, autorRepository.count());
+		assertTrue(registroLibros.registrar(libro("Persuasion", AUSTEN)).isEmpty());
+	}
+
+	@Test
+	void guardaTodosLosAutoresEIdiomasEnOrdenYLosLibrosSinAutor() {
+		DatosAutor shelley = new DatosAutor("Shelley, Percy Bysshe", 1792, 1822);
+		registroLibros.registrarTodos(List.of(
+				new DatosLibro(null, "Poemas escogidos", List.of(shelley, AUSTEN, shelley), List.of("en", "fr", "en"), 10L),
+				new DatosLibro(null, "Anónimo", null, List.of("la"), 5L),
+				libro("Emma", AUSTEN)));
+
+		Libro poemas = libroRepository.findByTitulo("Poemas escogidos").orElseThrow();
+		assertEquals(List.of("Shelley, Percy Bysshe", "Austen, Jane"), poemas.getNombresDeAutores());
+		assertEquals(List.of("en", "fr"), poemas.getCodigosDeIdioma());
+		assertEquals(List.of(), libroRepository.findByTitulo("Anónimo").orElseThrow().getAutores());
+		assertEquals(2, autorRepository.count());
+		assertEquals(List.of("Emma", "Poemas escogidos"),
+				libroRepository.findByIdiomasCodigo("en").stream().map(Libro::getTitulo).sorted().toList());
+		assertEquals(2, libroRepository.findDistinctByAutoresIdIn(
+				List.of(poemas.getAutores().get(1).getId())).size());
+	}
+
+	@Test
+	void losIdiomasDeUnaTransaccionDeshechaNoQuedanRegistrados() {
+		DatosLibro enKlingon = new DatosLibro(null, "Hamlet", List.of(AUSTEN), List.of("tlh"), 1L);
+		transacciones.executeWithoutResult(estado -> {
+			registroLibros.registrarTodos(List.of(enKlingon));
+			estado.setRollbackOnly();
+		});
+		assertFalse(libroRepository.buscarIdiomas().contains("tlh"));
+
+		// El id deshecho no quedó en memoria: el libro se guarda con el código registrado de nuevo
+		assertEquals(1, registroLibros.registrarTodos(List.of(enKlingon)).size());
+		assertEquals(List.of("Hamlet"), libroRepository.findByIdiomasCodigo("tlh").stream().map(Libro::getTitulo).toList());
+	}
+
+	private static DatosLibro libro(String titulo, DatosAutor autor) {
+		return new DatosLibro(null, titulo, List.of(autor), List.of("en"), 100L);
+	}
+}